@@ -0,0 +1,39 @@
+package com.revature.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.model.Chef;
+import com.revature.util.DataGenerator;
+
+/**
+ * The AuthenticationBenchmark class measures logging in, cycling through the generated chefs of a
+ * {@link SeededDatabase}. Each login stores a session, so the session store grows over the run as it
+ * would under real traffic.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = SeededDatabase.DB_URL_ARG)
+public class AuthenticationBenchmark {
+
+    /** The number of the generated chef to log in next. */
+    private int nextChef;
+
+    @Benchmark
+    public String login(SeededDatabase db) {
+        nextChef = nextChef % db.generator.getChefs() + 1;
+        return db.authenticationService.login(new Chef(DataGenerator.username(nextChef), DataGenerator.password(nextChef)));
+    }
+}
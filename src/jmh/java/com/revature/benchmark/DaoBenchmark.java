@@ -0,0 +1,63 @@
+package com.revature.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.model.Chef;
+import com.revature.model.Ingredient;
+import com.revature.model.Recipe;
+import com.revature.util.Page;
+import com.revature.util.PageOptions;
+
+/**
+ * The DaoBenchmark class measures the DAO reads behind the most used endpoints, against a
+ * {@link SeededDatabase} of each size. Run with, for example, `java -jar target/benchmarks.jar
+ * DaoBenchmark -p scale=SMALL` to measure a single size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = SeededDatabase.DB_URL_ARG)
+public class DaoBenchmark {
+
+    /** The id of the chef to read next, cycling through every chef so the chef cache sees a realistic mix. */
+    private int nextChef;
+
+    @Benchmark
+    public List<Recipe> getAllRecipes(SeededDatabase db) {
+        return db.recipeDAO.getAllRecipes();
+    }
+
+    @Benchmark
+    public Page<Recipe> getAllRecipesPage(SeededDatabase db) {
+        return db.recipeDAO.getAllRecipes(new PageOptions(1, 50, "id", "asc"));
+    }
+
+    @Benchmark
+    public List<Recipe> searchRecipesByTerm(SeededDatabase db) {
+        return db.recipeDAO.searchRecipesByTerm("soup 42");
+    }
+
+    @Benchmark
+    public Chef getChefById(SeededDatabase db) {
+        nextChef = nextChef % db.generator.getChefs() + 1;
+        return db.chefDAO.getChefById(nextChef);
+    }
+
+    @Benchmark
+    public List<Ingredient> searchIngredients(SeededDatabase db) {
+        return db.ingredientDAO.searchIngredients("garlic");
+    }
+}
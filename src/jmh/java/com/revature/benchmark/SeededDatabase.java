@@ -0,0 +1,81 @@
+package com.revature.benchmark;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.revature.dao.ChefDAO;
+import com.revature.dao.IngredientDAO;
+import com.revature.dao.RecipeDAO;
+import com.revature.service.AuthenticationService;
+import com.revature.service.ChefService;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DBUtil;
+import com.revature.util.DataGenerator;
+
+/**
+ * The SeededDatabase class is the JMH state shared by the benchmarks: the schema from sqlScript.sql plus
+ * the rows a {@link DataGenerator} loads at the requested scale (1k, 100k or 1M recipes), and the DAOs
+ * and services built on top of it.
+ *
+ * The data is generated from a fixed seed, so every run measures the same database. Benchmarks fork with
+ * db.url pointing at target/jmh, and a database already seeded at the requested size is reused rather
+ * than seeded again.
+ */
+@State(Scope.Benchmark)
+public class SeededDatabase {
+
+    /** The JVM argument that points forked benchmarks at their own database file. */
+    public static final String DB_URL_ARG = "-Ddb.url=jdbc:h2:./target/jmh/db;";
+
+    /** The number of recipes in sqlScript.sql's own seed data. */
+    private static final int SCRIPT_RECIPES = 5;
+
+    /** The seed of the generated data. */
+    private static final long SEED = 42;
+
+    /** The size of the generated data. */
+    @Param({ "SMALL", "MEDIUM", "LARGE" })
+    public DataGenerator.Scale scale;
+
+    public DataGenerator generator;
+    public ConnectionUtil connectionUtil;
+    public ChefDAO chefDAO;
+    public IngredientDAO ingredientDAO;
+    public RecipeDAO recipeDAO;
+    public AuthenticationService authenticationService;
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        generator = new DataGenerator(scale, SEED);
+        connectionUtil = new ConnectionUtil();
+        if (countRecipes() != SCRIPT_RECIPES + generator.getRecipes()) {
+            DBUtil.RUN_SQL();
+            try (Connection conn = connectionUtil.getConnection()) {
+                generator.load(conn);
+            }
+        }
+        chefDAO = new ChefDAO(connectionUtil);
+        ingredientDAO = new IngredientDAO(connectionUtil);
+        recipeDAO = new RecipeDAO(chefDAO, ingredientDAO, connectionUtil);
+        authenticationService = new AuthenticationService(new ChefService(chefDAO));
+    }
+
+    private int countRecipes() {
+        try (Connection conn = connectionUtil.getConnection();
+                Statement statement = conn.createStatement();
+                ResultSet set = statement.executeQuery("SELECT COUNT(*) FROM RECIPE")) {
+            return set.next() ? set.getInt(1) : 0;
+        } catch (SQLException e) {
+            // No schema yet
+            return -1;
+        }
+    }
+}
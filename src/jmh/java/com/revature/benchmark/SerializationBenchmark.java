@@ -0,0 +1,54 @@
+package com.revature.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.model.Recipe;
+import com.revature.util.Page;
+import com.revature.util.PageOptions;
+
+import io.javalin.json.JavalinJackson;
+
+/**
+ * The SerializationBenchmark class measures writing a page of recipes, with their chefs, as JSON through
+ * the same mapper Javalin uses for responses. The page is read once per trial, so only serialization is
+ * measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = SeededDatabase.DB_URL_ARG)
+public class SerializationBenchmark {
+
+    /** The number of recipes on the page. */
+    @Param({ "10", "100" })
+    public int pageSize;
+
+    private final JavalinJackson json = new JavalinJackson();
+
+    private Page<Recipe> page;
+
+    @Setup(Level.Trial)
+    public void loadPage(SeededDatabase db) {
+        page = db.recipeDAO.getAllRecipes(new PageOptions(1, pageSize, "id", "asc"));
+    }
+
+    @Benchmark
+    public String serializePage() {
+        return json.toJsonString(page, Page.class);
+    }
+}
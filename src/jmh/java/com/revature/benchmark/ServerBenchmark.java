@@ -0,0 +1,101 @@
+package com.revature.benchmark;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.revature.controller.AuthenticationController;
+import com.revature.controller.IngredientController;
+import com.revature.controller.RecipeController;
+import com.revature.service.ChefService;
+import com.revature.service.IngredientService;
+import com.revature.service.RecipeService;
+import com.revature.util.JavalinAppUtil;
+
+import io.javalin.Javalin;
+
+/**
+ * The ServerBenchmark class compares the two request thread modes under load: the server runs over a
+ * {@link SeededDatabase} and 64 benchmark threads act as concurrent clients, each waiting for its response
+ * before sending the next request. Run with, for example, `java -jar target/benchmarks.jar ServerBenchmark
+ * -p scale=SMALL`; the throughput of the PLATFORM and VIRTUAL runs, and the error counts printed after each
+ * trial, are the comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(value = 1, jvmArgsAppend = SeededDatabase.DB_URL_ARG)
+public class ServerBenchmark {
+
+    /** The kind of thread the server runs its handlers on. */
+    @Param({ "PLATFORM", "VIRTUAL" })
+    public JavalinAppUtil.ThreadMode threads;
+
+    private Javalin app;
+    private HttpClient client;
+    private String baseUrl;
+    private int recipes;
+
+    /** Responses other than 200, such as 503s from the limiter or 500s from pool timeouts. */
+    private final LongAdder errors = new LongAdder();
+
+    @Setup(Level.Trial)
+    public void start(SeededDatabase db) {
+        ChefService chefService = new ChefService(db.chefDAO);
+        RecipeController recipeController = new RecipeController(new RecipeService(db.recipeDAO), db.authenticationService);
+        AuthenticationController authController = new AuthenticationController(chefService, db.authenticationService);
+        IngredientController ingredientController = new IngredientController(new IngredientService(db.ingredientDAO));
+        app = new JavalinAppUtil(recipeController, authController, ingredientController).getApp(threads).start(0);
+        baseUrl = "http://localhost:" + app.port();
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        recipes = db.generator.getRecipes();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        System.out.println("\nNon-200 responses: " + errors.sum());
+        app.stop();
+    }
+
+    @Benchmark
+    public int getRecipeById() throws IOException, InterruptedException {
+        return get("/recipes/" + ThreadLocalRandom.current().nextInt(1, recipes + 1));
+    }
+
+    @Benchmark
+    public int getRecipesPage() throws IOException, InterruptedException {
+        return get("/recipes?page=" + ThreadLocalRandom.current().nextInt(1, 21) + "&pageSize=20");
+    }
+
+    private int get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        if (status != 200) {
+            errors.increment();
+        }
+        return status;
+    }
+}
@@ -1,5 +1,8 @@
 package com.revature;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+
 import com.revature.controller.AuthenticationController;
 import com.revature.controller.IngredientController;
 import com.revature.controller.RecipeController;
@@ -12,7 +15,9 @@ import com.revature.service.IngredientService;
 import com.revature.service.RecipeService;
 import com.revature.util.AdminMiddleware;
 import com.revature.util.ConnectionUtil;
+import com.revature.util.DataGenerator;
 import com.revature.util.JavalinAppUtil;
+import com.revature.util.MetricsRegistry;
 import com.revature.util.DBUtil;
 
 import io.javalin.Javalin;
@@ -90,6 +95,7 @@ public class Main {
     INGREDIENT_DAO = new IngredientDAO(CONNECTION_UTIL);
 		
 		CHEF_DAO = new ChefDAO(CONNECTION_UTIL);
+		CHEF_DAO.registerMetrics(MetricsRegistry.getDefault());
 		
 		RECIPE_DAO = new RecipeDAO(CHEF_DAO, INGREDIENT_DAO, CONNECTION_UTIL);
 		
@@ -110,6 +116,16 @@ public class Main {
 		JAVALIN_APP_UTIL = new JavalinAppUtil(RECIPE_CONTROLLER, AUTH_CONTROLLER, INGREDIENT_CONTROLLER);
 		
 		DBUtil.RUN_SQL();
+
+		// Optionally load synthetic data for local load runs, e.g. -Ddata.scale=medium
+		String dataScale = System.getProperty("data.scale");
+		if (dataScale != null) {
+			try (Connection conn = CONNECTION_UTIL.getConnection()) {
+				new DataGenerator(DataGenerator.Scale.parse(dataScale), Long.getLong("data.seed", 42)).load(conn);
+			} catch (SQLException e) {
+				e.printStackTrace();
+			}
+		}
 		
 		Javalin app = JAVALIN_APP_UTIL.getApp();
 		
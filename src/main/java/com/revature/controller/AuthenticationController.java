@@ -8,7 +8,6 @@ import com.revature.service.AuthenticationService;
 import com.revature.service.ChefService;
 
 import java.util.List;
-import java.util.Map;
 
 
 
@@ -75,7 +74,7 @@ public class AuthenticationController {
         if (token != null){
             ctx.status(200)
                .header("Authorization",token)
-               .json(Map.of("token",token));
+               .result(token);
         }else{
             ctx.status(401).result("Invalid username or password");
         }
@@ -87,9 +86,9 @@ public class AuthenticationController {
      * @param ctx the Javalin context, containing the Authorization token in the request header
      */
     public void logout(Context ctx) {
-        String token = ctx.header("Authorization");
+        String token = AuthenticationService.extractToken(ctx.header("Authorization"));
 
-        if (token != null && !token.isBlank()){
+        if (token != null){
             authService.logout(token);
             ctx.status(200).result("Logout successfull");
         } else {
@@ -98,6 +97,13 @@ public class AuthenticationController {
         
     }
 
+    /**
+     * @return the service that holds the sessions this controller creates, for middleware that checks them
+     */
+    public AuthenticationService getAuthService() {
+        return authService;
+    }
+
     /**
      * Configures the routes for authentication operations.
      * 
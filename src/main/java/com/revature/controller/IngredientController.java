@@ -18,6 +18,12 @@ import com.revature.util.Page;
 
 public class IngredientController {
 
+    /** The number of autocomplete suggestions returned when no limit is requested. */
+    private static final int DEFAULT_SUGGESTIONS = 10;
+
+    /** The largest number of autocomplete suggestions returned for one request. */
+    private static final int MAX_SUGGESTIONS = 50;
+
     /**
      * A service that manages ingredient-related operations.
      */
@@ -104,6 +110,8 @@ public class IngredientController {
      * TODO: Retrieves a paginated list of ingredients, or all ingredients if no pagination parameters are provided.
      * 
      * If pagination parameters are included, returns ingredients based on page, page size, sorting, and filter term.
+     * 
+     * If an `after` parameter is included (empty for the first page), pages by cursor instead and returns the cursor of the following page as `nextCursor`. Responds with a 400 Bad Request status if the cursor is invalid.
      *
      * @param ctx the Javalin context containing query parameters for pagination, sorting, and filtering
      */
@@ -113,7 +121,15 @@ public class IngredientController {
       int pageSize = (Integer)this.getParamAsClassOrElse(ctx, "pageSize", Integer.class, 10);
       String sortBy = (String)this.getParamAsClassOrElse(ctx, "sortBy", String.class, "id");
       String sortDirection = (String)this.getParamAsClassOrElse(ctx, "sortDirection", String.class, "asc");
-      if (ctx.queryParam("page") == null && ctx.queryParam("pageSize") == null) {
+      String after = ctx.queryParam("after");
+      if (after != null) {
+         try {
+            Page<Ingredient> cursorResult = this.ingredientService.searchIngredientsAfter(term, after, pageSize, sortBy, sortDirection);
+            ctx.status(200).json(cursorResult);
+         } catch (IllegalArgumentException e) {
+            ctx.status(400).result(e.getMessage());
+         }
+      } else if (ctx.queryParam("page") == null && ctx.queryParam("pageSize") == null) {
          List<Ingredient> ingredients = this.ingredientService.searchIngredients(term);
          ctx.status(200).json(ingredients);
       } else {
@@ -123,6 +139,18 @@ public class IngredientController {
 
    }
 
+    /**
+     * Suggests ingredients for autocomplete, given the start of a name in the `prefix` query parameter.
+     * 
+     * Responds with a 200 OK status and up to `limit` ingredients (10 by default, at most 50) whose names start with the prefix, ignoring case, in order of name.
+     *
+     * @param ctx the Javalin context containing the prefix and limit query parameters
+     */
+    public void suggestIngredients(Context ctx) {
+        int limit = Math.min(Math.max((Integer)this.getParamAsClassOrElse(ctx, "limit", Integer.class, DEFAULT_SUGGESTIONS), 1), MAX_SUGGESTIONS);
+        ctx.status(200).json(this.ingredientService.suggestIngredients(ctx.queryParam("prefix"), limit));
+    }
+
     /**
      * A helper method to retrieve a query parameter from the context as a specific class type, or return a default value if the query parameter is not present.
      *
@@ -145,6 +173,7 @@ public class IngredientController {
      */
     public void configureRoutes(Javalin app) {
         app.get("/ingredients", this::getIngredients);
+        app.get("/ingredients/suggest", this::suggestIngredients);
         app.get("/ingredients/{id}", this::getIngredient);
         app.post("/ingredients", this::createIngredient);
         app.put("/ingredients/{id}", this::updateIngredient);
@@ -4,14 +4,29 @@ import io.javalin.http.Handler;
 import io.javalin.Javalin;
 import io.javalin.http.Context;
 
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import com.revature.model.Chef;
 import com.revature.model.Recipe;
+import com.revature.model.RecipeMatch;
+import com.revature.model.RecipeServing;
 import com.revature.service.AuthenticationService;
 import com.revature.service.RecipeService;
+import com.revature.util.ConnectionUtil;
 import com.revature.util.Page;
 
 /**
@@ -22,6 +37,22 @@ import com.revature.util.Page;
 
 public class RecipeController {
 
+    /** The number of typos a fuzzy name search tolerates unless the request sets a distance. */
+    private static final int DEFAULT_FUZZY_DISTANCE = Integer.getInteger("search.fuzzy.distance", 2);
+
+    /** How long an async request may take, queueing included, before it is answered with 503. */
+    private static final long ASYNC_TIMEOUT_MILLIS = Long.getLong("recipes.async.timeoutMillis", 2_000);
+
+    /** The response to an async request that could not be served in time or at all. */
+    private static final Reply SERVER_BUSY = new Reply(503, Map.of("result", "Server busy, try again later"));
+
+    /**
+     * Runs the database work of the async handlers, on at most as many threads as the connection pool has
+     * connections and with a bounded queue, so that requests beyond what the database can keep up with are
+     * turned away instead of piling up. Its threads stop when idle. Null until enableAsync is called.
+     */
+    private volatile ThreadPoolExecutor asyncExecutor;
+
     /** The service used to interact with the recipe data. */
     @SuppressWarnings("unused")
     private RecipeService recipeService;
@@ -44,92 +75,166 @@ public class RecipeController {
     /**
      * TODO: Handler for fetching all recipes. Supports pagination, sorting, and filtering by recipe name or ingredient.
      * 
+     * With `fuzzy=true`, the `name` search tolerates typos: recipes whose names are within `distance` character edits of it (2 by default) are returned, closest match first.
+     * 
+     * The `ingredient` query parameter takes a comma-separated list of ingredient ids and/or names; recipes using any of them are returned, or only recipes using all of them with `match=all`. Adding `page` and `pageSize` returns a Page instead of a list.
+     * 
+     * Passing an `after` query parameter (empty for the first page) pages by cursor instead of page number; the response's `nextCursor` is the `after` value for the following page.
+     * 
+     * The `q` query parameter runs a full-text search over recipe names and instructions instead, returning a Page of the recipes containing any of its words, most relevant first. It takes `page` and `pageSize`, defaulting to the first 10 results.
+     * 
+     * Passing `expand=ingredients` fills in each recipe's ingredients, loaded with one query for the whole response. Passing `units=metric` or `units=imperial` as well shows their amounts in that measuring system.
+     * 
      * Responds with a 200 OK status and the list of recipes, or 404 Not Found with a result of "No recipes found".
      */
-    public Handler fetchAllRecipes = ctx -> {
+    public Handler fetchAllRecipes = ctx -> reply(ctx, listRecipes(RequestParams.of(ctx)));
+
+    /**
+     * Async variant of fetchAllRecipes: the lookup runs on the async executor, and the request is answered with 503 Service Unavailable if it is not done within the async timeout.
+     */
+    public Handler fetchAllRecipesAsync = ctx -> replyAsync(ctx, this::listRecipes);
+
+    /**
+     * Looks up the recipes fetchAllRecipes responds with, from a copy of the request's parameters.
+     *
+     * @param params the parameters of the request
+     * @return the response to send
+     */
+    private Reply listRecipes(RequestParams params) {
 
     //Test expects name param to be checked first
-    String name = ctx.queryParam("name");
+    String name = params.queryParam("name");
     if (name != null) {
-        List<Recipe> results = recipeService.searchRecipes(name);
+        List<Recipe> results = "true".equalsIgnoreCase(params.queryParam("fuzzy"))
+                ? recipeService.searchRecipes(name, getParamAsClassOrElse(params, "distance", Integer.class, DEFAULT_FUZZY_DISTANCE))
+                : recipeService.searchRecipes(name);
 
         if (results.isEmpty()) {
-            ctx.status(404);
-            ctx.result("No recipes found");
-            return;
+            return new Reply(404, "No recipes found");
         }
-        ctx.status(200);
-        ctx.json(results);
-        return;
+        return new Reply(200, expand(params, results));
     }
 
-    //ingredient filter
-    String ingredient = ctx.queryParam("ingredient");
+    //full-text search: ranked by relevance, so it is always paged and ignores sortBy
+    String query = params.queryParam("q");
+    if (query != null && !query.isBlank()) {
+        int page = getParamAsClassOrElse(params, "page", Integer.class, 1);
+        int pageSize = getParamAsClassOrElse(params, "pageSize", Integer.class, 10);
+        return new Reply(200, expand(params, recipeService.searchRecipesFullText(query, page, pageSize)));
+    }
+
+    //ingredient filter: comma-separated ingredient ids and/or names, matching any of them unless match=all
+    String ingredient = params.queryParam("ingredient");
     if (ingredient != null) {
-        List<Recipe> results = recipeService.searchRecipes(ingredient);
+        boolean matchAll = "all".equalsIgnoreCase(params.queryParam("match"));
+        if (params.queryParam("page") != null && params.queryParam("pageSize") != null) {
+            int page = getParamAsClassOrElse(params, "page", Integer.class, 1);
+            int pageSize = getParamAsClassOrElse(params, "pageSize", Integer.class, 10);
+            String sortBy = getParamAsClassOrElse(params, "sortBy", String.class, "id");
+            String sortDirection = getParamAsClassOrElse(params, "sortDirection", String.class, "asc");
+            return new Reply(200, expand(params, recipeService.searchRecipesByIngredients(ingredient, matchAll, page, pageSize, sortBy, sortDirection)));
+        }
+        List<Recipe> results = recipeService.searchRecipesByIngredients(ingredient, matchAll);
 
         if (results.isEmpty()) {
-            ctx.status(404);
-            ctx.result("No recipes found");
-            return;
+            return new Reply(404, "No recipes found");
         }
-        ctx.status(200);
-        ctx.json(results);
-        return;
+        return new Reply(200, expand(params, results));
     }
 
     //pagination mode (term-based)
-    String term = ctx.queryParam("term");
-    String rawPage = ctx.queryParam("page");
-    String rawPageSize = ctx.queryParam("pageSize");
+    String term = params.queryParam("term");
+    String rawPage = params.queryParam("page");
+    String rawPageSize = params.queryParam("pageSize");
+
+    //cursor mode: `after` is present, and empty for the first page
+    String after = params.queryParam("after");
+    if (after != null) {
+        int pageSize = getParamAsClassOrElse(params, "pageSize", Integer.class, 10);
+        String sortBy = getParamAsClassOrElse(params, "sortBy", String.class, "id");
+        String sortDirection = getParamAsClassOrElse(params, "sortDirection", String.class, "asc");
+        try {
+            Page<Recipe> result = recipeService.searchRecipesAfter(term, after, pageSize, sortBy, sortDirection);
+            return new Reply(200, expand(params, result));
+        } catch (IllegalArgumentException e) {
+            return new Reply(400, e.getMessage());
+        }
+    }
 
     if (rawPage != null && rawPageSize != null) {
 
         int page = Integer.parseInt(rawPage);
         int pageSize = Integer.parseInt(rawPageSize);
 
-        String sortBy = ctx.queryParam("sortBy");
+        String sortBy = params.queryParam("sortBy");
         if (sortBy == null) sortBy = "id";
 
-        String sortDirection = ctx.queryParam("sortDirection");
+        String sortDirection = params.queryParam("sortDirection");
         if (sortDirection == null) sortDirection = "asc";
 
         Page<Recipe> result = recipeService.searchRecipes(term, page, pageSize, sortBy, sortDirection);
 
-        ctx.status(200);
-        ctx.json(result);
-        return;
+        return new Reply(200, expand(params, result));
     }
     List<Recipe> all = recipeService.searchRecipes(null);
 
     if (all.isEmpty()) {
-        ctx.status(404);
-        ctx.result("No recipes found");
-        return;
+        return new Reply(404, "No recipes found");
     }
 
-    ctx.status(200);
-    ctx.json(all);
-};
+    return new Reply(200, expand(params, all));
+}
 
     /**
      * TODO: Handler for fetching a recipe by its ID.
      * 
-     * If successful, responds with a 200 status code and the recipe as the response body.
+     * If successful, responds with a 200 status code and the recipe as the response body, including its ingredients if `expand=ingredients` is passed, with amounts in the measuring system given by `units=metric` or `units=imperial`.
      * 
      * If unsuccessful, responds with a 404 status code and a result of "Recipe not found".
      */
-    public Handler fetchRecipeById = ctx -> {
-        int id = Integer.parseInt(ctx.pathParam("id"));
+    public Handler fetchRecipeById = ctx -> reply(ctx, findRecipe(RequestParams.of(ctx)));
+
+    /**
+     * Async variant of fetchRecipeById: the lookup runs on the async executor, and the request is answered with 503 Service Unavailable if it is not done within the async timeout.
+     */
+    public Handler fetchRecipeByIdAsync = ctx -> replyAsync(ctx, this::findRecipe);
+
+    /**
+     * Looks up the recipe fetchRecipeById responds with, from a copy of the request's parameters.
+     *
+     * @param params the parameters of the request
+     * @return the response to send
+     */
+    private Reply findRecipe(RequestParams params) {
+        int id = Integer.parseInt(params.pathParam("id"));
 
         Optional<Recipe> recipe = recipeService.findRecipe(id);
 
         if (recipe.isEmpty()) {
+            return new Reply(404, Map.of("result", "Recipe not found"));
+        }
+
+        return new Reply(200, expand(params, List.of(recipe.get())).get(0));
+    }
+
+    /**
+     * Handler for fetching the recipes most similar to a recipe, judged by how many ingredients they share (Jaccard similarity of their ingredient sets).
+     * 
+     * If successful, responds with a 200 status code and up to `limit` recipes (5 by default), most similar first, including their ingredients if `expand=ingredients` is passed.
+     * 
+     * If the recipe does not exist, responds with a 404 status code and a result of "Recipe not found".
+     */
+    public Handler fetchSimilarRecipes = ctx -> {
+        int id = Integer.parseInt(ctx.pathParam("id"));
+
+        if (recipeService.findRecipe(id).isEmpty()) {
             ctx.status(404).json(Map.of("result", "Recipe not found"));
             return;
         }
 
-        ctx.status(200).json(recipe.get());
+        RequestParams params = RequestParams.of(ctx);
+        int limit = getParamAsClassOrElse(params, "limit", Integer.class, 5);
+        ctx.status(200).json(expand(params, recipeService.findSimilarRecipes(id, limit)));
     };
 
     /**
@@ -139,8 +244,7 @@ public class RecipeController {
      * If unauthorized, responds with a 401 Unauthorized status.
      */
     public Handler createRecipe = ctx -> {
-       String header = ctx.header("Authorization");
-       Chef chef = authService.getChefFromSessionToken(header);
+       Chef chef = authService.getChefFromAuthorizationHeader(ctx.header("Authorization"));
         if (chef == null) {
             ctx.status(401).result("Unauthorized");
             return;
@@ -217,17 +321,79 @@ public class RecipeController {
     };
 
     /**
-     * A helper method to retrieve a query parameter from the context as a specific class type, or return a default value if the query parameter is not present.
+     * Handler for finding the recipes that can be cooked from the ingredients on hand. The request body is a JSON array of the ids of those ingredients.
+     * 
+     * Recipes with at least `minCoverage` of their ingredients on hand (0.5 by default, 1 for recipes that need nothing else) are returned, at most `limit` of them (20 by default).
+     * 
+     * Responds with a 200 OK status and the matches, best covered first, each with its recipe, matchedIngredients, totalIngredients and coverage. Responds with a 400 Bad Request status if the body is not an array of ids, or if `minCoverage` is not a number between 0 and 1.
+     */
+    public Handler matchRecipes = ctx -> {
+        Integer[] ingredientIds;
+        try {
+            ingredientIds = ctx.bodyAsClass(Integer[].class);
+        } catch (Exception e) {
+            ctx.status(400).result("Expected a JSON array of ingredient ids");
+            return;
+        }
+        if (ingredientIds == null || Arrays.asList(ingredientIds).contains(null)) {
+            ctx.status(400).result("Expected a JSON array of ingredient ids");
+            return;
+        }
+        double minCoverage = 0.5;
+        String coverage = ctx.queryParam("minCoverage");
+        if (coverage != null) {
+            try {
+                minCoverage = Double.parseDouble(coverage);
+            } catch (NumberFormatException e) {
+                minCoverage = Double.NaN;
+            }
+            if (!(minCoverage >= 0 && minCoverage <= 1)) {
+                ctx.status(400).result("minCoverage must be a number between 0 and 1");
+                return;
+            }
+        }
+        int limit = getParamAsClassOrElse(RequestParams.of(ctx), "limit", Integer.class, 20);
+        List<RecipeMatch> matches = recipeService.matchRecipes(Arrays.asList(ingredientIds), minCoverage, limit);
+        ctx.status(200);
+        ctx.json(matches);
+    };
+
+    /**
+     * Handler for building a shopping list. The request body is a JSON array of the recipes to shop for, each with a `recipeId` and an optional `multiplier` (1 by default) saying how many times over it will be cooked.
+     * 
+     * Responds with a 200 OK status and the total amount of each ingredient needed, with units of the same kind of measure combined and shown in the unit that reads best (e.g. 48 tsp as 1 cup). Responds with a 400 Bad Request status if the body is invalid or a multiplier is not positive.
+     */
+    public Handler createShoppingList = ctx -> {
+        RecipeServing[] servings;
+        try {
+            servings = ctx.bodyAsClass(RecipeServing[].class);
+        } catch (Exception e) {
+            ctx.status(400).result("Expected a JSON array of recipe servings");
+            return;
+        }
+        if (servings == null || Arrays.asList(servings).contains(null)) {
+            ctx.status(400).result("Expected a JSON array of recipe servings");
+            return;
+        }
+        try {
+            ctx.status(200).json(recipeService.buildShoppingList(Arrays.asList(servings)));
+        } catch (IllegalArgumentException e) {
+            ctx.status(400).result(e.getMessage());
+        }
+    };
+
+    /**
+     * A helper method to retrieve a query parameter from the request as a specific class type, or return a default value if the query parameter is not present.
      * 
      * @param <T> The type of the query parameter to be returned.
-     * @param ctx The context of the request.
+     * @param params The parameters of the request.
      * @param queryParam The query parameter name.
      * @param clazz The class type of the query parameter.
      * @param defaultValue The default value to return if the query parameter is not found.
      * @return The value of the query parameter converted to the specified class type, or the default value.
      */
-    private <T> T getParamAsClassOrElse(Context ctx, String queryParam, Class<T> clazz, T defaultValue) {
-        String paramValue = ctx.queryParam(queryParam);
+    private <T> T getParamAsClassOrElse(RequestParams params, String queryParam, Class<T> clazz, T defaultValue) {
+        String paramValue = params.queryParam(queryParam);
         if (paramValue != null) {
             if (clazz == Integer.class) {
                 return clazz.cast(Integer.valueOf(paramValue));
@@ -241,14 +407,172 @@ public class RecipeController {
     }
 
     /**
-     * Configure the routes for recipe operations.
+     * Loads the ingredients of the given recipes when the request asks for them with `expand=ingredients`,
+     * converting their amounts when it also asks for `units=metric` or `units=imperial`. Other `units`
+     * values are ignored.
+     *
+     * @param params the parameters of the request
+     * @param recipes the recipes about to be returned
+     * @return the same recipes
+     */
+    private List<Recipe> expand(RequestParams params, List<Recipe> recipes) {
+        String expand = params.queryParam("expand");
+        if (expand != null && Arrays.asList(expand.split(",")).contains("ingredients")) {
+            recipeService.loadIngredients(recipes);
+            String units = params.queryParam("units");
+            if ("metric".equalsIgnoreCase(units) || "imperial".equalsIgnoreCase(units)) {
+                recipeService.convertUnits(recipes, "metric".equalsIgnoreCase(units));
+            }
+        }
+        return recipes;
+    }
+
+    /**
+     * Loads the ingredients of the recipes on a page when the request asks for them with `expand=ingredients`.
+     *
+     * @param params the parameters of the request
+     * @param page the page about to be returned
+     * @return the same page
+     */
+    private Page<Recipe> expand(RequestParams params, Page<Recipe> page) {
+        expand(params, page.getItems());
+        return page;
+    }
+
+    /**
+     * Writes a response to the request.
+     *
+     * @param ctx the Javalin context of the request
+     * @param reply the response to send
+     */
+    private void reply(Context ctx, Reply reply) {
+        ctx.status(reply.status());
+        if (reply.body() instanceof String text) {
+            ctx.result(text);
+        } else {
+            ctx.json(reply.body());
+        }
+    }
+
+    /**
+     * Runs a lookup on the async executor and writes its response once it is done, releasing the Jetty thread in the meantime.
+     * 
+     * Requests that find the executor's queue full are answered with 503 at once. Requests that are not done within the async timeout are answered with 503 and cancelled: a lookup still waiting in the queue never runs, and one already running finishes but its response is discarded, since interrupting a thread inside H2's file I/O can close the database file.
+     * 
+     * The request's parameters are copied on the request thread and the lookup only sees the copy, since Jetty recycles the request once a timed-out exchange has been answered.
+     *
+     * @param ctx the Javalin context of the request
+     * @param lookup the work of the request, given a copy of its parameters
+     * @throws IllegalStateException if the async handlers have not been enabled with enableAsync
+     */
+    private void replyAsync(Context ctx, Function<RequestParams, Reply> lookup) {
+        ThreadPoolExecutor executor = asyncExecutor;
+        if (executor == null) {
+            throw new IllegalStateException("Async recipe handlers are not enabled");
+        }
+        RequestParams params = RequestParams.copyOf(ctx);
+        CompletableFuture<Reply> result = new CompletableFuture<>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    result.complete(lookup.apply(params));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reply(ctx, SERVER_BUSY);
+            return;
+        }
+        ctx.future(() -> result.orTimeout(ASYNC_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    if (!(e instanceof TimeoutException)) {
+                        throw e instanceof CompletionException completion ? completion : new CompletionException(e);
+                    }
+                    task.cancel(false);
+                    return SERVER_BUSY;
+                })
+                .thenAccept(reply -> reply(ctx, reply)));
+    }
+
+    /**
+     * A response to send: a status code and a body, sent as text if it is a String and as JSON otherwise.
+     */
+    private record Reply(int status, Object body) {
+    }
+
+    /**
+     * A request's path and query parameters, read either straight from its context or from a copy of them.
+     */
+    private record RequestParams(Function<String, String> query, Function<String, String> path) {
+
+        /** Reads the parameters from the context, for handlers that run on the request thread. */
+        private static RequestParams of(Context ctx) {
+            return new RequestParams(ctx::queryParam, ctx::pathParam);
+        }
+
+        /**
+         * Copies the parameters, holding the first value of each query parameter, for lookups that run after
+         * the request thread has moved on.
+         */
+        private static RequestParams copyOf(Context ctx) {
+            Map<String, String> query = new HashMap<>();
+            ctx.queryParamMap().forEach((name, values) -> query.put(name, values.isEmpty() ? null : values.get(0)));
+            Map<String, String> path = Map.copyOf(ctx.pathParamMap());
+            return new RequestParams(query::get, name -> {
+                String value = path.get(name);
+                if (value == null) {
+                    throw new IllegalArgumentException("'" + name + "' is not a path parameter");
+                }
+                return value;
+            });
+        }
+
+        private String queryParam(String name) {
+            return query.apply(name);
+        }
+
+        private String pathParam(String name) {
+            return path.apply(name);
+        }
+    }
+
+    /**
+     * Creates the executor the async handlers run their lookups on, and shuts it down when the app's server stops. Called by configureRoutes with -Drecipes.async=true; the async handlers fail until it has been called.
+     *
+     * @param app the Javalin application the async handlers are served by
+     */
+    public void enableAsync(Javalin app) {
+        int threads = Integer.getInteger("recipes.async.threads", ConnectionUtil.getPool().getMaxSize());
+        AtomicInteger threadCount = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Integer.getInteger("recipes.async.queueSize", 100)), runnable -> {
+                    Thread thread = new Thread(runnable, "recipe-async-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        app.events(event -> event.serverStopped(executor::shutdown));
+        asyncExecutor = executor;
+    }
+
+    /**
+     * Configure the routes for recipe operations. With -Drecipes.async=true, recipes are listed and fetched by the async handlers.
      *
      * @param app the Javalin application
      */
     public void configureRoutes(Javalin app) {
-        app.get("/recipes", fetchAllRecipes);
-        app.get("/recipes/{id}", fetchRecipeById);
+        boolean async = Boolean.getBoolean("recipes.async");
+        if (async) {
+            enableAsync(app);
+        }
+        app.get("/recipes", async ? fetchAllRecipesAsync : fetchAllRecipes);
+        app.get("/recipes/{id}", async ? fetchRecipeByIdAsync : fetchRecipeById);
+        app.get("/recipes/{id}/similar", fetchSimilarRecipes);
         app.post("/recipes", createRecipe);
+        app.post("/recipes/match", matchRecipes);
+        app.post("/shopping-list", createShoppingList);
         app.put("/recipes/{id}", updateRecipe);
         app.delete("/recipes/{id}", deleteRecipe);
     }
@@ -1,10 +1,18 @@
 package com.revature.dao;
 import com.revature.util.ConnectionUtil;
+import com.revature.util.ExpiringCache;
+import com.revature.util.MetricsRegistry;
 import com.revature.util.Page;
 import com.revature.util.PageOptions;
+import com.revature.util.TrigramIndex;
 import com.revature.model.Chef;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 import java.util.ArrayList;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
@@ -19,10 +27,51 @@ import java.sql.SQLException;
 
 public class ChefDAO {
 
+    /** Counts the chefs matched by a paged listing that has no search term. */
+    private static final String COUNT_ALL_CHEFS = "SELECT COUNT(*) FROM chef";
+
+    /** Counts the chefs matched by a paged username search; the username filter is appended. */
+    private static final String COUNT_CHEFS_WHERE = "SELECT COUNT(*) FROM chef WHERE ";
+
+    /** Columns that paged queries may be sorted by; anything else falls back to id. */
+    private static final Set<String> SORTABLE_COLUMNS = Set.of("id", "username", "email", "is_admin");
+
+    /** How long a cached total row count may be served before it is recounted. */
+    private static final long COUNT_CACHE_TTL_MILLIS = 5_000;
+
+    /** The most chefs kept in each of the chef caches. */
+    private static final int CHEF_CACHE_SIZE = 1_024;
+
+    /** How long a cached chef may be served before it is read from the database again. */
+    private static final long CHEF_CACHE_TTL_MILLIS = 60_000;
+
     /** A utility class for establishing connections to the database. */
     @SuppressWarnings("unused")
     private ConnectionUtil connectionUtil;
 
+    /**
+     * Caches the COUNT(*) behind paged queries, keyed by count query and search term, so that
+     * paging through a result set does not recount it for every page. Cleared on every write.
+     */
+    private final ExpiringCache<String, Integer> countCache = new ExpiringCache<>("chefCounts", 256, COUNT_CACHE_TTL_MILLIS);
+
+    /**
+     * Read-through caches of single chefs, keyed by id and by username. A chef loaded by either key is
+     * cached under both. Entries for a chef are dropped when it is updated or deleted.
+     */
+    private final ExpiringCache<Integer, Chef> chefsById = new ExpiringCache<>("chefsById", CHEF_CACHE_SIZE, CHEF_CACHE_TTL_MILLIS);
+    private final ExpiringCache<String, Chef> chefsByUsername = new ExpiringCache<>("chefsByUsername", CHEF_CACHE_SIZE, CHEF_CACHE_TTL_MILLIS);
+
+    /**
+     * Counts the changes forgotten from the chef caches. A load notes it before reading the database and
+     * caches its row only if no chef changed meanwhile, so a row read before an update or delete is never
+     * cached after it. Guarded by chefsById, which remember and forget hold while they check and bump it.
+     */
+    private long chefGeneration;
+
+    /** Run after a chef is deleted, so that owners of data cascading from chefs can drop what they cached. */
+    private final List<Runnable> deleteListeners = new CopyOnWriteArrayList<>();
+
     /** 
      * Constructs a ChefDAO with the specified ConnectionUtil for database connectivity.
      * 
@@ -32,7 +81,17 @@ public class ChefDAO {
      */
     public ChefDAO(ConnectionUtil connectionUtil) {
         this.connectionUtil=connectionUtil;
-        
+    }
+
+    /**
+     * Registers the chef cache hit ratio with a registry, to be read whenever it is scraped. Only the
+     * application's shared ChefDAO should be registered, since each registration replaces the last.
+     *
+     * @param metrics the registry to report to
+     */
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("chef_cache_hit_ratio",
+                "Fraction of chef lookups answered from the chef cache.", this::getChefCacheHitRatio);
     }
 
     /**
@@ -64,11 +123,14 @@ public class ChefDAO {
      * @return a paginated list of Chef objects
      */
     public Page<Chef> getAllChefs(PageOptions pageOptions) {
-        String sql = "SELECT * FROM chef ORDER BY id";
+        String sql = "SELECT * FROM chef" + orderBy(pageOptions) + " LIMIT ? OFFSET ?";
         try (var conn=connectionUtil.getConnection();
-        var stmt=conn.createStatement();
-        var rs=stmt.executeQuery(sql)){
-            return pageResults(rs, pageOptions);
+        var pstmt=conn.prepareStatement(sql)){
+            pstmt.setInt(1, pageOptions.getPageSize());
+            pstmt.setInt(2, pageOptions.getOffset());
+            try (var rs = pstmt.executeQuery()) {
+                return pageResults(rs, pageOptions, conn, COUNT_ALL_CHEFS);
+            }
             
         } catch (SQLException e) {
             // TODO: handle exception
@@ -80,25 +142,38 @@ public class ChefDAO {
     /**
      * TODO: Retrieves a Chef record by its unique identifier.
      *
+     * Chefs are served from the chef cache when present.
+     *
      * @param id the unique identifier of the Chef to retrieve.
      * @return the Chef object, if found.
      */
     public Chef getChefById(int id) {
-        String sql = "SELECT * FROM chef WHERE id = ?";
-    try (var conn = connectionUtil.getConnection();
-         var pstmt = conn.prepareStatement(sql)) {
-
-        pstmt.setInt(1, id);
-        var rs = pstmt.executeQuery();
-
-        if (rs.next()) {
-            return mapSingleRow(rs);
+        Chef chef = chefsById.get(id);
+        if (chef == null) {
+            long generation = chefGeneration();
+            chef = remember(loadChefById(id), generation);
         }
-
-    } catch (SQLException e) {
-        e.printStackTrace();
+        return copyOf(chef);
     }
-        return null;
+
+    /**
+     * Retrieves a Chef record by its exact username.
+     *
+     * Chefs are served from the chef cache when present.
+     *
+     * @param username the username of the Chef to retrieve.
+     * @return the Chef object, or null if no chef has that username.
+     */
+    public Chef getChefByUsername(String username) {
+        if (username == null) {
+            return null;
+        }
+        Chef chef = chefsByUsername.get(username);
+        if (chef == null) {
+            long generation = chefGeneration();
+            chef = remember(loadChefByUsername(username), generation);
+        }
+        return copyOf(chef);
     }
 
     /**
@@ -119,6 +194,7 @@ public class ChefDAO {
         pstmt.setBoolean(4, chef.isAdmin());
 
         pstmt.executeUpdate();
+        countCache.invalidateAll();
         var rs = pstmt.getGeneratedKeys();
 
         if (rs.next()) {
@@ -149,6 +225,8 @@ public class ChefDAO {
         pstmt.setInt(5, chef.getId());
 
         pstmt.executeUpdate();
+        countCache.invalidateAll();
+        forget(chef);
 
     } catch (SQLException e) {
         e.printStackTrace();
@@ -169,6 +247,9 @@ public class ChefDAO {
 
         pstmt.setInt(1, chef.getId());
         pstmt.executeUpdate();
+        countCache.invalidateAll();
+        forget(chef);
+        deleteListeners.forEach(Runnable::run);
 
     } catch (SQLException e) {
         e.printStackTrace();
@@ -176,6 +257,16 @@ public class ChefDAO {
          
     }
 
+    /**
+     * Registers a callback run after every chef deletion. Deleting a chef cascades to its recipes, so
+     * DAOs that cache anything derived from those rows register here to drop it.
+     *
+     * @param listener the callback to run.
+     */
+    public void onDelete(Runnable listener) {
+        deleteListeners.add(listener);
+    }
+
     /**
      * TODO: Searches for Chef records by a search term in the username.
      *
@@ -184,12 +275,12 @@ public class ChefDAO {
      */
     public List<Chef> searchChefsByTerm(String term) {
         List<Chef> chefs = new ArrayList<>();
-    String sql = "SELECT * FROM chef WHERE LOWER(username) LIKE LOWER(?)";
+    String sql = "SELECT * FROM chef WHERE " + usernameFilter(term);
 
     try (var conn = connectionUtil.getConnection();
          var pstmt = conn.prepareStatement(sql)) {
 
-        pstmt.setString(1, "%" + term + "%");
+        bind(pstmt, 1, usernameParams(term));
         var rs = pstmt.executeQuery();
 
         chefs = mapRows(rs);
@@ -209,15 +300,18 @@ public class ChefDAO {
      * @return a paginated list of Chef objects that match the search term
      */
     public Page<Chef> searchChefsByTerm(String term, PageOptions pageOptions) {
-        String sql = "SELECT * FROM chef WHERE LOWER(username) LIKE LOWER(?)";
+        String sql = "SELECT * FROM chef WHERE " + usernameFilter(term) + orderBy(pageOptions) + " LIMIT ? OFFSET ?";
+        Object[] params = usernameParams(term);
 
     try (var conn = connectionUtil.getConnection();
          var pstmt = conn.prepareStatement(sql)) {
 
-        pstmt.setString(1, "%" + term + "%");
+        int index = bind(pstmt, 1, params);
+        pstmt.setInt(index++, pageOptions.getPageSize());
+        pstmt.setInt(index, pageOptions.getOffset());
         var rs = pstmt.executeQuery();
 
-        return pageResults(rs, pageOptions);
+        return pageResults(rs, pageOptions, conn, COUNT_CHEFS_WHERE + usernameFilter(term), params);
 
     } catch (SQLException e) {
         e.printStackTrace();
@@ -225,9 +319,136 @@ public class ChefDAO {
     }
     }
 
+    /**
+     * @return the number of chef lookups answered from the chef cache
+     */
+    public long getChefCacheHits() {
+        return chefsById.getHits() + chefsByUsername.getHits();
+    }
+
+    /**
+     * @return the number of chef lookups that had to read the database
+     */
+    public long getChefCacheMisses() {
+        return chefsById.getMisses() + chefsByUsername.getMisses();
+    }
+
+    /**
+     * @return the fraction of chef lookups answered from the chef cache, or 0 if there have been none
+     */
+    public double getChefCacheHitRatio() {
+        long hits = getChefCacheHits();
+        long total = hits + getChefCacheMisses();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
     
     // below are helper methods that are included for your convenience
 
+    /**
+     * Reads a single chef by id from the database, bypassing the chef cache.
+     *
+     * @param id the unique identifier of the Chef to read.
+     * @return the Chef object, or null if not found or the query failed.
+     */
+    private Chef loadChefById(int id) {
+        String sql = "SELECT * FROM chef WHERE id = ?";
+    try (var conn = connectionUtil.getConnection();
+         var pstmt = conn.prepareStatement(sql)) {
+
+        pstmt.setInt(1, id);
+        var rs = pstmt.executeQuery();
+
+        if (rs.next()) {
+            return mapSingleRow(rs);
+        }
+
+    } catch (SQLException e) {
+        e.printStackTrace();
+    }
+        return null;
+    }
+
+    /**
+     * Reads a single chef by exact username from the database, bypassing the chef cache.
+     *
+     * @param username the username of the Chef to read.
+     * @return the Chef object, or null if not found or the query failed.
+     */
+    private Chef loadChefByUsername(String username) {
+        String sql = "SELECT * FROM chef WHERE username = ?";
+    try (var conn = connectionUtil.getConnection();
+         var pstmt = conn.prepareStatement(sql)) {
+
+        pstmt.setString(1, username);
+        var rs = pstmt.executeQuery();
+
+        if (rs.next()) {
+            return mapSingleRow(rs);
+        }
+
+    } catch (SQLException e) {
+        e.printStackTrace();
+    }
+        return null;
+    }
+
+    /**
+     * @return the current chef generation, to be noted before a chef is read from the database.
+     */
+    private long chefGeneration() {
+        synchronized (chefsById) {
+            return chefGeneration;
+        }
+    }
+
+    /**
+     * Caches a freshly loaded chef under both its id and its username, unless a chef was updated or
+     * deleted since the load began, in which case the row may be stale and is returned uncached.
+     *
+     * @param chef the chef read from the database, or null.
+     * @param generation the chef generation noted before the chef was read.
+     * @return the same chef.
+     */
+    private Chef remember(Chef chef, long generation) {
+        if (chef != null) {
+            synchronized (chefsById) {
+                if (generation == chefGeneration) {
+                    chefsById.put(chef.getId(), chef);
+                    chefsByUsername.put(chef.getUsername(), chef);
+                }
+            }
+        }
+        return chef;
+    }
+
+    /**
+     * Drops a changed chef from the chef caches. The username cache is cleared entirely, because the
+     * chef's previous username may no longer be known; chef writes are rare.
+     *
+     * @param chef the chef that was updated or deleted.
+     */
+    private void forget(Chef chef) {
+        synchronized (chefsById) {
+            chefGeneration++;
+            chefsById.invalidate(chef.getId());
+            chefsByUsername.invalidateAll();
+        }
+    }
+
+    /**
+     * Copies a cached chef so that callers who modify the returned object cannot change the cache.
+     *
+     * @param chef the cached chef, or null.
+     * @return a copy of the chef, or null.
+     */
+    private Chef copyOf(Chef chef) {
+        if (chef == null) {
+            return null;
+        }
+        return new Chef(chef.getId(), chef.getUsername(), chef.getEmail(), chef.getPassword(), chef.isAdmin());
+    }
+
     /**
      * Maps a single row from the ResultSet to a Chef object.
      *
@@ -261,35 +482,119 @@ public class ChefDAO {
 
     /**
      * Paginates the results of a ResultSet into a Page of Chef objects.
+     * The ResultSet is expected to already be limited to the requested page by the query's LIMIT/OFFSET.
+     * The total number of elements comes from the count cache, is inferred from a short page, or is
+     * counted with the given query.
      *
-     * @param set the ResultSet containing Chef data.
+     * @param set the ResultSet containing the Chef rows for the page.
      * @param pageOptions options for pagination and sorting.
+     * @param conn the connection used to run the count query if needed.
+     * @param countSql the COUNT(*) query matching the paged query's filter.
+     * @param countParams the parameters bound to the count query, if any.
      * @return a Page of Chef objects containing the paginated results.
      * @throws SQLException if an error occurs while accessing the ResultSet.
      */
-    private Page<Chef> pageResults(ResultSet set, PageOptions pageOptions) throws SQLException {
+    private Page<Chef> pageResults(ResultSet set, PageOptions pageOptions, Connection conn, String countSql,
+            Object... countParams) throws SQLException {
         List<Chef> chefs = mapRows(set);
-        int offset = (pageOptions.getPageNumber() - 1) * pageOptions.getPageSize();
-        int limit = offset + pageOptions.getPageSize();
-        List<Chef> slicedList = sliceList(chefs, offset, limit);
-        return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(),
-                chefs.size() / pageOptions.getPageSize(), chefs.size(), slicedList);
+        String cacheKey = countParams.length == 0 ? countSql
+                : countSql + '\u0000' + Arrays.deepToString(countParams).toLowerCase();
+        Integer totalElements;
+        if (chefs.size() < pageOptions.getPageSize() && (!chefs.isEmpty() || pageOptions.getOffset() == 0)) {
+            totalElements = pageOptions.getOffset() + chefs.size();
+            countCache.put(cacheKey, totalElements);
+        } else {
+            totalElements = countCache.get(cacheKey);
+            if (totalElements == null) {
+                totalElements = countRows(conn, countSql, countParams);
+                countCache.put(cacheKey, totalElements);
+            }
+        }
+        int totalPages = pageOptions.getPageSize() > 0
+                ? (int) Math.ceil(totalElements / (double) pageOptions.getPageSize()) : 0;
+        return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(), totalPages, totalElements, chefs);
+    }
+
+    /**
+     * Runs a COUNT(*) query, binding the given parameters in order.
+     *
+     * @param conn the connection to run the query on.
+     * @param countSql the COUNT(*) query.
+     * @param params the parameters to bind, if any.
+     * @return the counted number of rows.
+     * @throws SQLException if an error occurs while running the query.
+     */
+    private int countRows(Connection conn, String countSql, Object... params) throws SQLException {
+        try (var pstmt = conn.prepareStatement(countSql)) {
+            bind(pstmt, 1, params);
+            try (var rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        }
     }
 
     /**
-     * Slices a list of Chef objects from a starting index to an ending index.
+     * Builds the condition of a case-insensitive substring search on usernames. When the term is long
+     * enough, candidates are first looked up in the CHEF_TRIGRAM index, so only chefs whose usernames
+     * contain every trigram of the term are checked against the LIKE pattern.
      *
-     * @param list the list of Chef objects to slice.
-     * @param start the starting index.
-     * @param end the ending index.
-     * @return a sliced list of Chef objects.
-     */
-    private List<Chef> sliceList(List<Chef> list, int start, int end) {
-        List<Chef> sliced = new ArrayList<>();
-        for (int i = start; i < end; i++) {
-            sliced.add(list.get(i));
+     * @param term the search term.
+     * @return the condition, to be bound with usernameParams.
+     */
+    private String usernameFilter(String term) {
+        String like = "LOWER(username) LIKE LOWER(?)";
+        return TrigramIndex.canSearch(term) ? like + " AND id IN (" + TrigramIndex.matchingIds("CHEF") + ")" : like;
+    }
+
+    /**
+     * @param term the search term.
+     * @return the parameters of the condition built by usernameFilter.
+     */
+    private Object[] usernameParams(String term) {
+        String pattern = "%" + term + "%";
+        if (!TrigramIndex.canSearch(term)) {
+            return new Object[] { pattern };
+        }
+        Object[] trigramParams = TrigramIndex.matchingParams(term);
+        return new Object[] { pattern, trigramParams[0], trigramParams[1] };
+    }
+
+    /**
+     * Binds parameters to consecutive placeholders, using the typed setter for strings and ints.
+     *
+     * @param pstmt the statement to bind to.
+     * @param index the index of the first placeholder to bind.
+     * @param params the parameters to bind.
+     * @return the index of the next unbound placeholder.
+     * @throws SQLException if a parameter cannot be bound.
+     */
+    private int bind(PreparedStatement pstmt, int index, Object... params) throws SQLException {
+        for (Object param : params) {
+            if (param instanceof String) {
+                pstmt.setString(index++, (String) param);
+            } else if (param instanceof Integer) {
+                pstmt.setInt(index++, (Integer) param);
+            } else {
+                pstmt.setObject(index++, param);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Builds the ORDER BY clause for a paged query from whitelisted columns, with id as a tie-breaker.
+     *
+     * @param pageOptions options for pagination and sorting.
+     * @return the ORDER BY clause, starting with a space.
+     */
+    private String orderBy(PageOptions pageOptions) {
+        String column = pageOptions.getSortBy() == null ? "id" : pageOptions.getSortBy().toLowerCase();
+        if (!SORTABLE_COLUMNS.contains(column)) {
+            column = "id";
         }
-        return sliced;
+        String direction = "desc".equalsIgnoreCase(pageOptions.getSortDirection()) ? "DESC" : "ASC";
+        String clause = " ORDER BY " + column + " " + direction;
+        return column.equals("id") ? clause : clause + ", id " + direction;
     }
 }
 
@@ -6,12 +6,18 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import com.revature.model.Ingredient;
 import com.revature.util.ConnectionUtil;
+import com.revature.util.ExpiringCache;
 import com.revature.util.Page;
+import com.revature.util.PageCursor;
 import com.revature.util.PageOptions;
+import com.revature.util.PrefixIndex;
+import com.revature.util.TrigramIndex;
 
 
 
@@ -25,10 +31,43 @@ import com.revature.util.PageOptions;
 
 public class IngredientDAO {
 
+    /** Counts the ingredients matched by a paged listing that has no search term. */
+    private static final String COUNT_ALL_INGREDIENTS = "SELECT COUNT(*) FROM INGREDIENT";
+
+    /** Counts the ingredients matched by a paged name search; the name filter is appended. */
+    private static final String COUNT_INGREDIENTS_WHERE = "SELECT COUNT(*) FROM INGREDIENT WHERE ";
+
+    /** Columns that paged queries may be sorted by; anything else falls back to id. */
+    private static final Set<String> SORTABLE_COLUMNS = Set.of("id", "name");
+
+    /**
+     * Columns that cursor (keyset) pages may be sorted by. Both are unique and indexed in each
+     * direction, so seeking past a cursor is an index range scan.
+     */
+    private static final Set<String> KEYSET_COLUMNS = Set.of("id", "name");
+
+    /** How long a cached total row count may be served before it is recounted. */
+    private static final long COUNT_CACHE_TTL_MILLIS = 5_000;
+
     /** A utility class used for establishing connections to the database. */
     @SuppressWarnings("unused")
     private ConnectionUtil connectionUtil;
 
+    /**
+     * Caches the COUNT(*) behind paged queries, keyed by count query and search term, so that
+     * paging through a result set does not recount it for every page. Cleared on every write.
+     */
+    private final ExpiringCache<String, Integer> countCache = new ExpiringCache<>("ingredientCounts", 256, COUNT_CACHE_TTL_MILLIS);
+
+    /**
+     * Every ingredient, sorted by name for autocomplete. Loaded from the database on the first suggestion
+     * and then kept in step with every create, update and delete made through this DAO.
+     */
+    private final PrefixIndex<Ingredient> suggestions = new PrefixIndex<>(Ingredient::getId, Ingredient::getName);
+
+    /** Whether the suggestions have been loaded yet. Guarded by suggestions. */
+    private boolean suggestionsLoaded;
+
     /**
      * Constructs an IngredientDAO with the specified ConnectionUtil for database connectivity.
      * 
@@ -74,10 +113,13 @@ public class IngredientDAO {
                 PreparedStatement statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             statement.setString(1, ingredient.getName());
             statement.executeUpdate();
+            countCache.invalidateAll();
 
             ResultSet resultSet = statement.getGeneratedKeys();
             if (resultSet.next()) {
-                return resultSet.getInt(1);
+                int id = resultSet.getInt(1);
+                indexSuggestion(new Ingredient(id, ingredient.getName()));
+                return id;
             } else {
                 throw new RuntimeException("Unable to create ingredient");
             }
@@ -117,6 +159,8 @@ public class IngredientDAO {
             }
 
             connection.commit();
+            countCache.invalidateAll();
+            forgetSuggestion(ingredient.getId());
         } catch (SQLException ex) {
             try {
                 connection.rollback();
@@ -124,6 +168,13 @@ public class IngredientDAO {
                 rollbackEx.printStackTrace();
             }
             ex.printStackTrace();
+        } finally {
+            // Returns the connection to the pool, which rolls back anything left uncommitted
+            try {
+                connection.close();
+            } catch (SQLException closeEx) {
+                closeEx.printStackTrace();
+            }
         }
     }
 
@@ -139,12 +190,44 @@ public class IngredientDAO {
                 PreparedStatement statement = connection.prepareStatement(sql)) {
             statement.setString(1, ingredient.getName());
             statement.setInt(2, ingredient.getId());
-            statement.executeUpdate();
+            if (statement.executeUpdate() > 0) {
+                indexSuggestion(new Ingredient(ingredient.getId(), ingredient.getName()));
+            }
+            countCache.invalidateAll();
         } catch (SQLException ex) {
             ex.printStackTrace();
         }
     }
 
+    /**
+     * Suggests ingredients whose names start with a prefix, ignoring case, for autocomplete. Suggestions
+     * are answered from memory, so only the first call reads the database.
+     *
+     * @param prefix the start of the ingredient name typed so far
+     * @param limit the largest number of suggestions to return
+     * @return up to limit matching ingredients, in order of name
+     */
+    public List<Ingredient> suggestIngredients(String prefix, int limit) {
+        synchronized (suggestions) {
+            if (!suggestionsLoaded) {
+                try (Connection connection = connectionUtil.getConnection();
+                        PreparedStatement statement = connection.prepareStatement("SELECT * FROM INGREDIENT");
+                        ResultSet resultSet = statement.executeQuery()) {
+                    suggestions.replaceAll(mapRows(resultSet));
+                    suggestionsLoaded = true;
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                    return new ArrayList<>();
+                }
+            }
+        }
+        List<Ingredient> matches = new ArrayList<>();
+        for (Ingredient ingredient : suggestions.startingWith(prefix, limit)) {
+            matches.add(new Ingredient(ingredient.getId(), ingredient.getName()));
+        }
+        return matches;
+    }
+
     /**
      * TODO: Retrieves all ingredient records from the database.
      *
@@ -170,12 +253,16 @@ public class IngredientDAO {
      * @return a Page of Ingredient objects containing the retrieved ingredients.
      */
     public Page<Ingredient> getAllIngredients(PageOptions pageOptions) {
-        String sql = String.format("SELECT * FROM ingredient ORDER BY %s %s", pageOptions.getSortBy(),
-                pageOptions.getSortDirection());
+        if (pageOptions.isCursorMode()) {
+            return keysetPage(null, pageOptions);
+        }
+        String sql = String.format("SELECT * FROM ingredient%s LIMIT ? OFFSET ?", orderBy(pageOptions));
         try (Connection connection = connectionUtil.getConnection();
                 PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, pageOptions.getPageSize());
+            statement.setInt(2, pageOptions.getOffset());
             ResultSet resultSet = statement.executeQuery();
-            return pageResults(resultSet, pageOptions);
+            return pageResults(resultSet, pageOptions, connection, COUNT_ALL_INGREDIENTS);
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -189,10 +276,10 @@ public class IngredientDAO {
      * @return a list of Ingredient objects that match the search term.
      */
     public List<Ingredient> searchIngredients(String term) {
-         String sql = "SELECT * FROM INGREDIENT WHERE NAME LIKE ? ORDER BY ID";
+         String sql = "SELECT * FROM INGREDIENT WHERE " + nameFilter(term) + " ORDER BY ID";
         try (Connection connection = connectionUtil.getConnection();
                 PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setString(1, "%" + term + "%");
+            bind(statement, 1, nameParams(term));
             ResultSet resultSet = statement.executeQuery();
             return mapRows(resultSet);
         } catch (SQLException ex) {
@@ -208,13 +295,18 @@ public class IngredientDAO {
      * @return a Page of Ingredient objects containing the retrieved ingredients.
      */
     public Page<Ingredient> searchIngredients(String term, PageOptions pageOptions) {
-        String sql = String.format("SELECT * FROM ingredient WHERE name LIKE ? ORDER BY %s %s", pageOptions.getSortBy(),
-                pageOptions.getSortDirection());
+        if (pageOptions.isCursorMode()) {
+            return keysetPage(term, pageOptions);
+        }
+        String sql = String.format("SELECT * FROM ingredient WHERE %s%s LIMIT ? OFFSET ?", nameFilter(term), orderBy(pageOptions));
+        Object[] params = nameParams(term);
         try (Connection connection = connectionUtil.getConnection();
                 PreparedStatement statement = connection.prepareStatement(sql)) {
-            statement.setString(1, "%" + term + "%");
+            int index = bind(statement, 1, params);
+            statement.setInt(index++, pageOptions.getPageSize());
+            statement.setInt(index, pageOptions.getOffset());
             ResultSet resultSet = statement.executeQuery();
-            return pageResults(resultSet, pageOptions);
+            return pageResults(resultSet, pageOptions, connection, COUNT_INGREDIENTS_WHERE + nameFilter(term), params);
         } catch (SQLException e) {
             throw new RuntimeException("Unable to search ingredients by term", e);
         }
@@ -222,6 +314,31 @@ public class IngredientDAO {
 
     // below are helper methods for your convenience
 
+    /**
+     * Adds or renames an ingredient in the suggestions, unless they have not been loaded yet; in that
+     * case the change is picked up when they are.
+     *
+     * @param ingredient a copy of the ingredient as it is now stored
+     */
+    private void indexSuggestion(Ingredient ingredient) {
+        synchronized (suggestions) {
+            if (suggestionsLoaded) {
+                suggestions.put(ingredient);
+            }
+        }
+    }
+
+    /**
+     * Removes a deleted ingredient from the suggestions.
+     *
+     * @param id the id of the deleted ingredient
+     */
+    private void forgetSuggestion(int id) {
+        synchronized (suggestions) {
+            suggestions.remove(id);
+        }
+    }
+
     /**
      * Maps a single row from the ResultSet to an Ingredient object.
      *
@@ -250,18 +367,197 @@ public class IngredientDAO {
 
     /**
      * Paginates the results of a ResultSet into a Page of Ingredient objects.
+     * The ResultSet is expected to already be limited to the requested page by the query's LIMIT/OFFSET.
+     * The total number of elements comes from the count cache, is inferred from a short page, or is
+     * counted with the given query.
      *
-     * @param resultSet the ResultSet containing Ingredient data.
+     * @param resultSet the ResultSet containing the Ingredient rows for the page.
      * @param pageOptions options for pagination and sorting.
+     * @param connection the connection used to run the count query if needed.
+     * @param countSql the COUNT(*) query matching the paged query's filter.
+     * @param countParams the parameters bound to the count query, if any.
      * @return a Page of Ingredient objects containing the paginated results.
      * @throws SQLException if an error occurs while accessing the ResultSet.
      */
-    private Page<Ingredient> pageResults(ResultSet resultSet, PageOptions pageOptions) throws SQLException {
+    private Page<Ingredient> pageResults(ResultSet resultSet, PageOptions pageOptions, Connection connection,
+            String countSql, Object... countParams) throws SQLException {
         List<Ingredient> ingredients = mapRows(resultSet);
-        int offset = (pageOptions.getPageNumber() - 1) * pageOptions.getPageSize();
-        int limit = offset + pageOptions.getPageSize();
-        List<Ingredient> subList = ingredients.subList(offset, limit);
-        return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(),
-                (int) Math.ceil(ingredients.size() / ((float) pageOptions.getPageSize())), ingredients.size(), subList);
+        // INGREDIENT searches are case sensitive, so the term is not folded into the cache key
+        String cacheKey = countParams.length == 0 ? countSql : countSql + '\u0000' + Arrays.deepToString(countParams);
+        Integer totalElements;
+        if (ingredients.size() < pageOptions.getPageSize() && (!ingredients.isEmpty() || pageOptions.getOffset() == 0)) {
+            totalElements = pageOptions.getOffset() + ingredients.size();
+            countCache.put(cacheKey, totalElements);
+        } else {
+            totalElements = countCache.get(cacheKey);
+            if (totalElements == null) {
+                totalElements = countRows(connection, countSql, countParams);
+                countCache.put(cacheKey, totalElements);
+            }
+        }
+        int totalPages = pageOptions.getPageSize() > 0
+                ? (int) Math.ceil(totalElements / ((float) pageOptions.getPageSize())) : 0;
+        return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(), totalPages, totalElements, ingredients);
+    }
+
+    /**
+     * Fetches one page of ingredients after the position encoded in the page options' cursor, optionally
+     * filtered by name. The query seeks past the last seen (sort key, id) pair instead of skipping an
+     * OFFSET, so every page costs the same. One extra row is fetched to tell whether another page follows.
+     *
+     * @param term the search term to filter ingredient names by, or null for all ingredients.
+     * @param pageOptions the page size, sort options and cursor.
+     * @return a Page whose totals are -1, since cursor pages are never counted.
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort order.
+     */
+    private Page<Ingredient> keysetPage(String term, PageOptions pageOptions) {
+        String column = KEYSET_COLUMNS.contains(sortColumn(pageOptions)) ? sortColumn(pageOptions) : "id";
+        String direction = sortDirection(pageOptions);
+        String comparison = direction.equals("DESC") ? "<" : ">";
+        PageCursor cursor = PageCursor.decode(pageOptions.getAfter(), column);
+
+        List<String> conditions = new ArrayList<>();
+        if (term != null) {
+            conditions.add(nameFilter(term));
+        }
+        if (cursor != null && column.equals("id")) {
+            conditions.add("id " + comparison + " ?");
+        } else if (cursor != null) {
+            // The leading single-column bound is what lets H2 turn the row comparison into an index seek
+            conditions.add("name " + comparison + "= ? AND (name, id) " + comparison + " (?, ?)");
+        }
+        // name is unique, so ordering by it alone is already a total order and keeps the scan index sorted
+        String sql = String.format("SELECT * FROM ingredient%s ORDER BY %s %s LIMIT ?",
+                conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions), column, direction);
+
+        List<Ingredient> ingredients = new ArrayList<>();
+        try (Connection connection = connectionUtil.getConnection();
+                PreparedStatement statement = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (term != null) {
+                index = bind(statement, index, nameParams(term));
+            }
+            if (cursor != null && column.equals("name")) {
+                statement.setString(index++, cursor.getSortKey());
+                statement.setString(index++, cursor.getSortKey());
+            }
+            if (cursor != null) {
+                statement.setInt(index++, cursor.getId());
+            }
+            statement.setInt(index, pageOptions.getPageSize() + 1);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                ingredients = mapRows(resultSet);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+
+        Page<Ingredient> page = new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(), -1, -1, ingredients);
+        if (ingredients.size() > pageOptions.getPageSize()) {
+            List<Ingredient> items = new ArrayList<>(ingredients.subList(0, pageOptions.getPageSize()));
+            Ingredient last = items.get(items.size() - 1);
+            String sortKey = column.equals("name") ? last.getName() : String.valueOf(last.getId());
+            page.setItems(items);
+            page.setNextCursor(new PageCursor(column, sortKey, last.getId()).encode());
+        }
+        return page;
+    }
+
+    /**
+     * Runs a COUNT(*) query, binding the given parameters in order.
+     *
+     * @param connection the connection to run the query on.
+     * @param countSql the COUNT(*) query.
+     * @param params the parameters to bind, if any.
+     * @return the counted number of rows.
+     * @throws SQLException if an error occurs while running the query.
+     */
+    private int countRows(Connection connection, String countSql, Object... params) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(countSql)) {
+            bind(statement, 1, params);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getInt(1) : 0;
+            }
+        }
+    }
+
+    /**
+     * Builds the condition of a case-sensitive substring search on ingredient names. When the term is
+     * long enough, candidates are first looked up in the INGREDIENT_TRIGRAM index; the index folds case,
+     * so it only narrows the candidates and the LIKE pattern still decides the match.
+     *
+     * @param term the search term.
+     * @return the condition, to be bound with nameParams.
+     */
+    private String nameFilter(String term) {
+        return TrigramIndex.canSearch(term) ? "name LIKE ? AND id IN (" + TrigramIndex.matchingIds("INGREDIENT") + ")"
+                : "name LIKE ?";
+    }
+
+    /**
+     * @param term the search term.
+     * @return the parameters of the condition built by nameFilter.
+     */
+    private Object[] nameParams(String term) {
+        String pattern = "%" + term + "%";
+        if (!TrigramIndex.canSearch(term)) {
+            return new Object[] { pattern };
+        }
+        Object[] trigramParams = TrigramIndex.matchingParams(term);
+        return new Object[] { pattern, trigramParams[0], trigramParams[1] };
+    }
+
+    /**
+     * Binds parameters to consecutive placeholders, using the typed setter for strings and ints.
+     *
+     * @param statement the statement to bind to.
+     * @param index the index of the first placeholder to bind.
+     * @param params the parameters to bind.
+     * @return the index of the next unbound placeholder.
+     * @throws SQLException if a parameter cannot be bound.
+     */
+    private int bind(PreparedStatement statement, int index, Object... params) throws SQLException {
+        for (Object param : params) {
+            if (param instanceof String) {
+                statement.setString(index++, (String) param);
+            } else if (param instanceof Integer) {
+                statement.setInt(index++, (Integer) param);
+            } else {
+                statement.setObject(index++, param);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Builds the ORDER BY clause for a paged query from whitelisted columns, with id as a tie-breaker.
+     *
+     * @param pageOptions options for pagination and sorting.
+     * @return the ORDER BY clause, starting with a space.
+     */
+    private String orderBy(PageOptions pageOptions) {
+        String column = sortColumn(pageOptions);
+        String direction = sortDirection(pageOptions);
+        String clause = " ORDER BY " + column + " " + direction;
+        return column.equals("id") ? clause : clause + ", id " + direction;
+    }
+
+    /**
+     * Resolves the requested sort column against the whitelist of sortable columns.
+     *
+     * @param pageOptions options for pagination and sorting.
+     * @return the lower-case column name, or id if the requested column is not sortable.
+     */
+    private String sortColumn(PageOptions pageOptions) {
+        String column = pageOptions.getSortBy() == null ? "id" : pageOptions.getSortBy().toLowerCase();
+        return SORTABLE_COLUMNS.contains(column) ? column : "id";
+    }
+
+    /**
+     * @param pageOptions options for pagination and sorting.
+     * @return DESC if a descending sort was requested, ASC otherwise.
+     */
+    private String sortDirection(PageOptions pageOptions) {
+        return "desc".equalsIgnoreCase(pageOptions.getSortDirection()) ? "DESC" : "ASC";
     }
 }
@@ -6,13 +6,33 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
+import com.revature.util.ChangeCounter;
 import com.revature.util.ConnectionUtil;
+import com.revature.util.EditDistance;
+import com.revature.util.ExpiringCache;
+import com.revature.util.MinHashIndex;
+import com.revature.util.FullTextIndex;
 import com.revature.util.Page;
+import com.revature.util.PageCursor;
 import com.revature.util.PageOptions;
+import com.revature.util.PantryIndex;
+import com.revature.util.ShoppingListAggregator;
+import com.revature.util.TrigramIndex;
 import com.revature.model.Chef;
 import com.revature.model.Recipe;
+import com.revature.model.RecipeIngredient;
+import com.revature.model.RecipeMatch;
+import com.revature.model.ShoppingListItem;
 
 
 
@@ -26,9 +46,81 @@ import com.revature.model.Recipe;
 public class RecipeDAO {
 
 
+    /**
+	 * Base query used for every recipe read. Authors are resolved with a JOIN so a
+	 * single round trip maps both RECIPE and CHEF columns, instead of one
+	 * ChefDAO lookup per recipe row.
+	 */
+	private static final String SELECT_RECIPES_WITH_AUTHOR =
+			"SELECT r.id, r.name, r.instructions, r.chef_id, c.username AS chef_username, c.email AS chef_email, "
+			+ "c.password AS chef_password, c.is_admin AS chef_is_admin FROM recipe r JOIN chef c ON c.id = r.chef_id";
+
+    /** Counts the recipes matched by a paged listing that has no search term. */
+	private static final String COUNT_ALL_RECIPES = "SELECT COUNT(*) FROM recipe";
+
+    /** Counts the recipes matched by a paged name search; the name filter is appended. */
+	private static final String COUNT_RECIPES_WHERE = "SELECT COUNT(*) FROM recipe r WHERE ";
+
+    /**
+	 * Selects the ids of recipes that use the requested ingredients, bound as an array of ingredient
+	 * ids and an array of lower-case ingredient names. The requested ingredients are resolved first so
+	 * that RECIPE_INGREDIENT is read through its (ingredient_id, recipe_id) index, and HAVING keeps only
+	 * recipes using at least the bound number of them: 1 to match any, all of them to match all.
+	 */
+	private static final String RECIPE_IDS_BY_INGREDIENTS =
+			"SELECT ri.recipe_id FROM recipe_ingredient ri WHERE ri.ingredient_id IN "
+			+ "(SELECT i.id FROM ingredient i WHERE i.id = ANY(?) OR LOWER(i.name) = ANY(?)) "
+			+ "GROUP BY ri.recipe_id HAVING COUNT(DISTINCT ri.ingredient_id) >= ?";
+
+    /**
+	 * Resolves requested ingredients, bound as an array of ingredient ids and an array of lower-case
+	 * names, to the ingredients they refer to, so that an id and a name naming the same one count once.
+	 */
+	private static final String RESOLVE_INGREDIENTS =
+			"SELECT i.id, LOWER(i.name) FROM ingredient i WHERE i.id = ANY(?) OR LOWER(i.name) = ANY(?)";
+
+    /**
+	 * Selects the ingredients of a batch of recipes, bound as an array of recipe ids, in the order
+	 * they were added to each recipe. RECIPE_INGREDIENT is read through its recipe_id foreign key index.
+	 */
+	private static final String SELECT_INGREDIENTS_OF_RECIPES =
+			"SELECT ri.recipe_id, i.id, i.name, ri.vol, ri.unit FROM recipe_ingredient ri "
+			+ "JOIN ingredient i ON i.id = ri.ingredient_id WHERE ri.recipe_id = ANY(?) ORDER BY ri.recipe_id, ri.id";
+
+    /**
+	 * Selects the ingredient amounts of a batch of recipes, bound as an array of recipe ids, ordered by
+	 * ingredient name so that a shopping list built from them reads alphabetically.
+	 */
+	private static final String SELECT_AMOUNTS_OF_RECIPES =
+			"SELECT ri.recipe_id, i.id, i.name, ri.vol, ri.unit, ri.is_metric FROM recipe_ingredient ri "
+			+ "JOIN ingredient i ON i.id = ri.ingredient_id WHERE ri.recipe_id = ANY(?) ORDER BY i.name, i.id, ri.id";
+
+    /** Counts the recipes matched by a paged ingredient search. */
+	private static final String COUNT_RECIPES_BY_INGREDIENTS =
+			"SELECT COUNT(*) FROM (" + RECIPE_IDS_BY_INGREDIENTS + ") matches";
+
+    /** Reads every (recipe, ingredient) pair, to build the pantry index from. */
+	private static final String SELECT_RECIPE_INGREDIENT_PAIRS = "SELECT recipe_id, ingredient_id FROM recipe_ingredient";
+
+    /** Reads the (recipe, ingredient) pairs of a batch of recipes, bound as an array of recipe ids. */
+	private static final String SELECT_RECIPE_INGREDIENT_PAIRS_OF_RECIPES = SELECT_RECIPE_INGREDIENT_PAIRS + " WHERE recipe_id = ANY(?)";
+
+    /** Columns that paged queries may be sorted by; anything else falls back to id. */
+	private static final Set<String> SORTABLE_COLUMNS = Set.of("id", "name", "instructions", "chef_id");
+
+    /**
+	 * Columns that cursor (keyset) pages may be sorted by. Both are unique and indexed in each
+	 * direction, so seeking past a cursor is an index range scan; anything else falls back to id.
+	 */
+	private static final Set<String> KEYSET_COLUMNS = Set.of("id", "name");
+
+    /** How long a cached total row count may be served before it is recounted. */
+	private static final long COUNT_CACHE_TTL_MILLIS = 5_000;
+
     /**
 	 * DAO for managing Chef entities, used for retrieving chef details associated with recipes.
 	 */
+    @SuppressWarnings("unused")
 	private ChefDAO chefDAO;
 
 	/**
@@ -41,6 +133,28 @@ public class RecipeDAO {
     @SuppressWarnings("unused")
     private ConnectionUtil connectionUtil;
 
+    /**
+	 * Caches the COUNT(*) behind paged queries, keyed by count query and search term, so that
+	 * paging through a result set does not recount it for every page. Cleared on every write through
+	 * this DAO, and before an ingredient search once RECIPE_INGREDIENT has changed since countCacheVersion.
+	 */
+	private final ExpiringCache<String, Integer> countCache = new ExpiringCache<>("recipeCounts", 256, COUNT_CACHE_TTL_MILLIS);
+	private final AtomicLong countCacheVersion = new AtomicLong(-1);
+
+    /**
+	 * The index that pantry matches are answered from, and the RECIPE_INGREDIENT version it was built
+	 * at. Rebuilt on the next match after the table changes. Guarded by this DAO when written.
+	 */
+	private volatile PantryIndex pantryIndex;
+	private volatile long pantryIndexVersion;
+
+    /**
+	 * The MinHash index that similar recipes are found with. Caught up with RECIPE_INGREDIENT before each
+	 * lookup by reloading only the recipes changed since similarityIndexVersion. Guarded by itself.
+	 */
+	private final MinHashIndex similarityIndex = new MinHashIndex();
+	private long similarityIndexVersion = -1;
+
     /**
 	 * Constructs a RecipeDAO instance with specified ChefDAO and IngredientDAO.
 	 *
@@ -54,6 +168,10 @@ public class RecipeDAO {
 		this.chefDAO=chefDAO;
 		this.ingredientDAO=ingredientDAO;
 		this.connectionUtil=connectionUtil;
+		if (chefDAO != null) {
+			// deleting a chef cascades to their recipes
+			chefDAO.onDelete(countCache::invalidateAll);
+		}
 	}
 
     /**
@@ -63,7 +181,7 @@ public class RecipeDAO {
      */
 
     public List<Recipe> getAllRecipes() {
-    String sql = "SELECT * FROM RECIPE ORDER BY id";
+    String sql = SELECT_RECIPES_WITH_AUTHOR + " ORDER BY r.id";
     List<Recipe> recipes = new ArrayList<>();
 
     try (Connection conn = connectionUtil.getConnection();
@@ -86,11 +204,17 @@ public class RecipeDAO {
      * @return a paginated list of Recipe objects
      */
     public Page<Recipe> getAllRecipes(PageOptions pageOptions) {
-		String sql = "SELECT * FROM recipe ORDER BY "+ pageOptions.getSortBy()+" "+pageOptions.getSortDirection();
+		if (pageOptions.isCursorMode()) {
+			return keysetPage(null, pageOptions);
+		}
+		String sql = SELECT_RECIPES_WITH_AUTHOR + orderBy(pageOptions) + " LIMIT ? OFFSET ?";
 		try (Connection conn =connectionUtil.getConnection();
-		     PreparedStatement ps = conn.prepareStatement(sql);
-			 ResultSet rs = ps.executeQuery()){
-				return pageResults(rs, pageOptions);
+		     PreparedStatement ps = conn.prepareStatement(sql)){
+				ps.setInt(1, pageOptions.getPageSize());
+				ps.setInt(2, pageOptions.getOffset());
+				try (ResultSet rs = ps.executeQuery()){
+					return pageResults(rs, pageOptions, conn, COUNT_ALL_RECIPES);
+				}
 			 } catch (SQLException e) {
 				// TODO: handle exception
 				e.printStackTrace();
@@ -106,10 +230,10 @@ public class RecipeDAO {
      */
 
     public List<Recipe> searchRecipesByTerm(String term) {
-		String sql ="SELECT * FROM recipe WHERE LOWER(name) LIKE LOWER(?) ORDER BY id";
+		String sql = SELECT_RECIPES_WITH_AUTHOR + " WHERE " + nameFilter(term) + " ORDER BY r.id";
 		try (Connection conn = connectionUtil.getConnection();
 		     PreparedStatement ps=conn.prepareStatement(sql)){
-				ps.setString(1,"%"+term+ "%");
+				bind(ps, 1, nameParams(term));
 				try(ResultSet rs=ps.executeQuery()){
 					return mapRows(rs);
 				}
@@ -129,12 +253,18 @@ public class RecipeDAO {
      */
 
     public Page<Recipe> searchRecipesByTerm(String term, PageOptions pageOptions) {
-		String sql ="SELECT * FROM recipe WHERE LOWER(name) LIKE LOWER(?)"+"ORDER BY"+ pageOptions.getSortBy()+" "+pageOptions.getSortDirection();
+		if (pageOptions.isCursorMode()) {
+			return keysetPage(term, pageOptions);
+		}
+		String sql = SELECT_RECIPES_WITH_AUTHOR + " WHERE " + nameFilter(term) + orderBy(pageOptions) + " LIMIT ? OFFSET ?";
+		Object[] params = nameParams(term);
 		try (Connection conn = connectionUtil.getConnection();
 		     PreparedStatement ps=conn.prepareStatement(sql)){
-				ps.setString(1,"%"+term+"%");
+				int index = bind(ps, 1, params);
+				ps.setInt(index++, pageOptions.getPageSize());
+				ps.setInt(index, pageOptions.getOffset());
 				try(ResultSet rs=ps.executeQuery()){
-					return pageResults(rs, pageOptions);
+					return pageResults(rs, pageOptions, conn, COUNT_RECIPES_WHERE + nameFilter(term), params);
 				}
 		} catch (SQLException e) {
 			// TODO: handle exception
@@ -143,6 +273,254 @@ public class RecipeDAO {
         return new Page<>(1,pageOptions.getPageSize(),0,0 ,new ArrayList<>());
     }
 
+    /**
+     * Searches for recipes whose names are within an edit distance of a term, tolerating typos. A name
+     * matches if the whole name, or any run of as many words as the term has, is within maxDistance
+     * insertions, deletions or substitutions of the term, ignoring case. Only recipes sharing enough
+     * trigrams with the term are read from the RECIPE_TRIGRAM index and compared.
+     * 
+     * @param term the search term, at least three characters long
+     * @param maxDistance the largest edit distance to accept; lowered for short terms, see TrigramIndex.maxFuzzyDistance
+     * @return a list of matching Recipe objects, closest match first, then closest in length, then by id
+     */
+
+    public List<Recipe> searchRecipesFuzzy(String term, int maxDistance) {
+		int distance = Math.min(maxDistance, TrigramIndex.maxFuzzyDistance(term));
+		String sql = SELECT_RECIPES_WITH_AUTHOR + " WHERE r.id IN (" + TrigramIndex.similarIds("RECIPE") + ")";
+		List<Recipe> recipes = new ArrayList<>();
+		Map<Integer, Integer> distances = new HashMap<>();
+		try (Connection conn = connectionUtil.getConnection();
+		     PreparedStatement ps = conn.prepareStatement(sql)) {
+				bind(ps, 1, TrigramIndex.similarParams(term, distance));
+				try (ResultSet rs = ps.executeQuery()) {
+					for (Recipe recipe : mapRows(rs)) {
+						int d = EditDistance.toWords(term, recipe.getName(), distance);
+						if (d <= distance) {
+							recipes.add(recipe);
+							distances.put(recipe.getId(), d);
+						}
+					}
+				}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+		recipes.sort(Comparator.<Recipe>comparingInt(recipe -> distances.get(recipe.getId()))
+				.thenComparingInt(recipe -> Math.abs(recipe.getName().length() - term.length()))
+				.thenComparingInt(Recipe::getId));
+        return recipes;
+    }
+
+    /**
+     * Searches recipe names and instructions for the words of a query and returns a paginated result,
+     * most relevant first. Recipes containing any of the words match, and are ranked by their BM25
+     * score from the RECIPE_TERM inverted index; ties are broken by id.
+     * 
+     * @param query the words to search for
+     * @param pageOptions options for pagination; the sort options are ignored, since results are ranked
+     * @return a paginated list of Recipe objects that contain any word of the query
+     */
+
+    public Page<Recipe> searchRecipesFullText(String query, PageOptions pageOptions) {
+		Object[] params = FullTextIndex.matchingParams(query);
+		if (((String[]) params[0]).length == 0) {
+			return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(), 0, 0, new ArrayList<>());
+		}
+		String sql = SELECT_RECIPES_WITH_AUTHOR + " JOIN (" + FullTextIndex.rankedIds("RECIPE") + ") s ON s.row_id = r.id"
+				+ " ORDER BY s.score DESC, r.id LIMIT ? OFFSET ?";
+		try (Connection conn = connectionUtil.getConnection();
+		     PreparedStatement ps = conn.prepareStatement(sql)) {
+				int index = bind(ps, 1, params);
+				ps.setInt(index++, pageOptions.getPageSize());
+				ps.setInt(index, pageOptions.getOffset());
+				try (ResultSet rs = ps.executeQuery()) {
+					return pageResults(rs, pageOptions, conn, FullTextIndex.countMatches("RECIPE"), params);
+				}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+        return new Page<>(1, pageOptions.getPageSize(), 0, 0, new ArrayList<>());
+    }
+
+    /**
+     * Searches for recipes that use the given ingredients, identified by id or by name.
+     * 
+     * @param ingredientIds the ids of the ingredients to look for
+     * @param ingredientNames the names of the ingredients to look for, matched case-insensitively
+     * @param matchAll true to return only recipes using every requested ingredient, false for any of them
+     * @return a list of Recipe objects that use the requested ingredients, ordered by id
+     */
+
+    public List<Recipe> searchRecipesByIngredients(Collection<Integer> ingredientIds, Collection<String> ingredientNames,
+			boolean matchAll) {
+		String sql = SELECT_RECIPES_WITH_AUTHOR + " WHERE r.id IN (" + RECIPE_IDS_BY_INGREDIENTS + ") ORDER BY r.id";
+		try (Connection conn = connectionUtil.getConnection();
+		     PreparedStatement ps = conn.prepareStatement(sql)) {
+				bind(ps, 1, ingredientParams(conn, ingredientIds, ingredientNames, matchAll));
+				try (ResultSet rs = ps.executeQuery()) {
+					return mapRows(rs);
+				}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+        return new ArrayList<>();
+    }
+
+    /**
+     * Searches for recipes that use the given ingredients, identified by id or by name, and returns a
+     * paginated result.
+     * 
+     * @param ingredientIds the ids of the ingredients to look for
+     * @param ingredientNames the names of the ingredients to look for, matched case-insensitively
+     * @param matchAll true to return only recipes using every requested ingredient, false for any of them
+     * @param pageOptions options for pagination, including page size and page number
+     * @return a paginated list of Recipe objects that use the requested ingredients
+     */
+
+    public Page<Recipe> searchRecipesByIngredients(Collection<Integer> ingredientIds, Collection<String> ingredientNames,
+			boolean matchAll, PageOptions pageOptions) {
+		String sql = SELECT_RECIPES_WITH_AUTHOR + " WHERE r.id IN (" + RECIPE_IDS_BY_INGREDIENTS + ")"
+				+ orderBy(pageOptions) + " LIMIT ? OFFSET ?";
+		try (Connection conn = connectionUtil.getConnection();
+		     PreparedStatement ps = conn.prepareStatement(sql)) {
+				catchUpCountCache(conn);
+				Object[] params = ingredientParams(conn, ingredientIds, ingredientNames, matchAll);
+				int index = bind(ps, 1, params);
+				ps.setInt(index++, pageOptions.getPageSize());
+				ps.setInt(index, pageOptions.getOffset());
+				try (ResultSet rs = ps.executeQuery()) {
+					return pageResults(rs, pageOptions, conn, COUNT_RECIPES_BY_INGREDIENTS, params);
+				}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+        return new Page<>(1, pageOptions.getPageSize(), 0, 0, new ArrayList<>());
+    }
+
+    /**
+     * Fills in the ingredients of the given recipes with one query for the whole batch, rather than
+     * one per recipe. Recipes without ingredients get an empty list.
+     * 
+     * @param recipes the recipes whose ingredients should be loaded
+     */
+
+    public void loadIngredients(List<Recipe> recipes) {
+		if (recipes == null || recipes.isEmpty()) {
+			return;
+		}
+		Map<Integer, List<RecipeIngredient>> byRecipe = new HashMap<>();
+		for (Recipe recipe : recipes) {
+			byRecipe.put(recipe.getId(), new ArrayList<>());
+		}
+		try (Connection conn = connectionUtil.getConnection();
+		     PreparedStatement ps = conn.prepareStatement(SELECT_INGREDIENTS_OF_RECIPES)) {
+				ps.setObject(1, byRecipe.keySet().toArray(Integer[]::new));
+				try (ResultSet rs = ps.executeQuery()) {
+					while (rs.next()) {
+						byRecipe.get(rs.getInt("recipe_id")).add(mapIngredient(rs));
+					}
+				}
+		} catch (SQLException e) {
+			e.printStackTrace();
+			return;
+		}
+		for (Recipe recipe : recipes) {
+			recipe.setIngredients(byRecipe.get(recipe.getId()));
+		}
+    }
+
+    /**
+     * Finds the recipes that a set of ingredients on hand fully or mostly covers, best covered first.
+     * Matching runs against an in-memory index of RECIPE_INGREDIENT, rebuilt only after the table has
+     * changed, so a match costs one query for the matched recipes themselves. Recipes without
+     * ingredients never match.
+     * 
+     * @param ingredientIds the ids of the ingredients on hand
+     * @param minCoverage the smallest fraction of a recipe's ingredients that must be on hand, from 0 to 1
+     * @param limit the largest number of matches to return
+     * @return the matching recipes, ranked by coverage, then by fewest missing ingredients, then by id
+     */
+
+    public List<RecipeMatch> matchRecipes(Collection<Integer> ingredientIds, double minCoverage, int limit) {
+		List<RecipeMatch> results = new ArrayList<>();
+		try (Connection conn = connectionUtil.getConnection()) {
+			List<PantryIndex.Match> matches = pantryIndex(conn).match(ingredientIds, minCoverage, limit);
+			if (matches.isEmpty()) {
+				return results;
+			}
+			Map<Integer, Recipe> recipes = mapRecipesById(conn,
+					matches.stream().map(PantryIndex.Match::getRecipeId).toArray(Integer[]::new));
+			for (PantryIndex.Match match : matches) {
+				Recipe recipe = recipes.get(match.getRecipeId());
+				if (recipe != null) {
+					results.add(new RecipeMatch(recipe, match.getMatched(), match.getRequired()));
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+        return results;
+    }
+
+    /**
+     * Finds the recipes whose ingredients are most like those of a given recipe, by Jaccard similarity
+     * of their ingredient sets. Only recipes sharing a MinHash LSH bucket with the recipe are compared,
+     * and the index is caught up with RECIPE_INGREDIENT by reloading just the recipes changed since the
+     * previous lookup.
+     * 
+     * @param id the ID of the recipe to compare with
+     * @param limit the largest number of recipes to return
+     * @return up to limit recipes sharing ingredients with the recipe, most similar first, then by id
+     */
+
+    public List<Recipe> getSimilarRecipes(int id, int limit) {
+		List<Recipe> results = new ArrayList<>();
+		try (Connection conn = connectionUtil.getConnection()) {
+			List<Integer> ids = similarityIndex(conn).similarTo(id, limit);
+			if (ids.isEmpty()) {
+				return results;
+			}
+			Map<Integer, Recipe> recipes = mapRecipesById(conn, ids.toArray(Integer[]::new));
+			for (Integer similarId : ids) {
+				if (recipes.containsKey(similarId)) {
+					results.add(recipes.get(similarId));
+				}
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+        return results;
+    }
+
+    /**
+     * Builds a shopping list for a batch of recipes: the total amount of each ingredient they need, with
+     * each recipe's amounts scaled by its multiplier. All amounts are read with one query and summed as
+     * they stream in, converting between units of the same dimension.
+     * 
+     * @param multipliers how many times over each recipe will be cooked, by recipe id
+     * @return one line per ingredient and dimension (or unconvertible unit), ordered by ingredient name
+     */
+
+    public List<ShoppingListItem> getShoppingList(Map<Integer, Double> multipliers) {
+		ShoppingListAggregator aggregator = new ShoppingListAggregator();
+		if (multipliers.isEmpty()) {
+			return aggregator.items();
+		}
+		try (Connection conn = connectionUtil.getConnection();
+		     PreparedStatement ps = conn.prepareStatement(SELECT_AMOUNTS_OF_RECIPES)) {
+				ps.setObject(1, multipliers.keySet().toArray(Integer[]::new));
+				try (ResultSet rs = ps.executeQuery()) {
+					while (rs.next()) {
+						aggregator.add(rs.getInt("id"), rs.getString("name"),
+								rs.getDouble("vol") * multipliers.get(rs.getInt("recipe_id")),
+								rs.getString("unit"), rs.getBoolean("is_metric"));
+					}
+				}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+        return aggregator.items();
+    }
+
     /**
      * TODO: Retrieves a specific recipe by its ID.
      * 
@@ -151,7 +529,7 @@ public class RecipeDAO {
      */
 
     public Recipe getRecipeById(int id) {
-		String sql="SELECT * FROM recipe WHERE id=?";
+		String sql = SELECT_RECIPES_WITH_AUTHOR + " WHERE r.id = ?";
 		try(Connection conn = connectionUtil.getConnection();
 		    PreparedStatement ps = conn.prepareStatement(sql)){
 				ps.setInt(1,id);
@@ -183,6 +561,7 @@ public class RecipeDAO {
 			ps.setString(2,recipe.getInstructions());
 			ps.setInt(3,recipe.getAuthor().getId());
 			ps.executeUpdate();
+			countCache.invalidateAll();
 			try(ResultSet keys = ps.getGeneratedKeys()){
 				if(keys.next()){
 					return keys.getInt(1);
@@ -210,6 +589,7 @@ public class RecipeDAO {
             ps.setInt(2, recipe.getAuthor().getId());
             ps.setInt(3, recipe.getId());
             ps.executeUpdate();
+            countCache.invalidateAll();
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -234,6 +614,7 @@ public class RecipeDAO {
 
 				ps2.setInt(1,recipe.getId());
 				ps2.executeUpdate();
+				countCache.invalidateAll();
 			
 		} catch (SQLException e) {
 			// TODO: handle exception
@@ -246,7 +627,7 @@ public class RecipeDAO {
 	/**
 	 * Maps a single row from the ResultSet to a Recipe object.
 	 * This method extracts the recipe details such as ID, name, instructions,
-	 * and associated chef from the ResultSet and constructs a Recipe instance.
+	 * and the joined chef columns from the ResultSet and constructs a Recipe instance.
 	 *
 	 * @param set the ResultSet containing the recipe data
 	 * @return a Recipe object representing the mapped row
@@ -256,10 +637,37 @@ public class RecipeDAO {
 		int id = set.getInt("id");
 		String name = set.getString("name");
 		String instructions = set.getString("instructions");
-		Chef author = chefDAO.getChefById(set.getInt("chef_id"));
+		Chef author = mapAuthor(set);
 		return new Recipe(id, name, instructions, author);
 	}
 
+	/**
+	 * Maps the chef columns joined onto a recipe row to a Chef object.
+	 *
+	 * @param set the ResultSet positioned on a row produced by SELECT_RECIPES_WITH_AUTHOR
+	 * @return the Chef who authored the recipe on the current row
+	 * @throws SQLException if there is an error accessing the ResultSet
+	 */
+	private Chef mapAuthor(ResultSet set) throws SQLException {
+		int chefId = set.getInt("chef_id");
+		String username = set.getString("chef_username");
+		String email = set.getString("chef_email");
+		String password = set.getString("chef_password");
+		boolean isAdmin = set.getBoolean("chef_is_admin");
+		return new Chef(chefId, username, email, password, isAdmin);
+	}
+
+	/**
+	 * Maps a row produced by SELECT_INGREDIENTS_OF_RECIPES to a RecipeIngredient object.
+	 *
+	 * @param set the ResultSet positioned on an ingredient row
+	 * @return the ingredient, with the amount and unit the recipe calls for
+	 * @throws SQLException if there is an error accessing the ResultSet
+	 */
+	private RecipeIngredient mapIngredient(ResultSet set) throws SQLException {
+		return new RecipeIngredient(set.getInt("id"), set.getString("name"), set.getDouble("vol"), set.getString("unit"));
+	}
+
 	/**
 	 * Maps multiple rows from a ResultSet to a list of Recipe objects.
 	 * This method iterates through the ResultSet and calls mapSingleRow
@@ -279,41 +687,358 @@ public class RecipeDAO {
 
 	/**
 	 * Pages the results from a ResultSet into a Page object for the Recipe entity.
-	 * This method processes the ResultSet to retrieve recipes, then slices the list
-	 * based on the provided pagination options, and returns a Page object
-	 * containing
-	 * the paginated results.
+	 * The ResultSet is expected to already be limited to the requested page by the
+	 * query's LIMIT/OFFSET, so only the rows on the page are mapped. The total
+	 * number of elements is taken from the count cache, or counted with the given
+	 * query on a miss. A short, non-empty page (or a short first page) already
+	 * reveals the total, in which case no count query is run.
 	 *
-	 * @param set the ResultSet containing recipe data
+	 * @param set the ResultSet containing the recipe rows for the page
 	 * @param pageOptions the PageOptions object containing pagination details
+	 * @param conn the connection used to run the count query if needed
+	 * @param countSql the COUNT(*) query matching the paged query's filter
+	 * @param countParams the parameters bound to the count query, if any
 	 * @return a Page object containing the paginated list of Recipe objects
 	 * @throws SQLException if there is an error accessing the ResultSet
 	 */
-	private Page<Recipe> pageResults(ResultSet set, PageOptions pageOptions) throws SQLException {
+	private Page<Recipe> pageResults(ResultSet set, PageOptions pageOptions, Connection conn, String countSql,
+			Object... countParams) throws SQLException {
 		List<Recipe> recipes = mapRows(set);
-		int offset = (pageOptions.getPageNumber() - 1) * pageOptions.getPageSize();
-		int limit = offset + pageOptions.getPageSize();
-		List<Recipe> slicedList = sliceList(recipes, offset, limit);
-		return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(),
-				recipes.size() / pageOptions.getPageSize(), recipes.size(), slicedList);
+		String cacheKey = countParams.length == 0 ? countSql
+				: countSql + '\u0000' + Arrays.deepToString(countParams).toLowerCase();
+		Integer totalElements;
+		if (recipes.size() < pageOptions.getPageSize() && (!recipes.isEmpty() || pageOptions.getOffset() == 0)) {
+			totalElements = pageOptions.getOffset() + recipes.size();
+			countCache.put(cacheKey, totalElements);
+		} else {
+			totalElements = countCache.get(cacheKey);
+			if (totalElements == null) {
+				totalElements = countRows(conn, countSql, countParams);
+				countCache.put(cacheKey, totalElements);
+			}
+		}
+		int totalPages = pageOptions.getPageSize() > 0
+				? (int) Math.ceil(totalElements / (double) pageOptions.getPageSize()) : 0;
+		return new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(), totalPages, totalElements, recipes);
 	}
 
 	/**
-	 * Slices a list of Recipe objects from a specified start index to an end index.
-	 * This method creates a sublist of the provided list, which can be used for
-	 * pagination.
+	 * Fetches one page of recipes after the position encoded in the page options' cursor, optionally
+	 * filtered by name. Instead of skipping an OFFSET of rows, the query seeks past the last seen
+	 * (sort key, id) pair, so every page costs the same no matter how deep it is. One extra row is
+	 * fetched to tell whether another page follows; if so its cursor is returned as nextCursor.
 	 *
-	 * @param list  the original list of Recipe objects
-	 * @param start the starting index (inclusive) for the slice
-	 * @param end   the ending index (exclusive) for the slice
-	 * @return a list of Recipe objects representing the sliced portion
+	 * @param term the search term to filter recipe names by, or null for all recipes
+	 * @param pageOptions the page size, sort options and cursor
+	 * @return a Page whose totals are -1, since cursor pages are never counted
+	 * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort order
 	 */
-	private List<Recipe> sliceList(List<Recipe> list, int start, int end) {
-		List<Recipe> sliced = new ArrayList<>();
-		for (int i = start; i < end; i++) {
-			sliced.add(list.get(i));
+	private Page<Recipe> keysetPage(String term, PageOptions pageOptions) {
+		String column = KEYSET_COLUMNS.contains(sortColumn(pageOptions)) ? sortColumn(pageOptions) : "id";
+		String direction = sortDirection(pageOptions);
+		String comparison = direction.equals("DESC") ? "<" : ">";
+		PageCursor cursor = PageCursor.decode(pageOptions.getAfter(), column);
+
+		List<String> conditions = new ArrayList<>();
+		if (term != null) {
+			conditions.add(nameFilter(term));
+		}
+		if (cursor != null && column.equals("id")) {
+			conditions.add("r.id " + comparison + " ?");
+		} else if (cursor != null) {
+			// The leading single-column bound is what lets H2 turn the row comparison into an index seek
+			conditions.add("r.name " + comparison + "= ? AND (r.name, r.id) " + comparison + " (?, ?)");
+		}
+		// name is unique, so ordering by it alone is already a total order and keeps the scan index sorted
+		String sql = SELECT_RECIPES_WITH_AUTHOR + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+				+ " ORDER BY r." + column + " " + direction + " LIMIT ?";
+
+		List<Recipe> recipes = new ArrayList<>();
+		try (Connection conn = connectionUtil.getConnection();
+		     PreparedStatement ps = conn.prepareStatement(sql)) {
+			int index = 1;
+			if (term != null) {
+				index = bind(ps, index, nameParams(term));
+			}
+			if (cursor != null && column.equals("name")) {
+				ps.setString(index++, cursor.getSortKey());
+				ps.setString(index++, cursor.getSortKey());
+			}
+			if (cursor != null) {
+				ps.setInt(index++, cursor.getId());
+			}
+			ps.setInt(index, pageOptions.getPageSize() + 1);
+			try (ResultSet rs = ps.executeQuery()) {
+				recipes = mapRows(rs);
+			}
+		} catch (SQLException e) {
+			e.printStackTrace();
+		}
+
+		Page<Recipe> page = new Page<>(pageOptions.getPageNumber(), pageOptions.getPageSize(), -1, -1, recipes);
+		if (recipes.size() > pageOptions.getPageSize()) {
+			List<Recipe> items = new ArrayList<>(recipes.subList(0, pageOptions.getPageSize()));
+			Recipe last = items.get(items.size() - 1);
+			String sortKey = column.equals("name") ? last.getName() : String.valueOf(last.getId());
+			page.setItems(items);
+			page.setNextCursor(new PageCursor(column, sortKey, last.getId()).encode());
+		}
+		return page;
+	}
+
+	/**
+	 * Clears the count cache if RECIPE_INGREDIENT has changed since it was last caught up, whichever
+	 * connection made the change, since the counts of ingredient searches depend on that table. Call it
+	 * before running the query whose count is to be cached, so that the count is no older than the version.
+	 *
+	 * @param conn the connection to read the RECIPE_INGREDIENT version with
+	 * @throws SQLException if there is an error reading the version
+	 */
+	private void catchUpCountCache(Connection conn) throws SQLException {
+		long version = ChangeCounter.version(conn, "RECIPE_INGREDIENT");
+		if (countCacheVersion.getAndAccumulate(version, Math::max) < version) {
+			countCache.invalidateAll();
 		}
-		return sliced;
 	}
-}
 
+	/**
+	 * Returns the pantry index, first rebuilding it from RECIPE_INGREDIENT if the table has changed since
+	 * it was built. The version is read before the table, so a change made during a rebuild triggers
+	 * another one on the next call rather than being missed.
+	 *
+	 * @param conn the connection to read RECIPE_INGREDIENT with if the index has to be rebuilt
+	 * @return an index that is current as of this call
+	 * @throws SQLException if there is an error reading RECIPE_INGREDIENT
+	 */
+	private PantryIndex pantryIndex(Connection conn) throws SQLException {
+		long version = ChangeCounter.version(conn, "RECIPE_INGREDIENT");
+		// The version is written after the index, so reading it first never pairs it with an older index
+		if (pantryIndexVersion == version && pantryIndex != null) {
+			return pantryIndex;
+		}
+		synchronized (this) {
+			if (pantryIndex == null || pantryIndexVersion != version) {
+				PantryIndex.Builder builder = new PantryIndex.Builder();
+				try (PreparedStatement ps = conn.prepareStatement(SELECT_RECIPE_INGREDIENT_PAIRS);
+				     ResultSet rs = ps.executeQuery()) {
+					while (rs.next()) {
+						builder.add(rs.getInt("recipe_id"), rs.getInt("ingredient_id"));
+					}
+				}
+				pantryIndex = builder.build();
+				pantryIndexVersion = version;
+			}
+			return pantryIndex;
+		}
+	}
+
+	/**
+	 * Returns the similarity index, first catching it up with RECIPE_INGREDIENT. The ingredient sets of
+	 * the recipes changed since the index was last caught up are reloaded and replaced; if the change log
+	 * no longer reaches back that far, every set is reloaded.
+	 *
+	 * @param conn the connection to read RECIPE_INGREDIENT with
+	 * @return an index that is current as of this call
+	 * @throws SQLException if there is an error reading RECIPE_INGREDIENT
+	 */
+	private MinHashIndex similarityIndex(Connection conn) throws SQLException {
+		synchronized (similarityIndex) {
+			long version = ChangeCounter.version(conn, "RECIPE_INGREDIENT");
+			if (version == similarityIndexVersion) {
+				return similarityIndex;
+			}
+			Set<Object> changed = similarityIndexVersion < 0 ? null
+					: ChangeCounter.changesSince("RECIPE_INGREDIENT", similarityIndexVersion);
+			Map<Integer, List<Integer>> ingredientsByRecipe = new HashMap<>();
+			if (changed != null) {
+				for (Object recipeId : changed) {
+					ingredientsByRecipe.put(((Number) recipeId).intValue(), new ArrayList<>());
+				}
+			}
+			try (PreparedStatement ps = conn.prepareStatement(
+					changed == null ? SELECT_RECIPE_INGREDIENT_PAIRS : SELECT_RECIPE_INGREDIENT_PAIRS_OF_RECIPES)) {
+				if (changed != null) {
+					ps.setObject(1, ingredientsByRecipe.keySet().toArray(Integer[]::new));
+				}
+				try (ResultSet rs = ps.executeQuery()) {
+					while (rs.next()) {
+						ingredientsByRecipe.computeIfAbsent(rs.getInt("recipe_id"), recipeId -> new ArrayList<>())
+								.add(rs.getInt("ingredient_id"));
+					}
+				}
+			}
+			if (changed == null) {
+				similarityIndex.clear();
+			}
+			for (Map.Entry<Integer, List<Integer>> entry : ingredientsByRecipe.entrySet()) {
+				similarityIndex.put(entry.getKey(), entry.getValue());
+			}
+			similarityIndexVersion = version;
+			return similarityIndex;
+		}
+	}
+
+	/**
+	 * Reads a batch of recipes with one query.
+	 *
+	 * @param conn the connection to read with
+	 * @param ids the ids of the recipes to read
+	 * @return the recipes that exist, by id
+	 * @throws SQLException if there is an error reading the recipes
+	 */
+	private Map<Integer, Recipe> mapRecipesById(Connection conn, Integer[] ids) throws SQLException {
+		Map<Integer, Recipe> recipes = new HashMap<>();
+		try (PreparedStatement ps = conn.prepareStatement(SELECT_RECIPES_WITH_AUTHOR + " WHERE r.id = ANY(?)")) {
+			ps.setObject(1, ids);
+			try (ResultSet rs = ps.executeQuery()) {
+				for (Recipe recipe : mapRows(rs)) {
+					recipes.put(recipe.getId(), recipe);
+				}
+			}
+		}
+		return recipes;
+	}
+
+	/**
+	 * Runs a COUNT(*) query, binding the given parameters in order.
+	 *
+	 * @param conn the connection to run the query on
+	 * @param countSql the COUNT(*) query
+	 * @param params the parameters to bind, if any
+	 * @return the counted number of rows
+	 * @throws SQLException if there is an error running the query
+	 */
+	private int countRows(Connection conn, String countSql, Object... params) throws SQLException {
+		try (PreparedStatement ps = conn.prepareStatement(countSql)) {
+			bind(ps, 1, params);
+			try (ResultSet rs = ps.executeQuery()) {
+				return rs.next() ? rs.getInt(1) : 0;
+			}
+		}
+	}
+
+	/**
+	 * Builds the condition of a case-insensitive substring search on recipe names. When the term is
+	 * long enough, candidates are first looked up in the RECIPE_TRIGRAM index, so only recipes whose
+	 * names contain every trigram of the term are checked against the LIKE pattern.
+	 *
+	 * @param term the search term
+	 * @return the condition, to be bound with nameParams
+	 */
+	private String nameFilter(String term) {
+		String like = "LOWER(r.name) LIKE LOWER(?)";
+		return TrigramIndex.canSearch(term) ? like + " AND r.id IN (" + TrigramIndex.matchingIds("RECIPE") + ")" : like;
+	}
+
+	/**
+	 * @param term the search term
+	 * @return the parameters of the condition built by nameFilter
+	 */
+	private Object[] nameParams(String term) {
+		String pattern = "%" + term + "%";
+		if (!TrigramIndex.canSearch(term)) {
+			return new Object[] { pattern };
+		}
+		Object[] trigramParams = TrigramIndex.matchingParams(term);
+		return new Object[] { pattern, trigramParams[0], trigramParams[1] };
+	}
+
+	/**
+	 * Binds parameters to consecutive placeholders, using the typed setter for strings and ints.
+	 *
+	 * @param ps the statement to bind to
+	 * @param index the index of the first placeholder to bind
+	 * @param params the parameters to bind
+	 * @return the index of the next unbound placeholder
+	 * @throws SQLException if a parameter cannot be bound
+	 */
+	private int bind(PreparedStatement ps, int index, Object... params) throws SQLException {
+		for (Object param : params) {
+			if (param instanceof String) {
+				ps.setString(index++, (String) param);
+			} else if (param instanceof Integer) {
+				ps.setInt(index++, (Integer) param);
+			} else {
+				ps.setObject(index++, param);
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Builds the parameters of RECIPE_IDS_BY_INGREDIENTS. Names are lower-cased and duplicates dropped.
+	 * For all-of matching the requested ids and names are first resolved to distinct ingredients, each
+	 * of which is required once however many times it was named; a requested id or name matching no
+	 * ingredient is required too, so that no recipe matches.
+	 *
+	 * @param conn the connection to resolve the requested ingredients on
+	 * @param ingredientIds the ids of the requested ingredients
+	 * @param ingredientNames the names of the requested ingredients
+	 * @param matchAll true if every requested ingredient must be used
+	 * @return the id array, the name array and the minimum number of matching ingredients
+	 * @throws SQLException if the requested ingredients cannot be resolved
+	 */
+	private Object[] ingredientParams(Connection conn, Collection<Integer> ingredientIds,
+			Collection<String> ingredientNames, boolean matchAll) throws SQLException {
+		Integer[] ids = ingredientIds.stream().distinct().toArray(Integer[]::new);
+		String[] names = ingredientNames.stream().map(String::toLowerCase).distinct().toArray(String[]::new);
+		int required = 1;
+		if (matchAll) {
+			Set<Integer> resolved = new HashSet<>();
+			Set<Object> found = new HashSet<>();
+			try (PreparedStatement ps = conn.prepareStatement(RESOLVE_INGREDIENTS)) {
+				bind(ps, 1, ids, names);
+				try (ResultSet rs = ps.executeQuery()) {
+					while (rs.next()) {
+						resolved.add(rs.getInt(1));
+						found.add(rs.getInt(1));
+						found.add(rs.getString(2));
+					}
+				}
+			}
+			int unresolved = 0;
+			for (Integer id : ids) {
+				unresolved += found.contains(id) ? 0 : 1;
+			}
+			for (String name : names) {
+				unresolved += found.contains(name) ? 0 : 1;
+			}
+			required = Math.max(1, resolved.size() + unresolved);
+		}
+		return new Object[] { ids, names, required };
+	}
+
+	/**
+	 * Builds the ORDER BY clause for a paged query. Only whitelisted columns are
+	 * accepted, since the column name is concatenated into the SQL, and id is
+	 * appended as a tie-breaker so that rows never move between pages.
+	 *
+	 * @param pageOptions the PageOptions object containing the sorting details
+	 * @return the ORDER BY clause, starting with a space
+	 */
+	private String orderBy(PageOptions pageOptions) {
+		String column = sortColumn(pageOptions);
+		String direction = sortDirection(pageOptions);
+		String clause = " ORDER BY r." + column + " " + direction;
+		return column.equals("id") ? clause : clause + ", r.id " + direction;
+	}
+
+	/**
+	 * Resolves the requested sort column against the whitelist of sortable columns.
+	 *
+	 * @param pageOptions the PageOptions object containing the sorting details
+	 * @return the lower-case column name, or id if the requested column is not sortable
+	 */
+	private String sortColumn(PageOptions pageOptions) {
+		String column = pageOptions.getSortBy() == null ? "id" : pageOptions.getSortBy().toLowerCase();
+		return SORTABLE_COLUMNS.contains(column) ? column : "id";
+	}
+
+	/**
+	 * @param pageOptions the PageOptions object containing the sorting details
+	 * @return DESC if a descending sort was requested, ASC otherwise
+	 */
+	private String sortDirection(PageOptions pageOptions) {
+		return "desc".equalsIgnoreCase(pageOptions.getSortDirection()) ? "DESC" : "ASC";
+	}
+}
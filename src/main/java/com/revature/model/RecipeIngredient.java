@@ -18,6 +18,8 @@ public class RecipeIngredient {
 	private double volume;
 	/** The measuring unit used for recipe-ingredient. */
 	private String unit;
+	/** The unit parsed once from the unit text, or null if it is not a recognized unit. */
+	private Unit parsedUnit;
 
 	// constructors
 	public RecipeIngredient() {
@@ -29,7 +31,7 @@ public class RecipeIngredient {
 		this.id = ingredient.getId();
 		this.name = ingredient.getName();
 		this.volume = volume;
-		this.unit = unit;
+		setUnit(unit);
 	}
 
 	public RecipeIngredient(int id, String name, double volume, String unit) {
@@ -37,7 +39,7 @@ public class RecipeIngredient {
 		this.id = id;
 		this.name = name;
 		this.volume = volume;
-		this.unit = unit;
+		setUnit(unit);
 	}
 	
 	// getters and setters
@@ -71,8 +73,22 @@ public class RecipeIngredient {
 
 	public void setUnit(String unit) {
 		this.unit = unit;
+		this.parsedUnit = Unit.parse(unit);
+	}
+
+	/**
+	 * Converts the amount into the measuring system asked for, in the unit it reads best in, rounded to two decimal places. Amounts already in that system, or in units that cannot be converted, are left as they are.
+	 *
+	 * @param metric whether to convert into metric units rather than US customary ones
+	 */
+	public void convertTo(boolean metric) {
+		if (parsedUnit == null || parsedUnit.isMetric() == metric) {
+			return;
+		}
+		Unit target = parsedUnit.equivalent(volume, metric);
+		this.volume = Math.round(parsedUnit.convert(volume, target) * 100) / 100.0;
+		this.unit = target.getSymbol();
+		this.parsedUnit = target;
 	}
 
-	
-	
 }
\ No newline at end of file
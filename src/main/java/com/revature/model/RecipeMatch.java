@@ -0,0 +1,60 @@
+package com.revature.model;
+
+/**
+ The RecipeMatch class represents a recipe that can be cooked, fully or in part, from the ingredients someone has on hand. It stores the recipe together with how many of its ingredients are on hand and how many it needs in total.
+
+ */
+public class RecipeMatch {
+
+	// fields
+
+	/** The matched recipe. */
+	private Recipe recipe;
+	/** The number of the recipe's ingredients that are on hand. */
+	private int matchedIngredients;
+	/** The number of distinct ingredients the recipe uses. */
+	private int totalIngredients;
+
+	// constructors
+	public RecipeMatch() {
+		super();
+	}
+
+	public RecipeMatch(Recipe recipe, int matchedIngredients, int totalIngredients) {
+		super();
+		this.recipe = recipe;
+		this.matchedIngredients = matchedIngredients;
+		this.totalIngredients = totalIngredients;
+	}
+
+	// getters and setters
+	public Recipe getRecipe() {
+		return recipe;
+	}
+
+	public void setRecipe(Recipe recipe) {
+		this.recipe = recipe;
+	}
+
+	public int getMatchedIngredients() {
+		return matchedIngredients;
+	}
+
+	public void setMatchedIngredients(int matchedIngredients) {
+		this.matchedIngredients = matchedIngredients;
+	}
+
+	public int getTotalIngredients() {
+		return totalIngredients;
+	}
+
+	public void setTotalIngredients(int totalIngredients) {
+		this.totalIngredients = totalIngredients;
+	}
+
+	/** @return the fraction of the recipe's ingredients that are on hand, from 0 to 1 */
+	public double getCoverage() {
+		return totalIngredients == 0 ? 0 : matchedIngredients / (double) totalIngredients;
+	}
+
+}
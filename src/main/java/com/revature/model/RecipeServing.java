@@ -0,0 +1,44 @@
+package com.revature.model;
+
+/**
+ The RecipeServing class represents one recipe on a shopping list, together with how many times over it will be cooked. The multiplier scales every ingredient amount of the recipe, so 2 means a double batch and 0.5 a half batch.
+
+ */
+public class RecipeServing {
+
+	// fields
+
+	/** The unique identifier of the recipe. */
+	private int recipeId;
+	/** How many times over the recipe will be cooked. */
+	private double multiplier = 1;
+
+	// constructors
+	public RecipeServing() {
+		super();
+	}
+
+	public RecipeServing(int recipeId, double multiplier) {
+		super();
+		this.recipeId = recipeId;
+		this.multiplier = multiplier;
+	}
+
+	// getters and setters
+	public int getRecipeId() {
+		return recipeId;
+	}
+
+	public void setRecipeId(int recipeId) {
+		this.recipeId = recipeId;
+	}
+
+	public double getMultiplier() {
+		return multiplier;
+	}
+
+	public void setMultiplier(double multiplier) {
+		this.multiplier = multiplier;
+	}
+
+}
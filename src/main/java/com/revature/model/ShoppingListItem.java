@@ -0,0 +1,94 @@
+package com.revature.model;
+
+import java.util.Objects;
+
+/**
+ The ShoppingListItem class represents one line of a shopping list: the total amount of an ingredient needed across a set of recipes, in a single unit.
+
+ An ingredient measured both by volume and by mass, or in a unit that cannot be converted, appears on one line per dimension or unit.
+
+ */
+public class ShoppingListItem {
+
+	// fields
+
+	/** The unique identifier of the ingredient. */
+	private int ingredientId;
+	/** The name of the ingredient. */
+	private String name;
+	/** The total amount needed. */
+	private double quantity;
+	/** The measuring unit of the quantity. */
+	private String unit;
+
+	// constructors
+	public ShoppingListItem() {
+		super();
+	}
+
+	public ShoppingListItem(int ingredientId, String name, double quantity, String unit) {
+		super();
+		this.ingredientId = ingredientId;
+		this.name = name;
+		this.quantity = quantity;
+		this.unit = unit;
+	}
+
+	// getters and setters
+	public int getIngredientId() {
+		return ingredientId;
+	}
+
+	public void setIngredientId(int ingredientId) {
+		this.ingredientId = ingredientId;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public double getQuantity() {
+		return quantity;
+	}
+
+	public void setQuantity(double quantity) {
+		this.quantity = quantity;
+	}
+
+	public String getUnit() {
+		return unit;
+	}
+
+	public void setUnit(String unit) {
+		this.unit = unit;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null || getClass() != obj.getClass()) {
+			return false;
+		}
+		ShoppingListItem other = (ShoppingListItem) obj;
+		return ingredientId == other.ingredientId && Double.compare(quantity, other.quantity) == 0
+				&& Objects.equals(name, other.name) && Objects.equals(unit, other.unit);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(ingredientId, name, quantity, unit);
+	}
+
+	@Override
+	public String toString() {
+		return "ShoppingListItem [ingredientId=" + ingredientId + ", name=" + name + ", quantity=" + quantity
+				+ ", unit=" + unit + "]";
+	}
+
+}
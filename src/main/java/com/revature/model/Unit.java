@@ -0,0 +1,206 @@
+package com.revature.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ The Unit enum lists the measuring units that recipe ingredient amounts can be converted between. Each unit belongs to a dimension (volume or mass) and a measuring system (metric or US customary), and knows how many base units it holds: milliliters for volume and grams for mass.
+
+ Units are parsed from the free-text unit column of RECIPE_INGREDIENT, which accepts the common spellings, abbreviations and plurals of each unit, ignoring case. Each distinct text is parsed once and remembered, and conversions between units are looked up in a table of factors built when the enum is loaded, so converting an amount is a single multiplication.
+
+ */
+public enum Unit {
+
+	MILLILITER(Dimension.VOLUME, true, 1, true, "ml", "milliliter", "milliliters", "millilitre", "millilitres"),
+	LITER(Dimension.VOLUME, true, 1_000, true, "l", "liter", "liters", "litre", "litres"),
+	TEASPOON(Dimension.VOLUME, false, 4.92892159375, true, "tsp", "tsps", "teaspoon", "teaspoons"),
+	TABLESPOON(Dimension.VOLUME, false, 14.78676478125, true, "tbsp", "tbsps", "tbs", "tablespoon", "tablespoons"),
+	FLUID_OUNCE(Dimension.VOLUME, false, 29.5735295625, false, "fl oz", "floz", "fluid ounce", "fluid ounces"),
+	CUP(Dimension.VOLUME, false, 236.5882365, true, "cup", "cups", "c"),
+	PINT(Dimension.VOLUME, false, 473.176473, false, "pt", "pint", "pints"),
+	QUART(Dimension.VOLUME, false, 946.352946, false, "qt", "quart", "quarts"),
+	GALLON(Dimension.VOLUME, false, 3_785.411784, false, "gal", "gallon", "gallons"),
+	GRAM(Dimension.MASS, true, 1, true, "g", "gram", "grams"),
+	KILOGRAM(Dimension.MASS, true, 1_000, true, "kg", "kilogram", "kilograms"),
+	OUNCE(Dimension.MASS, false, 28.349523125, true, "oz", "ounce", "ounces"),
+	POUND(Dimension.MASS, false, 453.59237, true, "lb", "lbs", "pound", "pounds");
+
+	/** What a unit measures. Only units of the same dimension can be converted into each other. */
+	public enum Dimension {
+		VOLUME, MASS
+	}
+
+	/** Every accepted spelling of every unit, lower-cased. */
+	private static final Map<String, Unit> BY_NAME = new HashMap<>();
+
+	/** The most distinct unit texts whose parse results are remembered. */
+	private static final int MAX_PARSED_TEXTS = 1_024;
+
+	/** The parse result of every unit text seen so far, exactly as written; unrecognized texts map to NONE. */
+	private static final Map<String, Optional<Unit>> PARSED = new ConcurrentHashMap<>();
+
+	/** The PARSED value of a text that is not a unit, since the map cannot hold null. */
+	private static final Optional<Unit> NONE = Optional.empty();
+
+	/** The factor that converts an amount from one unit into another, by ordinal; NaN across dimensions. */
+	private static final double[][] FACTORS;
+
+	/** The preferred units of each dimension and measuring system, smallest first; see ladder. */
+	private static final Unit[][] PREFERRED;
+
+	static {
+		Unit[] units = values();
+		for (Unit unit : units) {
+			for (String name : unit.names) {
+				BY_NAME.put(name, unit);
+			}
+		}
+		FACTORS = new double[units.length][units.length];
+		for (Unit from : units) {
+			for (Unit to : units) {
+				FACTORS[from.ordinal()][to.ordinal()] = from.dimension == to.dimension ? from.baseUnits / to.baseUnits : Double.NaN;
+			}
+		}
+		PREFERRED = new Unit[Dimension.values().length * 2][];
+		for (Dimension dimension : Dimension.values()) {
+			for (boolean metric : new boolean[] { false, true }) {
+				List<Unit> ladder = new ArrayList<>();
+				for (Unit unit : units) {
+					if (unit.dimension == dimension && unit.metric == metric && unit.preferred) {
+						ladder.add(unit);
+					}
+				}
+				ladder.sort((a, b) -> Double.compare(a.baseUnits, b.baseUnits));
+				PREFERRED[ladder(dimension, metric)] = ladder.toArray(new Unit[0]);
+			}
+		}
+	}
+
+	// fields
+
+	/** What the unit measures. */
+	private final Dimension dimension;
+	/** Whether the unit is metric rather than US customary. */
+	private final boolean metric;
+	/** How many milliliters or grams the unit holds. */
+	private final double baseUnits;
+	/** Whether amounts are shown in this unit when they are normalized. */
+	private final boolean preferred;
+	/** The accepted spellings of the unit; the first is its symbol. */
+	private final String[] names;
+
+	Unit(Dimension dimension, boolean metric, double baseUnits, boolean preferred, String... names) {
+		this.dimension = dimension;
+		this.metric = metric;
+		this.baseUnits = baseUnits;
+		this.preferred = preferred;
+		this.names = names;
+	}
+
+	/**
+	 * Parses a unit as written in a recipe, ignoring case, surrounding whitespace and a trailing period.
+	 * The result for each distinct text is remembered, so repeated texts are only looked up.
+	 *
+	 * @param text the unit as written, e.g. "Tbs" or "cups"
+	 * @return the unit, or null if the text is not a recognized unit
+	 */
+	public static Unit parse(String text) {
+		if (text == null) {
+			return null;
+		}
+		Optional<Unit> parsed = PARSED.get(text);
+		if (parsed == null) {
+			String name = text.strip().toLowerCase(Locale.ROOT);
+			if (name.endsWith(".")) {
+				name = name.substring(0, name.length() - 1);
+			}
+			Unit unit = BY_NAME.get(name);
+			parsed = unit == null ? NONE : Optional.of(unit);
+			if (PARSED.size() < MAX_PARSED_TEXTS) {
+				PARSED.put(text, parsed);
+			}
+		}
+		return parsed.orElse(null);
+	}
+
+	/**
+	 * Picks the unit an amount reads best in: the largest preferred unit of the dimension and measuring
+	 * system that holds at least one of it, or the smallest one if none does. For example 48 teaspoons
+	 * read as 1 cup and 1500 milliliters as 1.5 liters.
+	 *
+	 * @param dimension what the amount measures
+	 * @param metric whether to use metric units
+	 * @param baseUnits the amount, in milliliters or grams
+	 * @return the unit to show the amount in
+	 */
+	public static Unit normalized(Dimension dimension, boolean metric, double baseUnits) {
+		Unit[] ladder = PREFERRED[ladder(dimension, metric)];
+		Unit best = ladder[0];
+		for (int i = 1; i < ladder.length && ladder[i].baseUnits <= baseUnits; i++) {
+			best = ladder[i];
+		}
+		return best;
+	}
+
+	/**
+	 * Converts an amount in this unit into the unit it reads best in within a measuring system, e.g.
+	 * 2 cups into 473.18 ml, or 500 ml into 2.11 cups.
+	 *
+	 * @param amount an amount in this unit
+	 * @param metric whether to convert into metric units
+	 * @return the unit the amount reads best in; this unit if it already belongs to the system
+	 */
+	public Unit equivalent(double amount, boolean metric) {
+		return this.metric == metric ? this : normalized(dimension, metric, toBase(amount));
+	}
+
+	/**
+	 * @param amount an amount in this unit
+	 * @param to the unit to convert into, of the same dimension
+	 * @return the amount in the other unit, or NaN if the units measure different things
+	 */
+	public double convert(double amount, Unit to) {
+		return amount * FACTORS[ordinal()][to.ordinal()];
+	}
+
+	/**
+	 * @param amount an amount in this unit
+	 * @return the amount in milliliters or grams
+	 */
+	public double toBase(double amount) {
+		return amount * baseUnits;
+	}
+
+	/**
+	 * @param baseUnits an amount in milliliters or grams
+	 * @return the amount in this unit
+	 */
+	public double fromBase(double baseUnits) {
+		return baseUnits / this.baseUnits;
+	}
+
+	// getters
+	public Dimension getDimension() {
+		return dimension;
+	}
+
+	public boolean isMetric() {
+		return metric;
+	}
+
+	/** @return the unit's abbreviation, e.g. tbsp */
+	public String getSymbol() {
+		return names[0];
+	}
+
+	/** @return the index in PREFERRED of the ladder of a dimension and measuring system */
+	private static int ladder(Dimension dimension, boolean metric) {
+		return dimension.ordinal() * 2 + (metric ? 1 : 0);
+	}
+
+}
@@ -1,8 +1,7 @@
 package com.revature.service;
-import java.util.HashMap;
-import java.util.Map;
-
 import com.revature.model.Chef;
+import com.revature.util.FlightEvents;
+import com.revature.util.SessionStore;
 
 
 /**
@@ -22,17 +21,26 @@ public class AuthenticationService {
     @SuppressWarnings("unused")
     private ChefService chefService;
 
-    /** A map that keeps track of currently logged in users, indexed by session token. */
-    public static Map<String, Chef> loggedInUsers = new HashMap<>();
+    /** The authentication scheme clients may put in front of the token in the Authorization header. */
+    private static final String BEARER_SCHEME = "Bearer";
+
+    /**
+     * The store that keeps track of currently logged in users, indexed by session token. Sessions last
+     * auth.session.ttlMillis (default 8 hours), end early after auth.session.idleTimeoutMillis without use
+     * (default 30 minutes), and at most auth.session.maxSessions (default 10000) are kept.
+     */
+    private final SessionStore<Chef> loggedInUsers = new SessionStore<>(
+            Long.getLong("auth.session.ttlMillis", 8 * 60 * 60 * 1000L),
+            Long.getLong("auth.session.idleTimeoutMillis", 30 * 60 * 1000L),
+            Integer.getInteger("auth.session.maxSessions", 10_000));
 
     /**
-     * Constructs an AuthenticationService with the specified ChefService and a newly created HashMap for the LoggedInUsers.
+     * Constructs an AuthenticationService with the specified ChefService, starting with no logged in users.
      *
      * @param chefService the ChefService to be used by this authentication service
      */
     public AuthenticationService(ChefService chefService) {
         this.chefService = chefService;
-        loggedInUsers = new HashMap<>();
     }
 
     /**
@@ -46,15 +54,12 @@ public class AuthenticationService {
         return null;
     }
 
-    // Use the searchChefs() method from ChefService to find matching username
-    var chefs = chefService.searchChefs(chef.getUsername());
-    if (chefs == null || chefs.isEmpty()) {
+    // Usernames are unique, so look the chef up by exact username (served from the chef cache)
+    Chef existingChef = chefService.findChefByUsername(chef.getUsername()).orElse(null);
+    if (existingChef == null) {
         return null;
     }
 
-    // Assuming usernames are unique, take the first result
-    Chef existingChef = chefs.get(0);
-
     if (existingChef.getPassword().equals(chef.getPassword())) {
         String token = java.util.UUID.randomUUID().toString();
         loggedInUsers.put(token, existingChef);
@@ -64,15 +69,13 @@ public class AuthenticationService {
     }
 
     /**
-     * TODO: Logs out a chef by removing their session token from the LoggedInUsers map.
+     * TODO: Logs out a chef by removing their session token from the LoggedInUsers store.
      *
-     * @param token the session token of the chef to be logged out
+     * @param token the session token of the chef to be logged out, optionally after the Bearer scheme
      */
 
     public void logout(String token) {
-         if (token != null) {
-            loggedInUsers.remove(token);
-        }   
+        loggedInUsers.remove(extractToken(token));
     }
 
     /**
@@ -96,7 +99,52 @@ public class AuthenticationService {
      * @return the Chef object associated with the session token; null if not found
      */
     public Chef getChefFromSessionToken(String token) {
-        return loggedInUsers.get(token);
+        return lookUpSession(token);
+    }
+
+    /**
+     * Retrieves a Chef object from the value of an Authorization header, which holds the session token
+     * either on its own or after the Bearer scheme.
+     *
+     * @param authorizationHeader the value of the Authorization header, or null if it was not sent
+     * @return the Chef object associated with the token in the header; null if not found
+     */
+    public Chef getChefFromAuthorizationHeader(String authorizationHeader) {
+        return lookUpSession(extractToken(authorizationHeader));
+    }
+
+    /**
+     * Extracts the session token from the value of an Authorization header.
+     *
+     * @param authorizationHeader the value of the Authorization header, or null if it was not sent
+     * @return the session token, or null if the header is missing or blank
+     */
+    public static String extractToken(String authorizationHeader) {
+        if (authorizationHeader == null) {
+            return null;
+        }
+        String token = authorizationHeader.strip();
+        if (token.regionMatches(true, 0, BEARER_SCHEME, 0, BEARER_SCHEME.length())) {
+            token = token.substring(BEARER_SCHEME.length()).strip();
+        }
+        return token.isEmpty() ? null : token;
+    }
+
+    /**
+     * Looks up the chef behind a session token, emitting a FlightEvents.SessionLookup event.
+     *
+     * @param token the session token, or null
+     * @return the chef, or null if the token does not belong to a live session
+     */
+    private Chef lookUpSession(String token) {
+        FlightEvents.SessionLookup event = new FlightEvents.SessionLookup();
+        event.begin();
+        Chef chef = loggedInUsers.get(token);
+        if (event.shouldCommit()) {
+            event.found = chef != null;
+            event.commit();
+        }
+        return chef;
     }
     
 }
\ No newline at end of file
@@ -45,6 +45,17 @@ public class ChefService {
         return Optional.ofNullable(chef);
     }
 
+    /**
+     * Finds a Chef by their exact username.
+     *
+     * @param username the username of the chef to be found
+     * @return an Optional containing the found Chef if present; 
+     *         an empty Optional if not found
+     */
+    public Optional<Chef> findChefByUsername(String username) {
+        return Optional.ofNullable(chefDAO.getChefByUsername(username));
+    }
+
     /**
      * TODO: Saves a Chef entity. If the Chef's ID is zero, a new Chef is created and the `chef` parameter's ID is updated.
 	* 
@@ -65,6 +65,29 @@ public class IngredientService {
         }
     }
 
+    /**
+     * Searches for Ingredients one cursor page at a time. Instead of a page number, the caller passes the
+     * nextCursor of the previous page (or an empty string for the first page).
+     *
+     * @param term the search term for filtering Ingredients by name, or null for all Ingredients
+     * @param after the cursor returned with the previous page, or an empty string for the first page
+     * @param pageSize the number of results per page
+     * @param sortBy the field to sort the results by
+     * @param sortDirection the direction of sorting (e.g., "asc" or "desc")
+     * @return a Page containing the results and the cursor of the next page, if any
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort order
+     */
+    public Page<Ingredient> searchIngredientsAfter(String term, String after, int pageSize, String sortBy, String sortDirection) {
+        PageOptions options = new PageOptions(1, pageSize, sortBy, sortDirection);
+        options.setAfter(after == null ? "" : after);
+
+        if (term == null || term.isEmpty()){
+            return ingredientDAO.getAllIngredients(options);
+        } else {
+            return ingredientDAO.searchIngredients(term, options);
+        }
+    }
+
     /**
      * TODO: Searches for Ingredients based on a search term.
      * If the term is null, retrieves all Ingredients.
@@ -80,6 +103,17 @@ public class IngredientService {
         }
     }
 
+    /**
+     * Suggests Ingredients whose names start with the given prefix, ignoring case, for autocomplete.
+     *
+     * @param prefix the start of the ingredient name typed so far, or null to match every Ingredient
+     * @param limit the largest number of suggestions to return
+     * @return up to limit Ingredients, in order of name
+     */
+    public List<Ingredient> suggestIngredients(String prefix, int limit) {
+        return ingredientDAO.suggestIngredients(prefix == null ? "" : prefix.strip(), limit);
+    }
+
     /**
      * TODO: Deletes an Ingredient by its unique identifier, if it exists.
      *
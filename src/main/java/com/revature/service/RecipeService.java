@@ -1,12 +1,21 @@
 package com.revature.service;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import com.revature.dao.RecipeDAO;
 import com.revature.model.Recipe;
+import com.revature.model.RecipeIngredient;
+import com.revature.model.RecipeMatch;
+import com.revature.model.RecipeServing;
+import com.revature.model.ShoppingListItem;
 import com.revature.util.Page;
 import com.revature.util.PageOptions;
+import com.revature.util.TrigramIndex;
 
 /**
  * The RecipeService class provides services related to Recipe objects,
@@ -81,6 +90,30 @@ public class RecipeService {
         }
     }
 
+    /**
+     * Searches for recipes one cursor page at a time. Instead of a page number, the caller passes the
+     * nextCursor of the previous page (or an empty string for the first page), which keeps deep pages
+     * as cheap as the first one.
+     *
+     * @param term          the search term used to find recipes, or null for all recipes
+     * @param after         the cursor returned with the previous page, or an empty string for the first page
+     * @param pageSize      the number of recipes per page
+     * @param sortBy        the field by which to sort the results
+     * @param sortDirection the direction of sorting (ascending or descending)
+     * @return a Page containing the results and the cursor of the next page, if any
+     * @throws IllegalArgumentException if the cursor is malformed or was issued for another sort order
+     */
+    public Page<Recipe> searchRecipesAfter(String term, String after, int pageSize, String sortBy, String sortDirection) {
+        PageOptions options = new PageOptions(1, pageSize, sortBy, sortDirection);
+        options.setAfter(after == null ? "" : after);
+
+        if (term == null || term.isEmpty()){
+            return recipeDAO.getAllRecipes(options);
+        } else {
+            return recipeDAO.searchRecipesByTerm(term, options);
+        }
+    }
+
     /**
      * TODO: Searches for recipes based on a search term.
      *
@@ -94,6 +127,148 @@ public class RecipeService {
         return recipeDAO.searchRecipesByTerm(term);
     }
 
+    /**
+     * Searches recipe names and instructions for the words of a query, most relevant recipes first.
+     *
+     * @param query    the words to search for
+     * @param page     the page number to retrieve
+     * @param pageSize the number of recipes per page
+     * @return a Page containing the recipes that contain any word of the query, ranked by relevance
+     */
+    public Page<Recipe> searchRecipesFullText(String query, int page, int pageSize) {
+        return recipeDAO.searchRecipesFullText(query, new PageOptions(page, pageSize));
+    }
+
+    /**
+     * Searches for recipes by name, optionally tolerating typos. With a maxEditDistance above zero, recipes
+     * whose names are within that many character edits of the term are returned, closest match first;
+     * otherwise this is the same substring search as {@link #searchRecipes(String)}. Terms shorter than
+     * three characters are always searched by substring, and short terms allow fewer edits.
+     *
+     * @param term            the search term used to find recipes
+     * @param maxEditDistance the largest number of typos to tolerate, or 0 for a substring search
+     * @return a list of Recipe objects that match the search term
+     */
+    public List<Recipe> searchRecipes(String term, int maxEditDistance) {
+        if (maxEditDistance <= 0 || !TrigramIndex.canSearch(term)) {
+            return searchRecipes(term);
+        }
+        return recipeDAO.searchRecipesFuzzy(term, maxEditDistance);
+    }
+
+    /**
+     * Searches for recipes that use the given ingredients.
+     *
+     * @param ingredients a comma-separated list of ingredient ids and/or names
+     * @param matchAll    true to return only recipes using every listed ingredient, false for any of them
+     * @return a list of Recipe objects that use the listed ingredients
+     */
+    public List<Recipe> searchRecipesByIngredients(String ingredients, boolean matchAll) {
+        List<Integer> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        splitIngredients(ingredients, ids, names);
+        if (ids.isEmpty() && names.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return recipeDAO.searchRecipesByIngredients(ids, names, matchAll);
+    }
+
+    /**
+     * Searches for recipes that use the given ingredients, with pagination and sorting options.
+     *
+     * @param ingredients   a comma-separated list of ingredient ids and/or names
+     * @param matchAll      true to return only recipes using every listed ingredient, false for any of them
+     * @param page          the page number to retrieve
+     * @param pageSize      the number of recipes per page
+     * @param sortBy        the field by which to sort the results
+     * @param sortDirection the direction of sorting (ascending or descending)
+     * @return a Page containing the recipes that use the listed ingredients
+     */
+    public Page<Recipe> searchRecipesByIngredients(String ingredients, boolean matchAll, int page, int pageSize,
+            String sortBy, String sortDirection) {
+        List<Integer> ids = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        splitIngredients(ingredients, ids, names);
+        if (ids.isEmpty() && names.isEmpty()) {
+            return new Page<>(page, pageSize, 0, 0, new ArrayList<>());
+        }
+        return recipeDAO.searchRecipesByIngredients(ids, names, matchAll,
+                new PageOptions(page, pageSize, sortBy, sortDirection));
+    }
+
+    /**
+     * Finds the recipes that can be cooked, fully or mostly, from the ingredients on hand.
+     *
+     * @param ingredientIds the ids of the ingredients on hand
+     * @param minCoverage   the smallest fraction of a recipe's ingredients that must be on hand, from 0 to 1
+     * @param limit         the largest number of recipes to return
+     * @return the matching recipes with their coverage, best covered first
+     */
+    public List<RecipeMatch> matchRecipes(Collection<Integer> ingredientIds, double minCoverage, int limit) {
+        if (ingredientIds == null || ingredientIds.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+        return recipeDAO.matchRecipes(ingredientIds, Math.min(Math.max(minCoverage, 0), 1), limit);
+    }
+
+    /**
+     * Finds the recipes whose ingredients are most like those of a given recipe.
+     *
+     * @param id    the unique identifier of the recipe to compare with
+     * @param limit the largest number of recipes to return
+     * @return recipes sharing ingredients with the recipe, most similar first
+     */
+    public List<Recipe> findSimilarRecipes(int id, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        return recipeDAO.getSimilarRecipes(id, limit);
+    }
+
+    /**
+     * Builds a shopping list with the total amount of every ingredient a batch of recipes needs. A recipe
+     * listed more than once is cooked the sum of its multipliers times over.
+     *
+     * @param servings the recipes to shop for, each with how many times over it will be cooked
+     * @return one line per ingredient and kind of measure, ordered by ingredient name
+     * @throws IllegalArgumentException if a multiplier is not a positive number
+     */
+    public List<ShoppingListItem> buildShoppingList(List<RecipeServing> servings) {
+        Map<Integer, Double> multipliers = new LinkedHashMap<>();
+        for (RecipeServing serving : servings) {
+            if (!(serving.getMultiplier() > 0) || Double.isInfinite(serving.getMultiplier())) {
+                throw new IllegalArgumentException("Multipliers must be positive numbers");
+            }
+            multipliers.merge(serving.getRecipeId(), serving.getMultiplier(), Double::sum);
+        }
+        return recipeDAO.getShoppingList(multipliers);
+    }
+
+    /**
+     * Fills in the ingredients of the given recipes with a single query for all of them.
+     *
+     * @param recipes the recipes whose ingredients should be loaded
+     */
+    public void loadIngredients(List<Recipe> recipes) {
+        recipeDAO.loadIngredients(recipes);
+    }
+
+    /**
+     * Converts the ingredient amounts of the given recipes into metric or US customary units, in place.
+     *
+     * @param recipes the recipes, with their ingredients loaded
+     * @param metric whether to convert into metric units rather than US customary ones
+     */
+    public void convertUnits(List<Recipe> recipes, boolean metric) {
+        for (Recipe recipe : recipes) {
+            if (recipe.getIngredients() != null) {
+                for (RecipeIngredient ingredient : recipe.getIngredients()) {
+                    ingredient.convertTo(metric);
+                }
+            }
+        }
+    }
+
     /**
      * TODO: Deletes a Recipe by its unique identifier.
      *
@@ -105,4 +280,29 @@ public class RecipeService {
             recipeDAO.deleteRecipe(recipe);
         }
     }
+
+    /**
+     * Splits a comma-separated ingredient list into ingredient ids (entries that are whole numbers)
+     * and ingredient names (everything else). Blank entries are skipped.
+     *
+     * @param ingredients the comma-separated list, or null
+     * @param ids         receives the ingredient ids
+     * @param names       receives the ingredient names
+     */
+    private void splitIngredients(String ingredients, List<Integer> ids, List<String> names) {
+        if (ingredients == null) {
+            return;
+        }
+        for (String entry : ingredients.split(",")) {
+            String value = entry.strip();
+            if (value.isEmpty()) {
+                continue;
+            }
+            try {
+                ids.add(Integer.parseInt(value));
+            } catch (NumberFormatException e) {
+                names.add(value);
+            }
+        }
+    }
 }
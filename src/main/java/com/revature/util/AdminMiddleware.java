@@ -1,10 +1,6 @@
 package com.revature.util;
-import java.util.stream.Collectors;
-
-import com.revature.dao.ChefDAO;
 import com.revature.model.Chef;
 import com.revature.service.AuthenticationService;
-import com.revature.service.ChefService;
 
 import io.javalin.http.Context;
 import io.javalin.http.Handler;
@@ -30,32 +26,30 @@ public class AdminMiddleware implements Handler {
     /**
      * The AuthenticationService instance used for handling authentication-related operations and validation.
      */
-    @SuppressWarnings("unused")
     private AuthenticationService authService;
     
 
     /**
      * Constructs an AdminMiddleware instance with the specified AuthenticationService and an array of protected methods.
      *
-     * @param AuthenticationService - the AuthenticationService instance for handling authentication operations
+     * @param authService - the application's AuthenticationService, which holds the sessions to check tokens against
      * @param protectedMethods - the array of protected HTTP methods
      */
 
-    public AdminMiddleware(String... protectedMethods) {
+    public AdminMiddleware(AuthenticationService authService, String... protectedMethods) {
         this.protectedMethods = protectedMethods;
-        this.authService = new AuthenticationService(new ChefService(new ChefDAO(new ConnectionUtil())));
+        this.authService = authService;
     }
 
     /**
-     * Handles the HTTP request, checking for admin access based on the HTTP method being used and the current logged in user's authentication token.
+     * Handles the HTTP request, checking for admin access based on the HTTP method being used and the session token in the request's Authorization header.
      *
      * @param ctx the Javalin context representing the HTTP request and response
      */
     @Override
     public void handle(Context ctx) {
         if (isProtectedMethod(ctx.method().name())) {
-            String token = AuthenticationService.loggedInUsers.keySet().stream().collect(Collectors.joining());
-            boolean isAdmin = isAdmin(authService.getChefFromSessionToken(token));
+            boolean isAdmin = isAdmin(authService.getChefFromAuthorizationHeader(ctx.header("Authorization")));
             if (!isAdmin) {
                 throw new UnauthorizedResponse("Access denied");
             } 
@@ -69,6 +63,9 @@ public class AdminMiddleware implements Handler {
      * @return true if the method is protected; false otherwise.
      */
     private boolean isProtectedMethod(String method) {
+        if (protectedMethods == null) {
+            return false;
+        }
         for (String protectedMethod : protectedMethods) {
             if (protectedMethod.toString().equalsIgnoreCase(method)) {
                 return true;
@@ -0,0 +1,213 @@
+package com.revature.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.h2.api.Trigger;
+
+/**
+ * The ChangeCounter class is an H2 trigger that counts the changes made to a table, so that in-memory
+ * structures derived from the table can tell cheaply whether they are out of date: a structure remembers
+ * the {@link #version(Connection, String)} it was built at and catches up once the version moves on.
+ *
+ * For tables with a key column, declared FOR EACH ROW, the trigger also keeps a bounded log of the keys
+ * of the changed rows, so that a structure can catch up by reloading only those keys; see
+ * {@link #changesSince(String, long)}. Other tables are counted once per statement and can only be
+ * rebuilt in full.
+ *
+ * Each table's count is a row of CHANGE_VERSION, which the trigger bumps in the writer's own transaction.
+ * The new count therefore becomes visible exactly when the change commits, and disappears with it on a
+ * rollback, so a reader can never pair a new version with the old rows. Bumping the row also locks it
+ * until the writer's transaction ends, so transactions writing the same table take turns. The log of
+ * changed keys lives in this JVM and covers every connection to the embedded database, whichever DAO made
+ * the change. The triggers and CHANGE_VERSION rows are declared in sqlScript.sql.
+ */
+public class ChangeCounter implements Trigger {
+
+    /** The most changed keys remembered per table; structures further behind must rebuild in full. */
+    private static final int MAX_LOGGED_CHANGES = 10_000;
+
+    /** The column whose value is logged for each changed row, for each table that has one. */
+    private static final Map<String, String> KEY_COLUMNS = Map.of(
+            "RECIPE_INGREDIENT", "RECIPE_ID");
+
+    /** Counts a change to a table and returns its new count, all in the writer's transaction. */
+    private static final String BUMP_VERSION = "SELECT version FROM FINAL TABLE "
+            + "(UPDATE CHANGE_VERSION SET version = version + 1 WHERE table_name = ?)";
+
+    /** Reads a table's committed count. */
+    private static final String SELECT_VERSION = "SELECT version FROM CHANGE_VERSION WHERE table_name = ?";
+
+    /** The change log of each table, by upper-case table name. */
+    private static final Map<String, Log> LOGS = new ConcurrentHashMap<>();
+
+    /** The upper-case name of the table this trigger instance was created for. */
+    private String table;
+
+    /** The log of the table this trigger instance was created for. */
+    private Log log;
+
+    /** The position of the key column in the rows passed to fire, or -1 if changes are only counted. */
+    private int keyIndex = -1;
+
+    /**
+     * Reads the version of a table. Read it before reading the table itself, and on a connection that has
+     * no uncommitted changes of its own to the table, so that whatever is built from the rows read
+     * afterwards is at least as new as the version.
+     *
+     * @param conn the connection to read the version with
+     * @param table the name of a table with a ChangeCounter trigger
+     * @return a number that grows whenever a change to the table is committed
+     * @throws SQLException if the table has no CHANGE_VERSION row or the row cannot be read
+     */
+    public static long version(Connection conn, String table) throws SQLException {
+        String name = table.toUpperCase(Locale.ROOT);
+        Log log = logOf(name);
+        try (PreparedStatement ps = conn.prepareStatement(SELECT_VERSION)) {
+            ps.setString(1, name);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("No CHANGE_VERSION row for " + name);
+                }
+                return log.version(rs.getLong(1));
+            }
+        }
+    }
+
+    /**
+     * Lists the keys of the rows changed since a version.
+     *
+     * @param table the name of a table with a ChangeCounter trigger on a key column
+     * @param version a version previously returned by {@link #version(Connection, String)}
+     * @return the keys changed after that version, or null if they are no longer all known and whatever
+     *         was built at that version has to be rebuilt in full
+     */
+    public static Set<Object> changesSince(String table, long version) {
+        return logOf(table.toUpperCase(Locale.ROOT)).changesSince(version);
+    }
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before,
+            int type) throws SQLException {
+        table = tableName.toUpperCase(Locale.ROOT);
+        log = logOf(table);
+        String keyColumn = KEY_COLUMNS.get(table);
+        if (keyColumn != null) {
+            try (ResultSet columns = conn.getMetaData().getColumns(null, schemaName, tableName, null)) {
+                while (columns.next()) {
+                    if (keyColumn.equalsIgnoreCase(columns.getString("COLUMN_NAME"))) {
+                        keyIndex = columns.getInt("ORDINAL_POSITION") - 1;
+                    }
+                }
+            }
+        }
+        // Recreating the table or its trigger starts it over, so anything built from the old one is stale
+        log.restart();
+    }
+
+    @Override
+    public void fire(Connection conn, Object[] oldRow, Object[] newRow) throws SQLException {
+        long count = bump(conn);
+        if (keyIndex < 0 || (oldRow == null && newRow == null)) {
+            log.truncate(count);
+            return;
+        }
+        if (oldRow != null) {
+            log.record(count, oldRow[keyIndex]);
+        }
+        if (newRow != null && (oldRow == null || !newRow[keyIndex].equals(oldRow[keyIndex]))) {
+            log.record(count, newRow[keyIndex]);
+        }
+    }
+
+    /** Counts a change in the writer's transaction, returning the table's new CHANGE_VERSION count. */
+    private long bump(Connection conn) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(BUMP_VERSION)) {
+            ps.setString(1, table);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) {
+                    throw new SQLException("No CHANGE_VERSION row for " + table);
+                }
+                return rs.getLong(1);
+            }
+        }
+    }
+
+    private static Log logOf(String table) {
+        return LOGS.computeIfAbsent(table, key -> new Log());
+    }
+
+    /**
+     * The keys changed in the most recent versions of one table.
+     *
+     * Versions are CHANGE_VERSION counts plus a base, which moves past every version seen so far whenever the
+     * table's trigger is created again. A recreated table's count starts over, and the base keeps the new
+     * versions from repeating old ones.
+     */
+    private static class Log {
+
+        /** Added to the CHANGE_VERSION count to make a version. */
+        private long base;
+
+        /** The highest version read or logged since the base last moved. */
+        private long highest;
+
+        /** Every change after this version is in the log. */
+        private long floor;
+
+        /**
+         * The most recent changes, oldest first, as version and key. The changes of a rolled back transaction
+         * stay in the log, which only costs an unneeded reload of their keys.
+         */
+        private final Deque<Object[]> changes = new ArrayDeque<>();
+
+        /** Turns a committed count into a version. */
+        private synchronized long version(long count) {
+            highest = Math.max(highest, base + count);
+            return base + count;
+        }
+
+        /** Moves the base past every version seen so far and forgets the logged changes. */
+        private synchronized void restart() {
+            base = highest + 1;
+            highest = base;
+            floor = base;
+            changes.clear();
+        }
+
+        /** Counts a change without logging it, so that everything built before it has to be rebuilt. */
+        private synchronized void truncate(long count) {
+            floor = Math.max(floor, version(count));
+            changes.clear();
+        }
+
+        private synchronized void record(long count, Object key) {
+            changes.addLast(new Object[] { version(count), key });
+            if (changes.size() > MAX_LOGGED_CHANGES) {
+                floor = Math.max(floor, (Long) changes.removeFirst()[0]);
+            }
+        }
+
+        private synchronized Set<Object> changesSince(long since) {
+            if (since < floor) {
+                return null;
+            }
+            Set<Object> keys = new HashSet<>();
+            for (Object[] change : changes) {
+                if ((Long) change[0] > since) {
+                    keys.add(change[1]);
+                }
+            }
+            return keys;
+        }
+    }
+}
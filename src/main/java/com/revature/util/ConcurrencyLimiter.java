@@ -0,0 +1,80 @@
+package com.revature.util;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import io.javalin.http.Context;
+import io.javalin.http.ServiceUnavailableResponse;
+
+/**
+ * The ConcurrencyLimiter class bounds how many requests run their handlers at once. With handlers on
+ * virtual threads there is no thread pool to do this, so without it every waiting request would queue
+ * inside the connection pool and fail with a SQL timeout; here they queue fairly for a permit instead,
+ * and those that wait too long are turned away with 503 Service Unavailable before touching the database.
+ *
+ * A permit is taken in a before handler and given back in an after handler, which Javalin runs even when
+ * the request fails. The limit therefore covers the whole request rather than only the time it holds a
+ * connection: with the limit set to the connection pool's size, as JavalinAppUtil does, virtual mode runs
+ * no more requests at once than there are connections, even while some of them are only serializing JSON.
+ * That leaves some of virtual threads' headroom unused, in exchange for never queueing inside the pool.
+ */
+public class ConcurrencyLimiter {
+
+    /** The request attribute marking that the request holds a permit. */
+    private static final String PERMIT = "limiter.permit";
+
+    /** One permit per request that may run at once; waiting requests queue on it fairly. */
+    private final Semaphore permits;
+
+    private final long timeoutMillis;
+
+    /**
+     * @param limit the number of requests that may run at once
+     * @param timeoutMillis how long a request waits for a permit before it is rejected
+     */
+    public ConcurrencyLimiter(int limit, long timeoutMillis) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("The limit must be at least 1");
+        }
+        this.permits = new Semaphore(limit, true);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Waits for a permit for the request.
+     *
+     * @param ctx the Javalin context of the request
+     * @throws ServiceUnavailableResponse if no permit became free within the timeout
+     * @throws InterruptedException if the request's thread was interrupted while waiting
+     */
+    public void acquire(Context ctx) throws InterruptedException {
+        if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+            MetricsRegistry.getDefault().increment("http_requests_rejected_total",
+                    "Requests turned away because too many were already running.");
+            throw new ServiceUnavailableResponse("Server busy, try again later");
+        }
+        ctx.attribute(PERMIT, Boolean.TRUE);
+    }
+
+    /**
+     * Gives back the request's permit, if it holds one.
+     *
+     * @param ctx the Javalin context of the finished request
+     */
+    public void release(Context ctx) {
+        if (ctx.attribute(PERMIT) != null) {
+            ctx.attribute(PERMIT, null);
+            permits.release();
+        }
+    }
+
+    /** @return the number of permits free right now */
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /** @return the number of requests waiting for a permit */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+}
@@ -0,0 +1,745 @@
+package com.revature.util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The ConnectionPool class keeps a bounded set of physical JDBC connections open and lends them out, so
+ * that callers do not pay for opening a new database connection on every request.
+ *
+ * At most maxSize connections are lent out at once; further callers wait up to the acquisition timeout
+ * and then fail. Idle connections beyond minSize are closed once they have been idle for longer than the
+ * idle timeout, every connection is validated before it is handed out, and connections held for longer
+ * than the leak threshold are reported. Capturing the stack trace of the code that borrowed a connection
+ * costs a Throwable per borrow, so it is only done once leak tracing is switched on with setLeakTrace.
+ *
+ * Borrowed connections are proxies: calling close() returns the physical connection to the pool after
+ * rolling back any open transaction and restoring auto-commit, and the proxy cannot be used afterwards.
+ *
+ * Each physical connection also keeps an LRU cache of its prepared statements keyed by SQL text, so the
+ * constant queries issued by the DAOs are parsed and planned once per connection rather than once per
+ * call. Closing a cached statement only clears its parameters and closes its result sets.
+ *
+ * When a {@link QueryMonitor} is set, every statement handed out is timed through it, and so is every
+ * borrow.
+ */
+public class ConnectionPool implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    /** How often idle connections are evicted, the minimum size is restored and leaks are looked for. */
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 1_000;
+
+    /** How long, in seconds, a validation check may take before the connection is considered broken. */
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    /** The leading SQL keywords of statements worth keeping in the statement cache. */
+    private static final Set<String> CACHEABLE_VERBS = Set.of("SELECT", "INSERT", "UPDATE", "DELETE", "MERGE", "WITH");
+
+    /** The number of prepared statements cached per connection when no size is given. */
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 64;
+
+    /** The source of new physical connections. */
+    private final DataSource dataSource;
+
+    private final int minSize;
+    private final int maxSize;
+    private final long acquireTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final int statementCacheSize;
+
+    /** One permit per connection that may be lent out; waiting borrowers queue on it fairly. */
+    private final Semaphore permits;
+
+    /** Connections that are open but not lent out, most recently returned first. */
+    private final Deque<PooledConnection> idle = new ConcurrentLinkedDeque<>();
+
+    /** Connections currently lent out. */
+    private final Set<PooledConnection> leased = ConcurrentHashMap.newKeySet();
+
+    /** The number of open physical connections, idle or lent out. */
+    private final AtomicInteger openConnections = new AtomicInteger();
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder evictedCount = new LongAdder();
+    private final LongAdder validationFailureCount = new LongAdder();
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private final LongAdder statementCacheEvictions = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    /** Runs the periodic eviction, refill and leak checks. */
+    private final ScheduledExecutorService housekeeper;
+
+    private volatile boolean closed;
+
+    /** Times borrows and statements, or null to leave them untimed. */
+    private volatile QueryMonitor queryMonitor;
+
+    /** Whether each borrow records where it was made, so that a reported leak can name its borrower. */
+    private volatile boolean leakTrace;
+
+    /**
+     * Constructs a ConnectionPool with the default statement cache size and opens its minimum number of
+     * connections.
+     *
+     * @param dataSource the source of new physical connections
+     * @param minSize the number of connections kept open even when idle
+     * @param maxSize the maximum number of connections lent out at once
+     * @param acquireTimeoutMillis how long a borrower waits for a free connection before failing
+     * @param idleTimeoutMillis how long a connection beyond minSize may stay idle before it is closed
+     * @param leakThresholdMillis how long a connection may be held before it is reported as a possible leak;
+     *        0 or less disables leak detection
+     */
+    public ConnectionPool(DataSource dataSource, int minSize, int maxSize, long acquireTimeoutMillis,
+            long idleTimeoutMillis, long leakThresholdMillis) {
+        this(dataSource, minSize, maxSize, acquireTimeoutMillis, idleTimeoutMillis, leakThresholdMillis,
+                DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a ConnectionPool and opens its minimum number of connections.
+     *
+     * @param dataSource the source of new physical connections
+     * @param minSize the number of connections kept open even when idle
+     * @param maxSize the maximum number of connections lent out at once
+     * @param acquireTimeoutMillis how long a borrower waits for a free connection before failing
+     * @param idleTimeoutMillis how long a connection beyond minSize may stay idle before it is closed
+     * @param leakThresholdMillis how long a connection may be held before it is reported as a possible leak;
+     *        0 or less disables leak detection
+     * @param statementCacheSize the number of prepared statements cached per connection; 0 disables caching
+     */
+    public ConnectionPool(DataSource dataSource, int minSize, int maxSize, long acquireTimeoutMillis,
+            long idleTimeoutMillis, long leakThresholdMillis, int statementCacheSize) {
+        if (maxSize < 1 || minSize < 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Pool sizes must satisfy 0 <= minSize <= maxSize and maxSize >= 1");
+        }
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.dataSource = dataSource;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.permits = new Semaphore(maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        fillToMinimum();
+        housekeeper.scheduleWithFixedDelay(this::housekeep, HOUSEKEEPING_PERIOD_MILLIS, HOUSEKEEPING_PERIOD_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the acquisition timeout for one to become free. The returned
+     * connection must be closed to give it back to the pool.
+     *
+     * @return a validated connection
+     * @throws SQLException if the pool is closed, no connection became free in time, or a new connection
+     *         could not be opened
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                timeoutCount.increment();
+                throw new SQLException("Timed out after " + acquireTimeoutMillis + " ms waiting for a database connection ("
+                        + maxSize + " in use)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pooled = takeValidIdleConnection();
+            if (pooled == null) {
+                pooled = openConnection();
+            }
+            pooled.borrowedAt = System.nanoTime();
+            pooled.borrowSite = leakTrace && leakThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+            pooled.leakReported = false;
+            leased.add(pooled);
+            borrowCount.increment();
+            QueryMonitor monitor = queryMonitor;
+            if (monitor != null) {
+                monitor.recordAcquire(System.nanoTime() - start);
+            }
+            return pooled.newLease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Closes every idle connection and stops housekeeping. Connections that are lent out are closed when
+     * they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            closePhysical(pooled);
+        }
+    }
+
+    /**
+     * Sets the monitor that times borrows and the statements of connections borrowed from now on.
+     *
+     * @param queryMonitor the monitor, or null to stop timing
+     */
+    public void setQueryMonitor(QueryMonitor queryMonitor) {
+        this.queryMonitor = queryMonitor;
+    }
+
+    /**
+     * Registers the pool's occupancy, wait time, timeout and statement cache figures with a registry, to be
+     * read whenever it is scraped.
+     *
+     * @param metrics the registry to report to
+     */
+    public void registerMetrics(MetricsRegistry metrics) {
+        metrics.gauge("db_pool_connections", "Open pooled connections, by state.", this::getActiveCount, "state", "active");
+        metrics.gauge("db_pool_connections", "Open pooled connections, by state.", this::getIdleCount, "state", "idle");
+        metrics.gauge("db_pool_max_connections", "The most connections the pool lends out at once.", this::getMaxSize);
+        metrics.gauge("db_pool_waiting", "Callers waiting for a free connection.", this::getWaitingCount);
+        metrics.counter("db_pool_wait_seconds_total", "Time borrowers have spent waiting for a free connection.",
+                () -> getTotalWaitNanos() / 1e9);
+        metrics.gauge("db_pool_max_wait_seconds", "The longest time a single borrower has waited for a connection.",
+                () -> getMaxWaitNanos() / 1e9);
+        metrics.counter("db_pool_timeouts_total", "Borrowers that gave up waiting for a free connection.",
+                this::getTimeoutCount);
+        metrics.counter("db_statement_cache_hits_total", "Statements answered from a connection's statement cache.",
+                this::getStatementCacheHits);
+        metrics.counter("db_statement_cache_misses_total", "Statements that had to be prepared anew.",
+                this::getStatementCacheMisses);
+    }
+
+    /**
+     * Switches recording where each connection is borrowed on or off. When on, a reported leak is logged
+     * with the stack trace of its borrower; leave it off outside of debugging, as it costs a stack trace
+     * per borrow.
+     *
+     * @param leakTrace true to record borrow sites
+     */
+    public void setLeakTrace(boolean leakTrace) {
+        this.leakTrace = leakTrace;
+    }
+
+    /** @return the number of connections currently lent out */
+    public int getActiveCount() {
+        return leased.size();
+    }
+
+    /** @return the number of open connections that are not lent out */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /** @return the number of open physical connections */
+    public int getOpenCount() {
+        return openConnections.get();
+    }
+
+    /** @return the number of callers currently waiting for a connection */
+    public int getWaitingCount() {
+        return permits.getQueueLength();
+    }
+
+    public int getMinSize() {
+        return minSize;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /** @return the number of connections lent out since the pool was created */
+    public long getBorrowCount() {
+        return borrowCount.sum();
+    }
+
+    /** @return the number of borrowers that gave up after the acquisition timeout */
+    public long getTimeoutCount() {
+        return timeoutCount.sum();
+    }
+
+    /** @return the number of connections reported as held for longer than the leak threshold */
+    public long getLeakCount() {
+        return leakCount.sum();
+    }
+
+    /** @return the number of physical connections opened since the pool was created */
+    public long getCreatedCount() {
+        return createdCount.sum();
+    }
+
+    /** @return the number of idle connections closed because they exceeded the idle timeout */
+    public long getEvictedCount() {
+        return evictedCount.sum();
+    }
+
+    /** @return the number of connections discarded because they failed validation */
+    public long getValidationFailureCount() {
+        return validationFailureCount.sum();
+    }
+
+    /** @return the number of prepareStatement calls answered from a connection's statement cache */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /** @return the number of prepareStatement calls that had to prepare a new statement */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    /** @return the number of cached statements closed to make room for more recently used ones */
+    public long getStatementCacheEvictions() {
+        return statementCacheEvictions.sum();
+    }
+
+    /** @return the total time, in nanoseconds, borrowers have spent waiting for a free connection */
+    public long getTotalWaitNanos() {
+        return totalWaitNanos.sum();
+    }
+
+    /** @return the longest time, in nanoseconds, a single borrower has waited for a free connection */
+    public long getMaxWaitNanos() {
+        return maxWaitNanos.get();
+    }
+
+    // below are helper methods
+
+    /**
+     * Pops idle connections until one passes validation.
+     *
+     * @return a valid idle connection, or null if there is none
+     */
+    private PooledConnection takeValidIdleConnection() {
+        PooledConnection pooled;
+        while ((pooled = idle.pollFirst()) != null) {
+            if (isValid(pooled)) {
+                return pooled;
+            }
+            validationFailureCount.increment();
+            closePhysical(pooled);
+        }
+        return null;
+    }
+
+    private boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection openConnection() throws SQLException {
+        Connection physical = dataSource.getConnection();
+        openConnections.incrementAndGet();
+        createdCount.increment();
+        return new PooledConnection(physical);
+    }
+
+    /**
+     * Returns a connection to the pool once its borrower has closed it, restoring its default state first.
+     * A connection whose state cannot be restored is closed instead of being reused.
+     */
+    private void release(PooledConnection pooled) {
+        leased.remove(pooled);
+        pooled.checkInStatements();
+        try {
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            pooled.physical.clearWarnings();
+            pooled.lastReturnedAt = System.nanoTime();
+            if (closed) {
+                closePhysical(pooled);
+            } else {
+                idle.offerFirst(pooled);
+            }
+        } catch (SQLException e) {
+            closePhysical(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void closePhysical(PooledConnection pooled) {
+        openConnections.decrementAndGet();
+        try {
+            pooled.physical.close();
+        } catch (SQLException e) {
+            logger.warn("Unable to close a pooled database connection", e);
+        }
+    }
+
+    private void recordWait(long waitNanos) {
+        totalWaitNanos.add(waitNanos);
+        maxWaitNanos.accumulateAndGet(waitNanos, Math::max);
+    }
+
+    /**
+     * Closes connections that have been idle for too long (oldest first, never going below minSize),
+     * reopens connections up to minSize, and reports connections held past the leak threshold.
+     */
+    private void housekeep() {
+        try {
+            long now = System.nanoTime();
+            long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+            Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+            while (oldestFirst.hasNext() && openConnections.get() > minSize) {
+                PooledConnection pooled = oldestFirst.next();
+                if (now - pooled.lastReturnedAt > idleTimeoutNanos && idle.remove(pooled)) {
+                    evictedCount.increment();
+                    closePhysical(pooled);
+                }
+            }
+            fillToMinimum();
+
+            long leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(leakThresholdMillis);
+            for (PooledConnection pooled : leased) {
+                if (leakThresholdMillis > 0 && !pooled.leakReported && now - pooled.borrowedAt > leakThresholdNanos) {
+                    pooled.leakReported = true;
+                    leakCount.increment();
+                    Throwable borrowSite = pooled.borrowSite;
+                    if (borrowSite != null) {
+                        logger.warn("Possible connection leak: a connection has been held for more than {} ms",
+                                leakThresholdMillis, borrowSite);
+                    } else {
+                        logger.warn("Possible connection leak: a connection has been held for more than {} ms; "
+                                + "switch on leak tracing to log where it was borrowed", leakThresholdMillis);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("Connection pool housekeeping failed", e);
+        }
+    }
+
+    private void fillToMinimum() {
+        while (!closed && openConnections.get() < minSize) {
+            try {
+                PooledConnection pooled = openConnection();
+                pooled.lastReturnedAt = System.nanoTime();
+                idle.offerLast(pooled);
+            } catch (SQLException e) {
+                logger.error("Unable to open a database connection for the pool", e);
+                return;
+            }
+        }
+    }
+
+    /**
+     * A physical connection owned by the pool, along with the bookkeeping needed for eviction and leak
+     * detection.
+     */
+    private class PooledConnection {
+        private final Connection physical;
+        private volatile long lastReturnedAt;
+        private volatile long borrowedAt;
+        private volatile Throwable borrowSite;
+        private volatile boolean leakReported;
+
+        /** This connection's prepared statements, keyed by SQL text, least recently used first. */
+        private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                if (size() <= statementCacheSize) {
+                    return false;
+                }
+                statementCacheEvictions.increment();
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Returns a cached statement for the given prepareStatement call, preparing and caching a new one on
+         * a miss. If the cached statement for this SQL is still open elsewhere on this connection, an
+         * uncached statement is returned instead so the two uses cannot interfere.
+         */
+        private PreparedStatement prepareCached(Connection lease, Method method, Object[] args) throws Throwable {
+            String key = args.length == 1 ? (String) args[0] : args[0] + "\u0000" + args[1];
+            synchronized (statements) {
+                CachedStatement cached = statements.get(key);
+                if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+                    statementCacheHits.increment();
+                    return cached.checkOut(lease);
+                }
+                statementCacheMisses.increment();
+                PreparedStatement statement = (PreparedStatement) invokePhysical(physical, method, args);
+                if (cached != null && cached.inUse) {
+                    return statement;
+                }
+                cached = new CachedStatement(statement);
+                statements.put(key, cached);
+                return cached.checkOut(lease);
+            }
+        }
+
+        /**
+         * Takes back every cached statement the borrower left open, so the next borrower starts clean.
+         */
+        private void checkInStatements() {
+            synchronized (statements) {
+                for (CachedStatement cached : statements.values()) {
+                    if (cached.inUse) {
+                        cached.checkIn();
+                    }
+                }
+            }
+        }
+
+        /**
+         * @return a new proxy through which one borrower uses this connection until it closes it
+         */
+        private Connection newLease() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Lease(this));
+        }
+    }
+
+    /**
+     * Invokes a method on a physical JDBC object, unwrapping the reflection exception.
+     */
+    private static Object invokePhysical(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * A prepared statement kept open in a connection's statement cache, and whether a borrower is using it.
+     */
+    private class CachedStatement {
+        private final PreparedStatement statement;
+        private final List<ResultSet> openResultSets = new ArrayList<>();
+        private boolean inUse;
+        private boolean evicted;
+        private StatementHandle handle;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+
+        private PreparedStatement checkOut(Connection lease) {
+            inUse = true;
+            handle = new StatementHandle(this, lease);
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class }, handle);
+        }
+
+        /**
+         * Ends the current borrower's use of the statement: closes its result sets and clears its parameters.
+         */
+        private void checkIn() {
+            if (handle != null) {
+                handle.closed = true;
+                handle = null;
+            }
+            inUse = false;
+            try {
+                for (ResultSet resultSet : openResultSets) {
+                    resultSet.close();
+                }
+                openResultSets.clear();
+                if (evicted) {
+                    statement.close();
+                } else {
+                    statement.clearParameters();
+                }
+            } catch (SQLException e) {
+                evicted = true;
+                closeQuietly();
+            }
+        }
+
+        /**
+         * Closes the statement once it has been dropped from the cache, or as soon as its borrower is done.
+         */
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                closeQuietly();
+            }
+        }
+
+        private void closeQuietly() {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                logger.warn("Unable to close a cached prepared statement", e);
+            }
+        }
+    }
+
+    /**
+     * Forwards a borrower's calls to a cached statement, turning close() into a check-in to the cache.
+     */
+    private static class StatementHandle implements InvocationHandler {
+        private final CachedStatement cached;
+        private final Connection lease;
+        private boolean closed;
+
+        private StatementHandle(CachedStatement cached, Connection lease) {
+            this.cached = cached;
+            this.lease = lease;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        cached.checkIn();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return lease;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "CachedStatement[" + cached.statement + "]";
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            Object result = invokePhysical(cached.statement, method, args);
+            if (result instanceof ResultSet) {
+                cached.openResultSets.add((ResultSet) result);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Forwards a borrower's calls to the physical connection, turning close() into a return to the pool.
+     */
+    private class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean returned;
+
+        private Lease(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            Object result;
+            if (statementCacheSize > 0 && method.getName().equals("prepareStatement") && isCacheable(args)) {
+                result = pooled.prepareCached((Connection) proxy, method, args);
+            } else {
+                result = invokePhysical(pooled.physical, method, args);
+            }
+            return result instanceof Statement statement ? monitored(statement, args) : result;
+        }
+
+        /**
+         * Wraps a statement the borrower just created in the query monitor, if there is one. Statements
+         * prepared with SQL the monitor ignores are returned as they are.
+         */
+        private Statement monitored(Statement statement, Object[] args) {
+            QueryMonitor monitor = queryMonitor;
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : null;
+            if (monitor == null || (sql != null && !QueryMonitor.isMonitored(sql))) {
+                return statement;
+            }
+            return monitor.instrument(statement, sql);
+        }
+
+        /**
+         * Only DML prepared with prepareStatement(sql) or prepareStatement(sql, autoGeneratedKeys) is
+         * cached. The other overloads change the statement's result set type or key columns and are rarely
+         * repeated, and DDL or multi-statement scripts such as the schema reset must be parsed afresh.
+         */
+        private boolean isCacheable(Object[] args) {
+            if (!(args.length == 1 || (args.length == 2 && args[1] instanceof Integer))) {
+                return false;
+            }
+            String sql = ((String) args[0]).stripLeading();
+            int end = sql.indexOf(' ');
+            String verb = (end < 0 ? sql : sql.substring(0, end)).toUpperCase();
+            return CACHEABLE_VERBS.contains(verb) && sql.indexOf(';') < 0;
+        }
+    }
+}
@@ -5,30 +5,52 @@ import java.sql.SQLException;
 import org.h2.jdbcx.JdbcDataSource;
 
 /**
-This class provides autility methods and configuration for managing database connections for an H2 database. It uses a JdbcDataSource connection pool to manage connections efficiently.
+This class provides autility methods and configuration for managing database connections for an H2 database. Connections are lent out by a shared, bounded ConnectionPool, so physical connections are reused across requests instead of being opened on every call.
 
-You do not need to edit this class.
+The database and pool can be tuned with the following system properties:
+ - db.url: the JDBC URL of the database (default jdbc:h2:./h2/db;)
+ - db.pool.minSize: connections kept open even when idle (default 2)
+ - db.pool.maxSize: connections lent out at once (default 10)
+ - db.pool.acquireTimeoutMillis: how long a caller waits for a free connection (default 5000)
+ - db.pool.idleTimeoutMillis: how long a surplus connection may stay idle (default 300000)
+ - db.pool.leakThresholdMillis: how long a connection may be held before it is reported, 0 to disable (default 30000)
+ - db.pool.leakTrace: whether to record where each connection is borrowed, so that a reported leak names its borrower (default false)
+ - db.pool.statementCacheSize: prepared statements cached per connection, 0 to disable (default 64)
+ - db.slowQueryMillis: how long a query may take before it is written to the slow-query log (default 100)
+
+Every borrow and query is timed by a QueryMonitor and reported on GET /metrics, along with the pool's occupancy, wait time, timeouts and statement cache hits.
 
  */
 public class ConnectionUtil {
 
     // fields
-	private static String url = "jdbc:h2:./h2/db;";
+	private static String url = System.getProperty("db.url", "jdbc:h2:./h2/db;");
 	private static String username = "sa";
 	private static String password = "";
-	private static JdbcDataSource pool = new JdbcDataSource();
+	private static JdbcDataSource dataSource = new JdbcDataSource();
+	private static ConnectionPool pool;
 
 	/**
-	 * static initialization block to establish credentials for DataSoure Pool
+	 * static initialization block to establish credentials for the DataSource and create the shared pool
 	 */
 	static {
-		pool.setURL(url);
-		pool.setUser(username);
-		pool.setPassword(password);
+		dataSource.setURL(url);
+		dataSource.setUser(username);
+		dataSource.setPassword(password);
+		pool = new ConnectionPool(dataSource,
+				Integer.getInteger("db.pool.minSize", 2),
+				Integer.getInteger("db.pool.maxSize", 10),
+				Long.getLong("db.pool.acquireTimeoutMillis", 5_000),
+				Long.getLong("db.pool.idleTimeoutMillis", 300_000),
+				Long.getLong("db.pool.leakThresholdMillis", 30_000),
+				Integer.getInteger("db.pool.statementCacheSize", ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE));
+		pool.setQueryMonitor(new QueryMonitor(MetricsRegistry.getDefault(), Long.getLong("db.slowQueryMillis", 100)));
+		pool.registerMetrics(MetricsRegistry.getDefault());
+		pool.setLeakTrace(Boolean.getBoolean("db.pool.leakTrace"));
 	}
 
 	/**
-	 * @return an active connection to the database
+	 * @return an active connection to the database, which must be closed to return it to the pool
 	 */
 	public Connection getConnection() {
 		try {
@@ -39,4 +61,11 @@ public class ConnectionUtil {
 
 		return null;
 	}
+
+	/**
+	 * @return the shared connection pool, for reporting its occupancy, wait-time and timeout counters
+	 */
+	public static ConnectionPool getPool() {
+		return pool;
+	}
 }
@@ -0,0 +1,332 @@
+package com.revature.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.SplittableRandom;
+
+/**
+ * The DataGenerator class bulk-loads synthetic chefs, ingredients, recipes and recipe ingredients on top of
+ * the seed data of sqlScript.sql, so that tests, benchmarks and local load runs can see production-like
+ * volumes. The same scale and seed always produce the same rows.
+ *
+ * Popularity is skewed the way real recipe data is: ingredients are picked with a Zipfian distribution, so
+ * a few staples appear in most recipes while most ingredients are rare, and recipes are assigned to chefs
+ * with a steeper one, so a handful of hot chefs own a large share of them. Each recipe uses 3 to 8
+ * distinct ingredients in a mix of US customary and metric units.
+ *
+ * Rows are inserted with batched prepared statements, committing every {@value #BATCH_SIZE} rows. Run
+ * {@link #main(String[])} to reset the database and load a scale from the command line, or start the
+ * application with -Ddata.scale=small|medium|large.
+ */
+public class DataGenerator {
+
+    /**
+     * The predefined data sizes.
+     */
+    public enum Scale {
+        /** Enough rows to exercise paging and search in tests. */
+        SMALL(100, 200, 1_000),
+        /** A mid-sized deployment. */
+        MEDIUM(5_000, 5_000, 100_000),
+        /** Production volume. */
+        LARGE(50_000, 20_000, 1_000_000);
+
+        private final int chefs;
+        private final int ingredients;
+        private final int recipes;
+
+        Scale(int chefs, int ingredients, int recipes) {
+            this.chefs = chefs;
+            this.ingredients = ingredients;
+            this.recipes = recipes;
+        }
+
+        /**
+         * @param name a scale name in any case, e.g. "small"
+         * @return the scale
+         * @throws IllegalArgumentException if there is no scale with that name
+         */
+        public static Scale parse(String name) {
+            return valueOf(name.strip().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    /** How many rows are inserted per JDBC batch and transaction. */
+    private static final int BATCH_SIZE = 1_000;
+
+    /** The Zipf exponent of ingredient popularity. */
+    private static final double INGREDIENT_SKEW = 1.0;
+
+    /** The Zipf exponent of recipes per chef; steeper than ingredients, for a few hot chefs. */
+    private static final double CHEF_SKEW = 1.2;
+
+    /** The fewest and most ingredients per recipe. */
+    private static final int MIN_RECIPE_INGREDIENTS = 3;
+    private static final int MAX_RECIPE_INGREDIENTS = 8;
+
+    /** The stems of ingredient names, most popular first. */
+    private static final String[] FOODS = { "salt", "onion", "garlic", "butter", "egg", "flour", "sugar",
+            "olive oil", "pepper", "milk", "tomato", "carrot", "potato", "lemon", "rice", "chicken", "parsley",
+            "cheese", "basil", "ginger", "beef", "celery", "thyme", "honey", "cream", "spinach", "bacon", "lime",
+            "cumin", "paprika", "mushroom", "pasta", "bean", "pork", "corn", "yogurt", "cinnamon", "apple",
+            "oregano", "shrimp" };
+
+    private static final String[] STYLES = { "classic", "spicy", "creamy", "roasted", "quick", "rustic", "smoky",
+            "fresh", "slow-cooked", "crispy", "grandma's", "summer", "winter", "herbed", "golden" };
+
+    private static final String[] DISHES = { "soup", "stew", "salad", "pie", "curry", "bake", "stir-fry", "risotto",
+            "casserole", "tacos", "pasta", "omelette", "skillet", "roast", "bowl" };
+
+    private static final String[] METHODS = { "Simmer", "Roast", "Saute", "Bake", "Grill", "Braise", "Toss",
+            "Steam" };
+
+    private static final String[] US_UNITS = { "cups", "tsp", "Tbs", "oz" };
+
+    private static final String[] METRIC_UNITS = { "g", "ml" };
+
+    // fields
+    private final int chefs;
+    private final int ingredients;
+    private final int recipes;
+    private final long seed;
+
+    /**
+     * @param scale one of the predefined data sizes
+     * @param seed the seed of the random choices
+     */
+    public DataGenerator(Scale scale, long seed) {
+        this(scale.chefs, scale.ingredients, scale.recipes, seed);
+    }
+
+    /**
+     * @param chefs the number of chefs to generate, at least 1
+     * @param ingredients the number of ingredients to generate, at least 8
+     * @param recipes the number of recipes to generate
+     * @param seed the seed of the random choices
+     */
+    public DataGenerator(int chefs, int ingredients, int recipes, long seed) {
+        if (chefs < 1 || ingredients < MAX_RECIPE_INGREDIENTS || recipes < 0) {
+            throw new IllegalArgumentException("Need at least 1 chef and " + MAX_RECIPE_INGREDIENTS + " ingredients");
+        }
+        this.chefs = chefs;
+        this.ingredients = ingredients;
+        this.recipes = recipes;
+        this.seed = seed;
+    }
+
+    /**
+     * Resets the database and loads a scale, e.g. `DataGenerator medium 42`.
+     *
+     * @param args the scale name (small by default) and the seed (42 by default)
+     */
+    public static void main(String[] args) throws SQLException {
+        Scale scale = args.length > 0 ? Scale.parse(args[0]) : Scale.SMALL;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        DBUtil.RUN_SQL();
+        try (Connection conn = new ConnectionUtil().getConnection()) {
+            new DataGenerator(scale, seed).load(conn);
+        }
+    }
+
+    /**
+     * Inserts the generated rows after the rows already in the database. The connection's auto-commit
+     * setting is restored afterwards.
+     *
+     * @param conn the connection to insert with
+     * @throws SQLException if an insert fails; batches committed before it stay committed
+     */
+    public void load(Connection conn) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed);
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            int firstChef = maxId(conn, "CHEF") + 1;
+            insertChefs(conn);
+            int firstIngredient = maxId(conn, "INGREDIENT") + 1;
+            insertIngredients(conn);
+            insertRecipes(conn, random, firstChef, firstIngredient);
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * @param n the number of a generated chef, from 1
+     * @return the chef's username
+     */
+    public static String username(int n) {
+        return "chef" + n;
+    }
+
+    /**
+     * @param n the number of a generated chef, from 1
+     * @return the chef's password
+     */
+    public static String password(int n) {
+        return "secret" + n;
+    }
+
+    /**
+     * @param n the popularity rank of a generated ingredient, from 1 for the most used
+     * @return the ingredient's name, e.g. "garlic 1"
+     */
+    public static String ingredientName(int n) {
+        return FOODS[(n - 1) % FOODS.length] + " " + ((n - 1) / FOODS.length + 1);
+    }
+
+    // getters
+    public int getChefs() {
+        return chefs;
+    }
+
+    public int getIngredients() {
+        return ingredients;
+    }
+
+    public int getRecipes() {
+        return recipes;
+    }
+
+    // helper methods
+
+    private static int maxId(Connection conn, String table) throws SQLException {
+        try (Statement statement = conn.createStatement();
+                ResultSet set = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+            set.next();
+            return set.getInt(1);
+        }
+    }
+
+    private void insertChefs(Connection conn) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement(
+                "INSERT INTO CHEF (username, email, password, is_admin) VALUES (?, ?, ?, FALSE)")) {
+            for (int n = 1; n <= chefs; n++) {
+                statement.setString(1, username(n));
+                statement.setString(2, username(n) + "@example.com");
+                statement.setString(3, password(n));
+                statement.addBatch();
+                if (n % BATCH_SIZE == 0) {
+                    flush(conn, statement);
+                }
+            }
+            flush(conn, statement);
+        }
+    }
+
+    private void insertIngredients(Connection conn) throws SQLException {
+        try (PreparedStatement statement = conn.prepareStatement("INSERT INTO INGREDIENT (name) VALUES (?)")) {
+            for (int n = 1; n <= ingredients; n++) {
+                statement.setString(1, ingredientName(n));
+                statement.addBatch();
+                if (n % BATCH_SIZE == 0) {
+                    flush(conn, statement);
+                }
+            }
+            flush(conn, statement);
+        }
+    }
+
+    private void insertRecipes(Connection conn, SplittableRandom random, int firstChef, int firstIngredient)
+            throws SQLException {
+        Zipf ingredientRanks = new Zipf(ingredients, INGREDIENT_SKEW);
+        Zipf chefRanks = new Zipf(chefs, CHEF_SKEW);
+        int firstRecipe = maxId(conn, "RECIPE") + 1;
+        int[] picked = new int[MAX_RECIPE_INGREDIENTS];
+        try (PreparedStatement recipe = conn.prepareStatement(
+                "INSERT INTO RECIPE (name, instructions, chef_id) VALUES (?, ?, ?)");
+                PreparedStatement link = conn.prepareStatement(
+                        "INSERT INTO RECIPE_INGREDIENT (recipe_id, ingredient_id, vol, unit, is_metric) VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < recipes; i++) {
+                int count = random.nextInt(MIN_RECIPE_INGREDIENTS, MAX_RECIPE_INGREDIENTS + 1);
+                for (int k = 0; k < count; k++) {
+                    picked[k] = distinctRank(ingredientRanks, random, picked, k);
+                }
+                String main = ingredientName(picked[0]);
+                recipe.setString(1, pick(STYLES, random) + " " + main + " " + pick(DISHES, random) + " " + (i + 1));
+                recipe.setString(2, pick(METHODS, random) + " the " + main + " with the " + ingredientName(picked[1])
+                        + " and " + ingredientName(picked[2]) + ". Season and serve.");
+                recipe.setInt(3, firstChef + chefRanks.sample(random) - 1);
+                recipe.addBatch();
+                for (int k = 0; k < count; k++) {
+                    boolean metric = random.nextInt(4) == 0;
+                    link.setInt(1, firstRecipe + i);
+                    link.setInt(2, firstIngredient + picked[k] - 1);
+                    link.setDouble(3, metric ? 25 * random.nextInt(1, 21) : 0.25 * random.nextInt(1, 17));
+                    link.setString(4, pick(metric ? METRIC_UNITS : US_UNITS, random));
+                    link.setBoolean(5, metric);
+                    link.addBatch();
+                }
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    recipe.executeBatch();
+                    flush(conn, link);
+                }
+            }
+            recipe.executeBatch();
+            flush(conn, link);
+        }
+    }
+
+    /** Samples a rank that is not among the first count ranks already picked. */
+    private static int distinctRank(Zipf ranks, SplittableRandom random, int[] picked, int count) {
+        while (true) {
+            int rank = ranks.sample(random);
+            boolean repeated = false;
+            for (int k = 0; k < count && !repeated; k++) {
+                repeated = picked[k] == rank;
+            }
+            if (!repeated) {
+                return rank;
+            }
+        }
+    }
+
+    private static String pick(String[] words, SplittableRandom random) {
+        return words[random.nextInt(words.length)];
+    }
+
+    private static void flush(Connection conn, PreparedStatement statement) throws SQLException {
+        statement.executeBatch();
+        conn.commit();
+    }
+
+    /**
+     * A Zipfian distribution over the ranks 1 to n, where rank k is drawn with a probability proportional to
+     * 1 / k^exponent. Sampling is a binary search of the precomputed cumulative distribution.
+     */
+    private static class Zipf {
+
+        /** The probability of drawing each rank or a smaller one, by rank - 1. */
+        private final double[] cumulative;
+
+        private Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            double total = 0;
+            for (int k = 1; k <= n; k++) {
+                total += 1 / Math.pow(k, exponent);
+                cumulative[k - 1] = total;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= total;
+            }
+        }
+
+        private int sample(SplittableRandom random) {
+            double u = random.nextDouble();
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] < u) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low + 1;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.revature.util;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * The EditDistance class measures how many single-character insertions, deletions and substitutions
+ * separate two strings (their Levenshtein distance), for typo-tolerant searches.
+ *
+ * Searches only care whether a distance is within a small bound, so {@link #bounded(String, String, int)}
+ * fills in just the diagonal band of the dynamic-programming table that such a distance can pass
+ * through, and stops as soon as the whole band exceeds the bound.
+ */
+public final class EditDistance {
+
+    private EditDistance() {
+    }
+
+    /**
+     * Computes the edit distance between two strings, if it is within a bound.
+     *
+     * @param a the first string
+     * @param b the second string
+     * @param max the largest distance of interest
+     * @return the distance, or max + 1 if it is greater than max
+     */
+    public static int bounded(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(b.length(), i + max);
+            current[0] = i;
+            if (from > 1) {
+                current[from - 1] = max + 1;
+            }
+            int rowMin = i <= max ? i : max + 1;
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int above = j < i + max ? previous[j] : max + 1;
+                int distance = Math.min(Math.min(above + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                current[j] = Math.min(distance, max + 1);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+
+    /**
+     * Computes the smallest case-insensitive edit distance between a query and either a whole name or any
+     * run of consecutive words in the name with as many words as the query, if it is within a bound. This
+     * lets "lasagana" match "Vegetable Lasagna" as closely as it matches "Lasagna".
+     *
+     * @param query the search query
+     * @param name the name to compare it with
+     * @param max the largest distance of interest
+     * @return the distance, or max + 1 if it is greater than max
+     */
+    public static int toWords(String query, String name, int max) {
+        String q = query.strip().toLowerCase(Locale.ROOT);
+        String n = name.strip().toLowerCase(Locale.ROOT);
+        int best = bounded(q, n, max);
+        String[] words = n.split("\\s+");
+        int span = q.split("\\s+").length;
+        for (int start = 0; best > 0 && span < words.length && start + span <= words.length; start++) {
+            String window = String.join(" ", Arrays.copyOfRange(words, start, start + span));
+            best = Math.min(best, bounded(q, window, Math.min(max, best - 1)));
+        }
+        return best;
+    }
+}
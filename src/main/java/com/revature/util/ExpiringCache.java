@@ -0,0 +1,197 @@
+package com.revature.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The ExpiringCache class is a small, thread-safe, in-process cache bounded both by size and by time.
+ * Once the cache is full the least recently used entry is evicted, and every entry expires after a fixed
+ * time-to-live regardless of how often it is read.
+ *
+ * The cache keeps hit, miss and eviction counters so that callers can report how effective it is.
+ * Null values are never cached, so a lookup for a missing row is always retried against the loader.
+ * Every lookup is also emitted as a {@link FlightEvents.CacheAccess} event under the cache's name.
+ *
+ * @param <K> the type of keys maintained by this cache
+ * @param <V> the type of cached values
+ */
+public class ExpiringCache<K, V> {
+
+    /** The name the cache's lookups are reported under. */
+    private final String name;
+
+    /** The maximum number of entries kept before the least recently used one is evicted. */
+    private final int maxSize;
+
+    /** How long, in nanoseconds, an entry stays valid after it was stored. */
+    private final long ttlNanos;
+
+    /** The cached entries, kept in access order so that the eldest entry is the least recently used. */
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    /** The number of lookups answered from the cache. */
+    private final AtomicLong hits = new AtomicLong();
+
+    /** The number of lookups that found no valid entry. */
+    private final AtomicLong misses = new AtomicLong();
+
+    /** The number of entries removed because the cache was full or the entry had expired. */
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Constructs an unnamed ExpiringCache with the given bounds.
+     *
+     * @param maxSize the maximum number of entries to keep
+     * @param ttlMillis how long, in milliseconds, an entry stays valid
+     */
+    public ExpiringCache(int maxSize, long ttlMillis) {
+        this("cache", maxSize, ttlMillis);
+    }
+
+    /**
+     * Constructs an ExpiringCache with the given name and bounds.
+     *
+     * @param name the name the cache's lookups are reported under
+     * @param maxSize the maximum number of entries to keep
+     * @param ttlMillis how long, in milliseconds, an entry stays valid
+     */
+    public ExpiringCache(String name, int maxSize, long ttlMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > ExpiringCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for a key, or null if there is no valid entry.
+     *
+     * @param key the key to look up
+     * @return the cached value, or null if absent or expired
+     */
+    public V get(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.incrementAndGet();
+                FlightEvents.cacheAccess(name, true);
+                return entry.value;
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        FlightEvents.cacheAccess(name, false);
+        return null;
+    }
+
+    /**
+     * Returns the cached value for a key, loading and caching it on a miss. The loader runs outside of the
+     * cache's lock, so slow loads never block readers of other keys.
+     *
+     * @param key the key to look up
+     * @param loader supplies the value when there is no valid entry; may return null
+     * @return the cached or freshly loaded value, or null if the loader returned null
+     */
+    public V getOrLoad(K key, Supplier<V> loader) {
+        V value = get(key);
+        if (value == null) {
+            value = loader.get();
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Stores a value in the cache. Null values are ignored.
+     *
+     * @param key the key to store the value under
+     * @param value the value to cache
+     */
+    public void put(K key, V value) {
+        if (value == null) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Removes a single entry from the cache.
+     *
+     * @param key the key of the entry to remove
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Removes every entry from the cache. The hit and miss counters are kept.
+     */
+    public void invalidateAll() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return the number of entries currently held, including ones that have expired but not yet been evicted
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    /**
+     * @return the fraction of lookups answered from the cache, or 0 if there have been no lookups
+     */
+    public double getHitRatio() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    /**
+     * A cached value together with the time at which it stops being valid.
+     */
+    private static class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.revature.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The FlightEvents class declares the application's JDK Flight Recorder events, so that a continuous
+ * recording (e.g. -XX:StartFlightRecording) shows requests, queries, session lookups and cache accesses on
+ * the same timeline as GC pauses, lock contention and allocation.
+ *
+ * Events are only built and committed while a recording has them enabled, so they cost next to nothing
+ * otherwise. They are named com.revature.*, for example `jfr print --events com.revature.HttpRequest`.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    /**
+     * Records a cache lookup as an instant event.
+     *
+     * @param cache the name of the cache
+     * @param hit whether the lookup found a valid entry
+     */
+    public static void cacheAccess(String cache, boolean hit) {
+        CacheAccess event = new CacheAccess();
+        if (event.shouldCommit()) {
+            event.cache = cache;
+            event.hit = hit;
+            event.commit();
+        }
+    }
+
+    /**
+     * An HTTP request, from its first before handler to its last after handler.
+     */
+    @Name("com.revature.HttpRequest")
+    @Label("HTTP Request")
+    @Category({ "Reva Recipe", "HTTP" })
+    @StackTrace(false)
+    public static class HttpRequest extends Event {
+        @Label("Method")
+        public String method;
+
+        @Label("Route")
+        @Description("The route template the request matched, e.g. /recipes/{id}")
+        public String route;
+
+        @Label("Path")
+        public String path;
+
+        @Label("Status")
+        public int status;
+    }
+
+    /**
+     * A SQL statement execution, from executing it until it is finished with.
+     */
+    @Name("com.revature.Query")
+    @Label("DAO Query")
+    @Category({ "Reva Recipe", "Database" })
+    public static class Query extends Event {
+        @Label("SQL")
+        @Description("The whitespace-normalized SQL text, as used for the query's metrics label")
+        public String sql;
+
+        @Label("Rows")
+        @Description("Rows fetched, or rows updated for DML")
+        public long rows;
+
+        @Label("Execute Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long executeTime;
+
+        @Label("Fetch Time")
+        @Timespan(Timespan.NANOSECONDS)
+        public long fetchTime;
+    }
+
+    /**
+     * A lookup of the chef behind a session token.
+     */
+    @Name("com.revature.SessionLookup")
+    @Label("Session Lookup")
+    @Category({ "Reva Recipe", "Authentication" })
+    @StackTrace(false)
+    public static class SessionLookup extends Event {
+        @Label("Found")
+        @Description("Whether the token belonged to a live session")
+        public boolean found;
+    }
+
+    /**
+     * A lookup in one of the in-process caches.
+     */
+    @Name("com.revature.CacheAccess")
+    @Label("Cache Access")
+    @Category({ "Reva Recipe", "Cache" })
+    @StackTrace(false)
+    public static class CacheAccess extends Event {
+        @Label("Cache")
+        public String cache;
+
+        @Label("Hit")
+        public boolean hit;
+    }
+}
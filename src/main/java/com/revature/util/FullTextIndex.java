@@ -0,0 +1,168 @@
+package com.revature.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.h2.tools.TriggerAdapter;
+
+/**
+ * The FullTextIndex class maintains and queries the inverted indexes behind full-text searches, and
+ * ranks their matches with Okapi BM25.
+ *
+ * Each indexed table has two auxiliary tables named after it: a _TERM table holding one (term, row_id,
+ * frequency) row for every distinct word of a row's indexed columns, and a _DOCUMENT table holding the
+ * number of words in each row. Together they hold every statistic BM25 needs, so a search reads only
+ * the index entries of its own terms through the _TERM table's primary key and ranks the matching rows
+ * in a single query, see {@link #rankedIds(String)}.
+ *
+ * This class is also the H2 trigger that keeps the auxiliary tables in step with every insert, update
+ * and delete on the indexed tables; the triggers are declared in sqlScript.sql.
+ */
+public class FullTextIndex extends TriggerAdapter {
+
+    /** Terms are truncated to the width of the term column. */
+    private static final int MAX_TERM_LENGTH = 64;
+
+    /** BM25 term frequency saturation: how quickly repeating a term stops raising a row's score. */
+    private static final double K1 = 1.2;
+
+    /** BM25 length normalization: how much a long row's score is scaled down, from 0 (none) to 1 (full). */
+    private static final double B = 0.75;
+
+    /** The columns indexed in each table that has a full-text index. */
+    private static final Map<String, List<String>> INDEXED_COLUMNS = Map.of(
+            "RECIPE", List.of("NAME", "INSTRUCTIONS"));
+
+    /** The columns of the table this trigger instance was created for. */
+    private List<String> columns;
+
+    /** The _TERM table of the table this trigger instance was created for. */
+    private String termTable;
+
+    /** The _DOCUMENT table of the table this trigger instance was created for. */
+    private String documentTable;
+
+    /**
+     * Builds the subquery that selects the ids of rows containing any term of a query, together with their
+     * BM25 score as score. It takes one parameter, bound by {@link #matchingParams(String)}: the query's
+     * distinct terms as an array.
+     *
+     * @param table the indexed table, e.g. RECIPE
+     * @return a subquery selecting row_id and score for every matching row
+     */
+    public static String rankedIds(String table) {
+        return "SELECT t.row_id, SUM(LN(1 + (s.n - f.df + 0.5) / (f.df + 0.5)) * t.frequency * " + (K1 + 1)
+                + " / (t.frequency + " + K1 + " * (" + (1 - B) + " + " + B + " * d.term_count / s.avgdl))) AS score"
+                + " FROM " + table + "_TERM t"
+                + " JOIN (SELECT term, COUNT(*) AS df FROM " + table + "_TERM WHERE term = ANY(?) GROUP BY term) f"
+                + " ON f.term = t.term"
+                + " JOIN " + table + "_DOCUMENT d ON d.row_id = t.row_id"
+                + " CROSS JOIN (SELECT CAST(COUNT(*) AS DOUBLE PRECISION) AS n,"
+                + " AVG(CAST(term_count AS DOUBLE PRECISION)) AS avgdl FROM " + table + "_DOCUMENT) s"
+                + " GROUP BY t.row_id";
+    }
+
+    /**
+     * Builds the query that counts the rows containing any term of a query. It takes the same parameter
+     * as {@link #rankedIds(String)}.
+     *
+     * @param table the indexed table, e.g. RECIPE
+     * @return a COUNT query
+     */
+    public static String countMatches(String table) {
+        return "SELECT COUNT(DISTINCT row_id) FROM " + table + "_TERM WHERE term = ANY(?)";
+    }
+
+    /**
+     * @param query the search query
+     * @return the parameters of {@link #rankedIds(String)} and {@link #countMatches(String)} for the query
+     */
+    public static Object[] matchingParams(String query) {
+        return new Object[] { new LinkedHashSet<>(terms(query)).toArray(String[]::new) };
+    }
+
+    /**
+     * Splits text into the terms it is indexed and searched by: runs of letters and digits, lower-cased
+     * and truncated to the width of the term column.
+     *
+     * @param text the text to split, or null
+     * @return the terms of the text in order, including repeats
+     */
+    public static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                terms.add(word.length() > MAX_TERM_LENGTH ? word.substring(0, MAX_TERM_LENGTH) : word);
+            }
+        }
+        return terms;
+    }
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before,
+            int type) throws SQLException {
+        super.init(conn, schemaName, triggerName, tableName, before, type);
+        columns = INDEXED_COLUMNS.get(tableName.toUpperCase(Locale.ROOT));
+        if (columns == null) {
+            throw new SQLException("No full-text indexed columns are defined for table " + tableName);
+        }
+        termTable = tableName + "_TERM";
+        documentTable = tableName + "_DOCUMENT";
+    }
+
+    /**
+     * Replaces the index entries of a changed row with those of its new values.
+     */
+    @Override
+    public void fire(Connection conn, ResultSet oldRow, ResultSet newRow) throws SQLException {
+        if (oldRow != null) {
+            int id = oldRow.getInt("ID");
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM " + termTable + " WHERE row_id = ?")) {
+                ps.setInt(1, id);
+                ps.executeUpdate();
+            }
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM " + documentTable + " WHERE row_id = ?")) {
+                ps.setInt(1, id);
+                ps.executeUpdate();
+            }
+        }
+        if (newRow != null) {
+            int id = newRow.getInt("ID");
+            List<String> terms = new ArrayList<>();
+            for (String column : columns) {
+                terms.addAll(terms(newRow.getString(column)));
+            }
+            Map<String, Integer> frequencies = new LinkedHashMap<>();
+            for (String term : terms) {
+                frequencies.merge(term, 1, Integer::sum);
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO " + termTable + " (term, row_id, frequency) VALUES (?, ?, ?)")) {
+                for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                    ps.setString(1, entry.getKey());
+                    ps.setInt(2, id);
+                    ps.setInt(3, entry.getValue());
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO " + documentTable + " (row_id, term_count) VALUES (?, ?)")) {
+                ps.setInt(1, id);
+                ps.setInt(2, terms.size());
+                ps.executeUpdate();
+            }
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.revature.util;
 import com.revature.controller.RecipeController;
 
+import java.util.Locale;
+
 import io.javalin.Javalin;
+import io.javalin.http.Context;
+import io.javalin.util.ConcurrencyUtil;
 
 import com.revature.controller.AuthenticationController;
 import com.revature.controller.IngredientController;
+import com.revature.service.AuthenticationService;
 
 
 /**
@@ -15,6 +20,16 @@ import com.revature.controller.IngredientController;
  * to create and configure the Javalin app instance, including defining 
  * the routes for each controller and applying any necessary middleware, 
  * such as admin middleware.
+ *
+ * Every request is counted and timed per route template, method and status
+ * code, and the results are served in Prometheus text format on GET /metrics.
+ * Each request is also emitted as a FlightEvents.HttpRequest JFR event.
+ *
+ * Handlers run on Jetty's pool of platform threads by default, or on a virtual
+ * thread each with -Dserver.threads=virtual. Every handler blocks on JDBC, so in
+ * virtual mode a ConcurrencyLimiter lets only as many requests run at once as the
+ * connection pool has connections; requests that wait longer than
+ * server.permitTimeoutMillis (default 5000) are rejected with 503.
  */
 
 public class JavalinAppUtil {
@@ -37,6 +52,45 @@ public class JavalinAppUtil {
 
     private IngredientController ingredientController;
 
+    /**
+     * The request attribute holding the System.nanoTime() at which the request started.
+     */
+
+    private static final String REQUEST_START = "metrics.requestStart";
+
+    /**
+     * The request attribute holding the request's FlightEvents.HttpRequest event.
+     */
+
+    private static final String REQUEST_EVENT = "metrics.requestEvent";
+
+    /**
+     * Held while an app's Jetty server is built under a temporarily changed Javalin Loom flag, so that
+     * apps created at the same time on other threads cannot change it in between.
+     */
+
+    private static final Object LOOM_FLAG_LOCK = new Object();
+
+    /**
+     * The kinds of thread request handlers can run on.
+     */
+
+    public enum ThreadMode {
+        /** A bounded pool of platform threads, which also bounds how many requests run at once. */
+        PLATFORM,
+        /** A new virtual thread per request, with a ConcurrencyLimiter in front of the database. */
+        VIRTUAL;
+
+        /**
+         * @param text a thread mode's name, in any case
+         * @return the thread mode it names
+         * @throws IllegalArgumentException if it names none
+         */
+        public static ThreadMode parse(String text) {
+            return valueOf(text.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
     /**
      * Constructs a JavalinAppUtil with the specified controllers.
      *
@@ -54,22 +108,82 @@ public class JavalinAppUtil {
     /**
      * Creates a Javalin instance, configures the routes for all controllers, 
      * and applies any necessary middleware, including admin middleware.
+     * Handlers run on the threads chosen by the server.threads system property.
      *
      * @return the configured Javalin instance
      */
 	
     public Javalin getApp() {
-        Javalin app = Javalin.create(config -> {
-            config.plugins.enableCors(cors -> cors.add(it -> it.anyHost()));
+        return getApp(ThreadMode.parse(System.getProperty("server.threads", "platform")));
+    }
+
+    /**
+     * Creates a Javalin instance whose handlers run on the given kind of thread, 
+     * configures the routes for all controllers, and applies any necessary middleware.
+     *
+     * Javalin chooses between platform and virtual threads with a single JVM-wide flag,
+     * ConcurrencyUtil.INSTANCE.useLoom, read when an app's Jetty server is first built. This method
+     * builds the server straight away with the flag set for the given mode and then puts the flag back,
+     * so each app keeps its own kind of request thread and other Javalin apps in the JVM are unaffected.
+     *
+     * @param threadMode the kind of thread to run request handlers on
+     * @return the configured Javalin instance
+     * @throws IllegalStateException if virtual threads are asked for but this JVM does not support them
+     */
+
+    public Javalin getApp(ThreadMode threadMode) {
+        if (threadMode == ThreadMode.VIRTUAL && !ConcurrencyUtil.isLoomAvailable()) {
+            throw new IllegalStateException("Virtual threads are not available on this JVM");
+        }
+        Javalin app;
+        synchronized (LOOM_FLAG_LOCK) {
+            boolean useLoom = ConcurrencyUtil.INSTANCE.getUseLoom();
+            ConcurrencyUtil.INSTANCE.setUseLoom(threadMode == ThreadMode.VIRTUAL);
+            try {
+                app = Javalin.create(config -> {
+                    config.plugins.enableCors(cors -> cors.add(it -> it.anyHost()));
+                });
+                // Javalin builds the server, and its thread pool, lazily; build it while the flag is set. Javalin
+                // only falls back to port 8080 for start() when it built the server itself, so keep that default
+                app.jettyServer().server();
+                app.jettyServer().setServerPort(8080);
+            } finally {
+                ConcurrencyUtil.INSTANCE.setUseLoom(useLoom);
+            }
+        }
+
+        // Start the clock before any other handler runs
+        app.before(ctx -> {
+            ctx.attribute(REQUEST_START, System.nanoTime());
+            FlightEvents.HttpRequest event = new FlightEvents.HttpRequest();
+            event.begin();
+            ctx.attribute(REQUEST_EVENT, event);
         });
+        if (threadMode == ThreadMode.VIRTUAL) {
+            // Caps whole requests, not just their database work: a permit is held from before the handler
+            // until after it, so request parsing, JSON and response writing also count against the pool's
+            // max size, and requests that never touch the database still queue behind those that do
+            ConcurrencyLimiter limiter = new ConcurrencyLimiter(ConnectionUtil.getPool().getMaxSize(),
+                    Long.getLong("server.permitTimeoutMillis", 5_000));
+            app.before(ctx -> {
+                if (!ctx.path().equals("/metrics")) {
+                    limiter.acquire(ctx);
+                }
+            });
+            app.after(limiter::release);
+        }
+        app.after(JavalinAppUtil::recordRequest);
+        app.get("/metrics", ctx -> ctx.contentType("text/plain; version=0.0.4; charset=utf-8")
+                .result(MetricsRegistry.getDefault().scrape()));
 
         // Configure routes for each controller
         recipeController.configureRoutes(app);
         authenticationController.configureRoutes(app);
         ingredientController.configureRoutes(app);
 
-        app.before("/recipes/*", new AdminMiddleware("DELETE"));
-        app.before("/ingredients/*", new AdminMiddleware("UPDATE", "CREATE", "DELETE"));
+        AuthenticationService authService = authenticationController.getAuthService();
+        app.before("/recipes/*", new AdminMiddleware(authService, "DELETE"));
+        app.before("/ingredients/*", new AdminMiddleware(authService, "UPDATE", "CREATE", "DELETE"));
 
         app.exception(Exception.class, (e,ctx)->{
             ctx.status(500);
@@ -79,6 +193,41 @@ public class JavalinAppUtil {
 
         return app;
     }
+
+    /**
+     * Counts a finished request and records its latency, labelled by the route template it matched
+     * (e.g. /recipes/{id}) so that the number of distinct labels stays bounded, and commits its JFR event.
+     *
+     * @param ctx the Javalin context of the finished request
+     */
+    private static void recordRequest(Context ctx) {
+        Long start = ctx.attribute(REQUEST_START);
+        if (start == null) {
+            return;
+        }
+        String route = ctx.endpointHandlerPath();
+        // Javalin describes a request that matched no endpoint with a sentence rather than a path
+        if (route == null || !route.startsWith("/")) {
+            route = "unmatched";
+        }
+        String method = ctx.method().name();
+        String status = String.valueOf(ctx.statusCode());
+        MetricsRegistry metrics = MetricsRegistry.getDefault();
+        metrics.increment("http_requests_total", "HTTP requests handled, by route, method and status.",
+                "route", route, "method", method, "status", status);
+        metrics.record("http_request_duration_seconds", "HTTP request latency, by route and method.",
+                (System.nanoTime() - start) / 1_000, "route", route, "method", method);
+
+        FlightEvents.HttpRequest event = ctx.attribute(REQUEST_EVENT);
+        if (event != null && event.shouldCommit()) {
+            event.method = method;
+            event.route = route;
+            event.path = ctx.path();
+            event.status = ctx.statusCode();
+            event.commit();
+        }
+    }
+
     static class ErrorResponse{
         public String error;
         public String message;
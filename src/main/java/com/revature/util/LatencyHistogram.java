@@ -0,0 +1,99 @@
+package com.revature.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class records durations in microseconds into log-linear buckets, in the manner of
+ * HdrHistogram: every power of two is split into {@value #SUB_BUCKETS} equal buckets, so any recorded value
+ * is known to within about 3% whether it is 40µs or 40s, in a fixed amount of memory.
+ *
+ * Recording is lock-free and takes a few nanoseconds, so a histogram can sit on every request. Percentiles
+ * are read from a snapshot of the bucket counts and report the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+
+    /** log2 of the number of buckets per power of two. */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /** The number of buckets per power of two. */
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /** The largest tracked value, about 19 hours in microseconds; larger values count as this. */
+    private static final long MAX_VALUE = (1L << 36) - 1;
+
+    /** The bucket counts; see bucketOf. */
+    private final AtomicLongArray counts = new AtomicLongArray(bucketOf(MAX_VALUE) + 1);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder sum = new LongAdder();
+
+    /**
+     * @param micros a duration in microseconds; negative values count as 0
+     */
+    public void record(long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_VALUE);
+        counts.incrementAndGet(bucketOf(value));
+        count.increment();
+        sum.add(value);
+    }
+
+    /** @return the number of recorded values */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /** @return the sum of the recorded values, in microseconds */
+    public long getSum() {
+        return sum.sum();
+    }
+
+    /**
+     * @param quantiles the quantiles to read, each from 0 to 1, in ascending order
+     * @return the value at each quantile, in microseconds; 0 for all of them if nothing was recorded
+     */
+    public long[] valuesAt(double... quantiles) {
+        long[] snapshot = new long[counts.length()];
+        long total = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        long[] values = new long[quantiles.length];
+        if (total == 0) {
+            return values;
+        }
+        long seen = 0;
+        int bucket = -1;
+        for (int q = 0; q < quantiles.length; q++) {
+            long rank = Math.max(1, (long) Math.ceil(quantiles[q] * total));
+            while (seen < rank && bucket < snapshot.length - 1) {
+                seen += snapshot[++bucket];
+            }
+            values[q] = upperBoundOf(bucket);
+        }
+        return values;
+    }
+
+    /**
+     * Values below SUB_BUCKETS have a bucket each. Above that, a value whose highest set bit is bit b lands
+     * in bucket (b - SUB_BUCKET_BITS + 1) * SUB_BUCKETS plus the SUB_BUCKET_BITS bits below bit b.
+     */
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+    }
+
+    private static long upperBoundOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+}
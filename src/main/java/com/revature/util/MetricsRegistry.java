@@ -0,0 +1,222 @@
+package com.revature.util;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * The MetricsRegistry class holds the application's counters and latency histograms and renders them in the
+ * Prometheus text exposition format for `GET /metrics`.
+ *
+ * Metrics are created on first use and identified by a name plus label pairs, e.g.
+ * `increment("http_requests_total", "HTTP requests handled.", "route", "/recipes", "status", "200")`.
+ * Histograms are exported as summaries: the 50th, 90th, 99th and 99.9th percentile, with the sum and count
+ * of the recorded values. Values kept elsewhere, such as the pool's occupancy, are registered once as gauges
+ * (or counters, if they only grow) and read when the registry is scraped. Durations are exported in seconds, other values such as row counts as recorded. Label values should come from a bounded set, such as route
+ * templates rather than raw paths, since every distinct combination is kept for the life of the process.
+ */
+public class MetricsRegistry {
+
+    /** The registry the application reports to. */
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    /** The percentiles exported for every histogram. */
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    /** The metric families by name, sorted so that the output is stable. */
+    private final Map<String, Family<?>> families = new ConcurrentSkipListMap<>();
+
+    /**
+     * @return the registry the application reports to
+     */
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * Adds one to a counter.
+     *
+     * @param name the counter's name, conventionally ending in _total
+     * @param help a description of the counter, used when it is first created
+     * @param labels label names and values, alternating
+     */
+    public void increment(String name, String help, String... labels) {
+        this.<LongAdder>family(name, help, "counter", false).get(labels, LongAdder::new).increment();
+    }
+
+    /**
+     * Records a duration in a histogram.
+     *
+     * @param name the histogram's name, conventionally ending in _seconds
+     * @param help a description of the histogram, used when it is first created
+     * @param micros the duration in microseconds
+     * @param labels label names and values, alternating
+     */
+    public void record(String name, String help, long micros, String... labels) {
+        this.<LatencyHistogram>family(name, help, "summary", true).get(labels, LatencyHistogram::new).record(micros);
+    }
+
+    /**
+     * Records a value other than a duration, such as a row count, in a histogram.
+     *
+     * @param name the histogram's name
+     * @param help a description of the histogram, used when it is first created
+     * @param value the value to record
+     * @param labels label names and values, alternating
+     */
+    public void observe(String name, String help, long value, String... labels) {
+        this.<LatencyHistogram>family(name, help, "summary", false).get(labels, LatencyHistogram::new).record(value);
+    }
+
+    /**
+     * Registers a gauge read when the registry is scraped, replacing any gauge registered under the same
+     * name and labels.
+     *
+     * @param name the gauge's name
+     * @param help a description of the gauge, used when it is first created
+     * @param value supplies the gauge's current value
+     * @param labels label names and values, alternating
+     */
+    public void gauge(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "gauge", false).set(labels, new Sampled(value));
+    }
+
+    /**
+     * Registers a counter kept elsewhere and read when the registry is scraped, replacing any counter
+     * registered under the same name and labels.
+     *
+     * @param name the counter's name, conventionally ending in _total
+     * @param help a description of the counter, used when it is first created
+     * @param value supplies the counter's current value, which must never decrease
+     * @param labels label names and values, alternating
+     */
+    public void counter(String name, String help, DoubleSupplier value, String... labels) {
+        family(name, help, "counter", false).set(labels, new Sampled(value));
+    }
+
+    /**
+     * @param name the name of a histogram
+     * @param labels its label names and values, alternating
+     * @return the histogram, or null if nothing was recorded in it
+     */
+    public LatencyHistogram getHistogram(String name, String... labels) {
+        Family<?> family = families.get(name);
+        Object metric = family == null ? null : family.metrics.get(labelText(labels));
+        return metric instanceof LatencyHistogram histogram ? histogram : null;
+    }
+
+    /**
+     * @return every metric in the Prometheus text exposition format, version 0.0.4
+     */
+    public String scrape() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Family<?>> entry : families.entrySet()) {
+            String name = entry.getKey();
+            Family<?> family = entry.getValue();
+            text.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            text.append("# TYPE ").append(name).append(' ').append(family.type).append('\n');
+            for (Map.Entry<String, Object> metric : new TreeMap<>(family.metrics).entrySet()) {
+                String labels = metric.getKey();
+                if (metric.getValue() instanceof LongAdder counter) {
+                    text.append(name).append(braced(labels)).append(' ').append(counter.sum()).append('\n');
+                } else if (metric.getValue() instanceof Sampled sampled) {
+                    text.append(name).append(braced(labels)).append(' ').append(sampled.text()).append('\n');
+                } else if (metric.getValue() instanceof LatencyHistogram histogram) {
+                    long[] values = histogram.valuesAt(QUANTILES);
+                    for (int q = 0; q < QUANTILES.length; q++) {
+                        String quantile = "quantile=\"" + QUANTILES[q] + "\"";
+                        text.append(name).append(braced(labels.isEmpty() ? quantile : labels + "," + quantile))
+                                .append(' ').append(family.format(values[q])).append('\n');
+                    }
+                    text.append(name).append("_sum").append(braced(labels)).append(' ')
+                            .append(family.format(histogram.getSum())).append('\n');
+                    text.append(name).append("_count").append(braced(labels)).append(' ')
+                            .append(histogram.getCount()).append('\n');
+                }
+            }
+        }
+        return text.toString();
+    }
+
+    // helper methods
+
+    @SuppressWarnings("unchecked")
+    private <M> Family<M> family(String name, String help, String type, boolean durations) {
+        Family<?> family = families.computeIfAbsent(name, key -> new Family<>(help, type, durations));
+        if (!family.type.equals(type) || family.durations != durations) {
+            throw new IllegalArgumentException(name + " is a " + family.type + (family.durations ? " of durations" : "")
+                    + ", not a " + type + (durations ? " of durations" : ""));
+        }
+        return (Family<M>) family;
+    }
+
+    /** Renders label pairs as name="value",... with Prometheus escaping. */
+    private static String labelText(String... labels) {
+        if (labels.length % 2 != 0) {
+            throw new IllegalArgumentException("Labels must be name and value pairs");
+        }
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < labels.length; i += 2) {
+            if (i > 0) {
+                text.append(',');
+            }
+            String value = labels[i + 1] == null ? "" : labels[i + 1];
+            text.append(labels[i]).append("=\"")
+                    .append(value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")).append('"');
+        }
+        return text.toString();
+    }
+
+    private static String braced(String labels) {
+        return labels.isEmpty() ? "" : "{" + labels + "}";
+    }
+
+    /**
+     * A gauge or counter whose value is read from elsewhere when the registry is scraped.
+     */
+    private record Sampled(DoubleSupplier value) {
+
+        /** Renders the current value, without a fraction when it is a whole number. */
+        private String text() {
+            double current = value.getAsDouble();
+            return current == Math.rint(current) && !Double.isInfinite(current)
+                    ? String.valueOf((long) current) : String.valueOf(current);
+        }
+    }
+
+
+    /**
+     * The metrics sharing a name, by their rendered labels.
+     */
+    private static class Family<M> {
+        private final String help;
+        private final String type;
+        /** Whether the family's histograms hold durations in microseconds, exported in seconds. */
+        private final boolean durations;
+        private final Map<String, Object> metrics = new ConcurrentHashMap<>();
+
+        private Family(String help, String type, boolean durations) {
+            this.help = help;
+            this.type = type;
+            this.durations = durations;
+        }
+
+        private String format(long value) {
+            return durations ? String.format(Locale.ROOT, "%.6f", value / 1e6) : String.valueOf(value);
+        }
+
+        @SuppressWarnings("unchecked")
+        private M get(String[] labels, Supplier<M> factory) {
+            return (M) metrics.computeIfAbsent(labelText(labels), key -> factory.get());
+        }
+
+        private void set(String[] labels, Object metric) {
+            metrics.put(labelText(labels), metric);
+        }
+    }
+}
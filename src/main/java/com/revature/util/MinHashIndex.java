@@ -0,0 +1,183 @@
+package com.revature.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * The MinHashIndex class finds the sets most similar to a given set by Jaccard similarity (the size of
+ * their intersection over the size of their union), without comparing it with every other set.
+ *
+ * Each set is summarized by a MinHash signature: for each of a fixed family of hash functions, the
+ * smallest hash of any of its elements. Two sets agree on any one signature value with a probability
+ * equal to their Jaccard similarity. Signatures are cut into bands, and sets that agree on every value of
+ * some band land in the same locality-sensitive hashing bucket, so similar sets are very likely to share
+ * a bucket while dissimilar ones rarely do. A lookup ranks only the sets sharing a bucket with the query,
+ * by their exact similarity.
+ *
+ * With 20 bands of 3 values, sets with a similarity of 0.5 become candidates 93% of the time, and sets
+ * with a similarity of 0.2 under 15% of the time. Updates are incremental and all methods are
+ * thread-safe.
+ */
+public class MinHashIndex {
+
+    /** The number of bands each signature is cut into. */
+    private static final int BANDS = 20;
+
+    /** The number of signature values in each band. */
+    private static final int ROWS = 3;
+
+    /** The seeds of the hash functions; fixed, so that signatures are the same from run to run. */
+    private static final long[] SEEDS = new SplittableRandom(0x5EED_C0FFEEL).longs(BANDS * ROWS).toArray();
+
+    /** The indexed sets, sorted, by id. */
+    private final Map<Integer, int[]> sets = new HashMap<>();
+
+    /** The signatures of the indexed sets, by id. */
+    private final Map<Integer, int[]> signatures = new HashMap<>();
+
+    /** The ids of the sets in each bucket, by bucket key; see bucketKey. */
+    private final Map<Long, Set<Integer>> buckets = new HashMap<>();
+
+    /**
+     * Adds a set, or replaces the set indexed under the same id. An empty set removes the id instead,
+     * since it is not similar to anything.
+     *
+     * @param id the id of the set
+     * @param elements the elements of the set
+     */
+    public synchronized void put(int id, Collection<Integer> elements) {
+        remove(id);
+        int[] set = elements.stream().mapToInt(Integer::intValue).distinct().sorted().toArray();
+        if (set.length == 0) {
+            return;
+        }
+        int[] signature = signature(set);
+        sets.put(id, set);
+        signatures.put(id, signature);
+        for (int band = 0; band < BANDS; band++) {
+            buckets.computeIfAbsent(bucketKey(signature, band), key -> new HashSet<>()).add(id);
+        }
+    }
+
+    /**
+     * Removes the set indexed under an id, if there is one.
+     *
+     * @param id the id of the set
+     */
+    public synchronized void remove(int id) {
+        int[] signature = signatures.remove(id);
+        if (signature == null) {
+            return;
+        }
+        sets.remove(id);
+        for (int band = 0; band < BANDS; band++) {
+            long key = bucketKey(signature, band);
+            Set<Integer> bucket = buckets.get(key);
+            bucket.remove(id);
+            if (bucket.isEmpty()) {
+                buckets.remove(key);
+            }
+        }
+    }
+
+    /** Removes every set. */
+    public synchronized void clear() {
+        sets.clear();
+        signatures.clear();
+        buckets.clear();
+    }
+
+    /**
+     * Finds the sets most similar to an indexed set.
+     *
+     * @param id the id of the indexed set to compare with
+     * @param limit the largest number of ids to return
+     * @return the ids of up to limit other sets sharing an element with it, most similar first, then by
+     *         id; empty if no set is indexed under the id
+     */
+    public synchronized List<Integer> similarTo(int id, int limit) {
+        int[] signature = signatures.get(id);
+        if (signature == null) {
+            return new ArrayList<>();
+        }
+        int[] set = sets.get(id);
+        Map<Integer, Double> similarities = new HashMap<>();
+        for (int band = 0; band < BANDS; band++) {
+            for (Integer candidate : buckets.get(bucketKey(signature, band))) {
+                if (candidate != id && !similarities.containsKey(candidate)) {
+                    double similarity = jaccard(set, sets.get(candidate));
+                    if (similarity > 0) {
+                        similarities.put(candidate, similarity);
+                    }
+                }
+            }
+        }
+        List<Integer> ids = new ArrayList<>(similarities.keySet());
+        ids.sort(Comparator.<Integer>comparingDouble(similarities::get).reversed().thenComparing(Comparator.naturalOrder()));
+        return ids.size() > limit ? new ArrayList<>(ids.subList(0, limit)) : ids;
+    }
+
+    /**
+     * @return the number of indexed sets
+     */
+    public synchronized int size() {
+        return sets.size();
+    }
+
+    /**
+     * @param a a sorted set without repeats
+     * @param b another sorted set without repeats
+     * @return the Jaccard similarity of the two sets
+     */
+    public static double jaccard(int[] a, int[] b) {
+        int shared = 0;
+        for (int i = 0, j = 0; i < a.length && j < b.length;) {
+            if (a[i] == b[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared / (double) (a.length + b.length - shared);
+    }
+
+    private static int[] signature(int[] set) {
+        int[] signature = new int[SEEDS.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int element : set) {
+            for (int i = 0; i < SEEDS.length; i++) {
+                signature[i] = Math.min(signature[i], hash(element, SEEDS[i]));
+            }
+        }
+        return signature;
+    }
+
+    /** Hashes an element with one of the hash functions, using the 64-bit finalizer of MurmurHash3. */
+    private static int hash(int element, long seed) {
+        long h = element ^ seed;
+        h = (h ^ (h >>> 33)) * 0xff51afd7ed558ccdL;
+        h = (h ^ (h >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return (int) ((h ^ (h >>> 33)) >>> 33);
+    }
+
+    /** Combines a band's number with the values of the signature in that band into one bucket key. */
+    private static long bucketKey(int[] signature, int band) {
+        int hash = 1;
+        for (int row = band * ROWS; row < (band + 1) * ROWS; row++) {
+            hash = 31 * hash + signature[row];
+        }
+        return ((long) band << 32) | (hash & 0xffffffffL);
+    }
+}
@@ -0,0 +1,88 @@
+package com.revature.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The PageCursor class represents the position of the last item on a page when paging with a cursor
+ * (keyset pagination) instead of a page number. It records the column the results are sorted by,
+ * the value of that column on the last item, and the item's id, so that the next page can be fetched
+ * with an index seek past that position rather than by skipping an OFFSET of rows.
+ *
+ * Cursors are handed to clients as opaque, URL-safe strings. Clients should not build or inspect them.
+ */
+public class PageCursor {
+
+    /** Separates the encoded fields; it cannot appear in a sort column name or an id. */
+    private static final char SEPARATOR = '\n';
+
+    /** The column the page was sorted by when the cursor was issued. */
+    private final String sortBy;
+
+    /** The value of the sort column on the last item of the page. */
+    private final String sortKey;
+
+    /** The id of the last item of the page. */
+    private final int id;
+
+    public PageCursor(String sortBy, String sortKey, int id) {
+        this.sortBy = sortBy;
+        this.sortKey = sortKey;
+        this.id = id;
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode()}.
+     *
+     * @param token the opaque cursor string, or null/blank to request the first page
+     * @param expectedSortBy the column the current request is sorted by
+     * @return the decoded cursor, or null if the token is null or blank
+     * @throws IllegalArgumentException if the token is malformed or was issued for a different sort column
+     */
+    public static PageCursor decode(String token, String expectedSortBy) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        int first = decoded.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : decoded.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        String sortBy = decoded.substring(0, first);
+        if (!sortBy.equals(expectedSortBy)) {
+            throw new IllegalArgumentException("The cursor was issued for a different sort order");
+        }
+        try {
+            int id = Integer.parseInt(decoded.substring(first + 1, second));
+            return new PageCursor(sortBy, decoded.substring(second + 1), id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    /**
+     * @return this cursor as an opaque, URL-safe string
+     */
+    public String encode() {
+        String raw = sortBy + SEPARATOR + id + SEPARATOR + sortKey;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public String getSortKey() {
+        return sortKey;
+    }
+
+    public int getId() {
+        return id;
+    }
+}
@@ -18,6 +18,11 @@ public class PageOptions {
     private String sortBy;
     /** The direction of sorting (e.g., ascending or descending). */
     private String sortDirection;
+    /**
+     * The opaque cursor of the last item already seen, when paging by cursor instead of page number.
+     * Null means page-number mode; an empty string requests the first page in cursor mode.
+     */
+    private String after;
 
     // constructors
     public PageOptions() {
@@ -67,4 +72,26 @@ public class PageOptions {
     public void setSortDirection(String sortDirection) {
         this.sortDirection = sortDirection;
     }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public void setAfter(String after) {
+        this.after = after;
+    }
+
+    /**
+     * @return true if results should be paged with a cursor (keyset pagination) rather than a page number
+     */
+    public boolean isCursorMode() {
+        return after != null;
+    }
+
+    /**
+     * @return the number of items that precede the current page, for use as a query OFFSET
+     */
+    public int getOffset() {
+        return Math.max(0, (pageNumber - 1) * pageSize);
+    }
 }
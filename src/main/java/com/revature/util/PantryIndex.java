@@ -0,0 +1,167 @@
+package com.revature.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The PantryIndex class answers "what can I cook?" queries: given the ingredients someone has on hand, it
+ * finds the recipes that those ingredients fully or mostly cover.
+ *
+ * The index is an in-memory inverted index from each ingredient to the recipes that use it, built once
+ * from RECIPE_INGREDIENT. A query walks only the posting lists of the ingredients on hand, counting how
+ * many of each recipe's ingredients it has seen, so its cost grows with the number of recipes those
+ * ingredients appear in rather than with the number of recipes in the database. An index is immutable
+ * and can be shared between threads; it is replaced as a whole when RECIPE_INGREDIENT changes.
+ */
+public class PantryIndex {
+
+    /** Orders matches by coverage, then by fewest missing ingredients, then by recipe id. */
+    private static final Comparator<Match> RANKING = Comparator.comparingDouble(Match::getCoverage).reversed()
+            .thenComparingInt(Match::getMissing)
+            .thenComparingInt(Match::getRecipeId);
+
+    /** The id of each indexed recipe, by position. */
+    private final int[] recipeIds;
+
+    /** The number of distinct ingredients each indexed recipe uses, by position. */
+    private final int[] ingredientCounts;
+
+    /** The positions of the recipes using each ingredient, by ingredient id. */
+    private final Map<Integer, int[]> postings;
+
+    private PantryIndex(int[] recipeIds, int[] ingredientCounts, Map<Integer, int[]> postings) {
+        this.recipeIds = recipeIds;
+        this.ingredientCounts = ingredientCounts;
+        this.postings = postings;
+    }
+
+    /**
+     * Finds the recipes covered by a set of ingredients.
+     *
+     * @param ingredientIds the ids of the ingredients on hand
+     * @param minCoverage the smallest fraction of a recipe's ingredients that must be on hand, from 0 to 1
+     * @param limit the largest number of matches to return
+     * @return up to limit matches, best covered first
+     */
+    public List<Match> match(Collection<Integer> ingredientIds, double minCoverage, int limit) {
+        int[] hits = new int[recipeIds.length];
+        int[] touched = new int[recipeIds.length];
+        int touchedCount = 0;
+        for (Integer ingredientId : new LinkedHashSet<>(ingredientIds)) {
+            int[] recipes = postings.get(ingredientId);
+            if (recipes == null) {
+                continue;
+            }
+            for (int position : recipes) {
+                if (hits[position]++ == 0) {
+                    touched[touchedCount++] = position;
+                }
+            }
+        }
+        List<Match> matches = new ArrayList<>();
+        for (int i = 0; i < touchedCount; i++) {
+            int position = touched[i];
+            Match match = new Match(recipeIds[position], hits[position], ingredientCounts[position]);
+            if (match.getCoverage() >= minCoverage) {
+                matches.add(match);
+            }
+        }
+        matches.sort(RANKING);
+        return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+    }
+
+    /**
+     * @return the number of indexed recipes
+     */
+    public int size() {
+        return recipeIds.length;
+    }
+
+    /**
+     * Collects the (recipe, ingredient) pairs of RECIPE_INGREDIENT into a PantryIndex. Repeated pairs
+     * count once.
+     */
+    public static class Builder {
+
+        private final Map<Integer, Set<Integer>> ingredientsByRecipe = new TreeMap<>();
+
+        /**
+         * @param recipeId the id of a recipe
+         * @param ingredientId the id of an ingredient the recipe uses
+         * @return this builder
+         */
+        public Builder add(int recipeId, int ingredientId) {
+            ingredientsByRecipe.computeIfAbsent(recipeId, id -> new LinkedHashSet<>()).add(ingredientId);
+            return this;
+        }
+
+        /**
+         * @return an index of the pairs added so far
+         */
+        public PantryIndex build() {
+            int[] recipeIds = new int[ingredientsByRecipe.size()];
+            int[] ingredientCounts = new int[recipeIds.length];
+            Map<Integer, List<Integer>> positions = new HashMap<>();
+            int position = 0;
+            for (Map.Entry<Integer, Set<Integer>> entry : ingredientsByRecipe.entrySet()) {
+                recipeIds[position] = entry.getKey();
+                ingredientCounts[position] = entry.getValue().size();
+                for (Integer ingredientId : entry.getValue()) {
+                    positions.computeIfAbsent(ingredientId, id -> new ArrayList<>()).add(position);
+                }
+                position++;
+            }
+            Map<Integer, int[]> postings = new HashMap<>();
+            for (Map.Entry<Integer, List<Integer>> entry : positions.entrySet()) {
+                postings.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+            }
+            return new PantryIndex(recipeIds, ingredientCounts, postings);
+        }
+    }
+
+    /**
+     * A recipe covered by the ingredients on hand, with how many of its ingredients are covered.
+     */
+    public static class Match {
+        private final int recipeId;
+        private final int matched;
+        private final int required;
+
+        private Match(int recipeId, int matched, int required) {
+            this.recipeId = recipeId;
+            this.matched = matched;
+            this.required = required;
+        }
+
+        public int getRecipeId() {
+            return recipeId;
+        }
+
+        /** @return the number of the recipe's ingredients on hand */
+        public int getMatched() {
+            return matched;
+        }
+
+        /** @return the number of distinct ingredients the recipe uses */
+        public int getRequired() {
+            return required;
+        }
+
+        /** @return the number of the recipe's ingredients not on hand */
+        public int getMissing() {
+            return required - matched;
+        }
+
+        /** @return the fraction of the recipe's ingredients on hand */
+        public double getCoverage() {
+            return matched / (double) required;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.revature.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * The PrefixIndex class answers case-insensitive prefix lookups, such as autocomplete suggestions, from
+ * memory. Values are kept in an array sorted by their lower-cased name, so a lookup is a binary search
+ * for the first name at or after the prefix followed by a walk over at most limit entries.
+ *
+ * Lookups read an immutable snapshot of the array and never block. Writes replace the snapshot with an
+ * updated copy, which costs O(n) per write and suits small, read-mostly collections.
+ *
+ * @param <V> the type of indexed values
+ */
+public class PrefixIndex<V> {
+
+    /** Orders entries by lower-cased name, then by name, then by id, so that equal names stay stable. */
+    private static final Comparator<Entry<?>> ORDER = Comparator.<Entry<?>, String>comparing(entry -> entry.key)
+            .thenComparing(entry -> entry.name)
+            .thenComparingInt(entry -> entry.id);
+
+    private final ToIntFunction<V> idOf;
+    private final Function<V, String> nameOf;
+
+    /** The current snapshot, sorted by ORDER. */
+    private volatile Entry<V>[] entries = newArray(0);
+
+    /** The entry of each indexed id, so that a value can be found again when it is renamed or removed. */
+    private final Map<Integer, Entry<V>> entriesById = new HashMap<>();
+
+    /**
+     * Constructs an empty PrefixIndex.
+     *
+     * @param idOf extracts the unique id of a value
+     * @param nameOf extracts the name a value is looked up by
+     */
+    public PrefixIndex(ToIntFunction<V> idOf, Function<V, String> nameOf) {
+        this.idOf = idOf;
+        this.nameOf = nameOf;
+    }
+
+    /**
+     * Finds the values whose names start with a prefix, ignoring case.
+     *
+     * @param prefix the prefix to look up; an empty prefix matches every value
+     * @param limit the largest number of values to return
+     * @return up to limit matching values, in order of name
+     */
+    public List<V> startingWith(String prefix, int limit) {
+        Entry<V>[] snapshot = entries;
+        String key = prefix.toLowerCase(Locale.ROOT);
+        int low = 0;
+        int high = snapshot.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (snapshot[middle].key.compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        List<V> matches = new ArrayList<>(Math.min(limit, snapshot.length - low));
+        for (int i = low; i < snapshot.length && matches.size() < limit && snapshot[i].key.startsWith(key); i++) {
+            matches.add(snapshot[i].value);
+        }
+        return matches;
+    }
+
+    /**
+     * Adds a value, or replaces the value indexed under the same id.
+     *
+     * @param value the value to index
+     */
+    public synchronized void put(V value) {
+        Entry<V> entry = new Entry<>(idOf.applyAsInt(value), nameOf.apply(value), value);
+        Entry<V> previous = entriesById.put(entry.id, entry);
+        Entry<V>[] current = previous == null ? entries : without(entries, previous);
+        int index = -Arrays.binarySearch(current, entry, ORDER) - 1;
+        Entry<V>[] updated = newArray(current.length + 1);
+        System.arraycopy(current, 0, updated, 0, index);
+        updated[index] = entry;
+        System.arraycopy(current, index, updated, index + 1, current.length - index);
+        entries = updated;
+    }
+
+    /**
+     * Removes the value indexed under an id, if there is one.
+     *
+     * @param id the id of the value to remove
+     */
+    public synchronized void remove(int id) {
+        Entry<V> previous = entriesById.remove(id);
+        if (previous != null) {
+            entries = without(entries, previous);
+        }
+    }
+
+    /**
+     * Replaces every indexed value at once, sorting the new values in a single pass.
+     *
+     * @param values the values to index
+     */
+    public synchronized void replaceAll(Collection<V> values) {
+        entriesById.clear();
+        for (V value : values) {
+            Entry<V> entry = new Entry<>(idOf.applyAsInt(value), nameOf.apply(value), value);
+            entriesById.put(entry.id, entry);
+        }
+        Entry<V>[] updated = entriesById.values().toArray(newArray(0));
+        Arrays.sort(updated, ORDER);
+        entries = updated;
+    }
+
+    /**
+     * @return the number of indexed values
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    private Entry<V>[] without(Entry<V>[] current, Entry<V> entry) {
+        int index = Arrays.binarySearch(current, entry, ORDER);
+        Entry<V>[] updated = newArray(current.length - 1);
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, current.length - index - 1);
+        return updated;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Entry<V>[] newArray(int length) {
+        return (Entry<V>[]) new Entry<?>[length];
+    }
+
+    /**
+     * An indexed value together with its id, its name and the lower-cased name it is looked up by.
+     */
+    private static class Entry<V> {
+        private final int id;
+        private final String name;
+        private final String key;
+        private final V value;
+
+        private Entry(int id, String name, V value) {
+            this.id = id;
+            this.name = name;
+            this.key = name.toLowerCase(Locale.ROOT);
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,366 @@
+package com.revature.util;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The QueryMonitor class times the SQL statements run through the connection pool, so that the cost of each
+ * DAO query can be read off GET /metrics instead of guessed at. The pool wraps every statement it hands out,
+ * which covers every DAO without changing them.
+ *
+ * For each query it records, labelled by its whitespace-normalized SQL text:
+ *  - db_query_duration_seconds: the time spent executing it and fetching its rows, but not the time the
+ *    caller spends between rows
+ *  - db_query_rows: the number of rows fetched, or updated for DML
+ *  - db_query_errors_total: the number of executions that failed
+ * along with db_connection_acquire_seconds, the time taken to borrow a connection from the pool.
+ *
+ * An execution ends when its statement is executed again or closed, its result set is closed, or its last
+ * row has been read. Executions that took at least the slow-query threshold are logged at WARN, as one
+ * key=value line with their SQL, bind parameters, duration and row count. Bind parameters are logged by type,
+ * with the length of strings and arrays, but never by value, since they include passwords; a batch logs the
+ * parameters of each of its rows. Only DML is monitored; DDL and scripts such as the schema reset are passed
+ * through untouched. Each finished execution is also emitted as a {@link FlightEvents.Query} JFR event.
+ */
+public class QueryMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryMonitor.class);
+
+    /** The leading SQL keywords of the statements that are monitored. */
+    private static final Set<String> MONITORED_VERBS = Set.of("SELECT", "INSERT", "UPDATE", "DELETE", "MERGE", "WITH");
+
+    /** The most distinct query labels kept; further queries are counted under "other". */
+    private static final int MAX_QUERIES = 512;
+
+    /** The longest SQL text used as a label; longer texts are cut short. */
+    private static final int MAX_LABEL_LENGTH = 200;
+
+    /** The most rows of a batch whose parameters are logged with a slow query. */
+    private static final int MAX_LOGGED_BATCH_ROWS = 10;
+
+    private final MetricsRegistry metrics;
+
+    private final long slowQueryNanos;
+
+    /** The label of every SQL text seen so far, as written. */
+    private final Map<String, String> labels = new ConcurrentHashMap<>();
+
+    /**
+     * @param metrics the registry to record into
+     * @param slowQueryMillis the duration at or above which a query is logged
+     */
+    public QueryMonitor(MetricsRegistry metrics, long slowQueryMillis) {
+        this.metrics = metrics;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+    }
+
+    /**
+     * @param nanos the time a borrower took to get a connection from the pool
+     */
+    public void recordAcquire(long nanos) {
+        metrics.record("db_connection_acquire_seconds", "Time taken to borrow a connection from the pool.", nanos / 1_000);
+    }
+
+    /**
+     * Wraps a statement so that its executions are recorded.
+     *
+     * @param statement a Statement, PreparedStatement or CallableStatement
+     * @param sql the SQL it was prepared with, or null for a plain Statement
+     * @return a statement of the same interface that records its executions
+     */
+    public Statement instrument(Statement statement, String sql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                new StatementRecorder(statement, sql)::invoke);
+    }
+
+    /**
+     * @param sql a SQL text
+     * @return whether statements with this text are monitored
+     */
+    static boolean isMonitored(String sql) {
+        if (sql == null || sql.indexOf(';') >= 0) {
+            return false;
+        }
+        String text = sql.stripLeading();
+        int end = 0;
+        while (end < text.length() && Character.isLetter(text.charAt(end))) {
+            end++;
+        }
+        return MONITORED_VERBS.contains(text.substring(0, end).toUpperCase(Locale.ROOT));
+    }
+
+    // helper methods
+
+    private String labelOf(String sql) {
+        String label = labels.get(sql);
+        if (label == null) {
+            if (labels.size() >= MAX_QUERIES) {
+                return "other";
+            }
+            label = sql.strip().replaceAll("\\s+", " ");
+            if (label.length() > MAX_LABEL_LENGTH) {
+                label = label.substring(0, MAX_LABEL_LENGTH) + "...";
+            }
+            labels.put(sql, label);
+        }
+        return label;
+    }
+
+    private void record(Execution execution) {
+        String query = labelOf(execution.sql);
+        long nanos = execution.executeNanos + execution.fetchNanos;
+        metrics.record("db_query_duration_seconds", "Time spent executing queries and fetching their rows, by query.",
+                nanos / 1_000, "query", query);
+        metrics.observe("db_query_rows", "Rows fetched or updated per query execution, by query.", execution.rows,
+                "query", query);
+        if (nanos >= slowQueryNanos) {
+            logger.warn("slow_query duration_ms={} rows={} sql=\"{}\" params={}", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    execution.rows, query.replace("\"", "\\\""), paramText(execution));
+        }
+        if (execution.event.shouldCommit()) {
+            execution.event.sql = query;
+            execution.event.rows = execution.rows;
+            execution.event.executeTime = execution.executeNanos;
+            execution.event.fetchTime = execution.fetchNanos;
+            execution.event.commit();
+        }
+    }
+
+    /**
+     * Renders the bind parameters of an execution as a list, or a batch as a list of such lists, cut short
+     * after MAX_LOGGED_BATCH_ROWS rows.
+     */
+    private static String paramText(Execution execution) {
+        List<List<Object>> paramRows = execution.params;
+        if (!execution.batch) {
+            return paramRow(paramRows.isEmpty() ? List.of() : paramRows.get(0));
+        }
+        StringBuilder text = new StringBuilder("[");
+        for (int i = 0; i < Math.min(paramRows.size(), MAX_LOGGED_BATCH_ROWS); i++) {
+            text.append(i > 0 ? ", " : "").append(paramRow(paramRows.get(i)));
+        }
+        if (paramRows.size() > MAX_LOGGED_BATCH_ROWS) {
+            text.append(", ...").append(paramRows.size() - MAX_LOGGED_BATCH_ROWS).append(" more");
+        }
+        return text.append(']').toString();
+    }
+
+    /** Renders one row of bind parameters by type, e.g. [String(8), Integer, Integer[3], null]. */
+    private static String paramRow(List<Object> params) {
+        StringBuilder text = new StringBuilder("[");
+        for (Object param : params) {
+            if (text.length() > 1) {
+                text.append(", ");
+            }
+            if (param == null) {
+                text.append("null");
+            } else if (param instanceof String string) {
+                text.append("String(").append(string.length()).append(')');
+            } else if (param.getClass().isArray()) {
+                text.append(param.getClass().getComponentType().getSimpleName())
+                        .append('[').append(Array.getLength(param)).append(']');
+            } else {
+                text.append(param.getClass().getSimpleName());
+            }
+        }
+        return text.append(']').toString();
+    }
+
+    private static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * One execution of a statement, until it is finished.
+     */
+    private static class Execution {
+        private final String sql;
+        private final List<List<Object>> params;
+        private final boolean batch;
+        private final FlightEvents.Query event = new FlightEvents.Query();
+        private long executeNanos;
+        private long fetchNanos;
+        private long rows;
+        private boolean finished;
+
+        private Execution(String sql, List<List<Object>> params, boolean batch) {
+            this.sql = sql;
+            this.params = params;
+            this.batch = batch;
+        }
+    }
+
+    /**
+     * Forwards calls to a statement, remembering its bind parameters and recording each execution.
+     */
+    private class StatementRecorder {
+        private final Statement target;
+        private final String sql;
+        private final List<Object> params = new ArrayList<>();
+
+        /** The bind parameters of each row added to the pending batch. */
+        private final List<List<Object>> batch = new ArrayList<>();
+        private Execution current;
+
+        private StatementRecorder(Statement target, String sql) {
+            this.target = target;
+            this.sql = sql;
+        }
+
+        private Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            switch (name) {
+                case "close":
+                    finishCurrent();
+                    break;
+                case "clearParameters":
+                    params.clear();
+                    break;
+                case "addBatch":
+                    if (args == null) {
+                        batch.add(new ArrayList<>(params));
+                    }
+                    break;
+                case "clearBatch":
+                    batch.clear();
+                    break;
+                case "getResultSet":
+                    return wrap((ResultSet) invokeTarget(target, method, args));
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        bind(index, name.equals("setNull") ? null : args[1]);
+                    }
+                    break;
+            }
+            return invokeTarget(target, method, args);
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            finishCurrent();
+            String text = args != null && args.length > 0 && args[0] instanceof String given ? given : sql;
+            boolean isBatch = method.getName().endsWith("Batch");
+            List<List<Object>> bound = isBatch ? new ArrayList<>(batch) : List.of(new ArrayList<>(params));
+            if (isBatch) {
+                // executing a batch empties it, whether or not it succeeds
+                batch.clear();
+            }
+            if (!isMonitored(text)) {
+                return invokeTarget(target, method, args);
+            }
+            Execution execution = new Execution(text, bound, isBatch);
+            execution.event.begin();
+            long start = System.nanoTime();
+            Object result;
+            try {
+                result = invokeTarget(target, method, args);
+            } catch (Throwable e) {
+                metrics.increment("db_query_errors_total", "Query executions that failed, by query.", "query",
+                        labelOf(text));
+                throw e;
+            }
+            execution.executeNanos = System.nanoTime() - start;
+            current = execution;
+            if (result instanceof ResultSet resultSet) {
+                return wrap(resultSet);
+            }
+            if (result instanceof Integer || result instanceof Long) {
+                execution.rows = ((Number) result).longValue();
+            } else if (result instanceof int[] counts) {
+                for (int count : counts) {
+                    execution.rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[] counts) {
+                for (long count : counts) {
+                    execution.rows += Math.max(count, 0);
+                }
+            }
+            if (!(result instanceof Boolean hasResultSet && hasResultSet)) {
+                finishCurrent();
+            }
+            return result;
+        }
+
+        private void bind(int index, Object value) {
+            while (params.size() < index) {
+                params.add(null);
+            }
+            params.set(index - 1, value);
+        }
+
+        private ResultSet wrap(ResultSet resultSet) {
+            Execution execution = current;
+            if (resultSet == null || execution == null) {
+                return resultSet;
+            }
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[] { ResultSet.class }, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next": {
+                                long start = System.nanoTime();
+                                boolean more = (Boolean) invokeTarget(resultSet, method, args);
+                                execution.fetchNanos += System.nanoTime() - start;
+                                if (more) {
+                                    execution.rows++;
+                                } else {
+                                    finish(execution);
+                                }
+                                return more;
+                            }
+                            case "close":
+                                finish(execution);
+                                break;
+                            case "equals":
+                                return proxy == args[0];
+                            case "hashCode":
+                                return System.identityHashCode(proxy);
+                            default:
+                                break;
+                        }
+                        return invokeTarget(resultSet, method, args);
+                    });
+        }
+
+        private void finishCurrent() {
+            if (current != null) {
+                finish(current);
+                current = null;
+            }
+        }
+
+        private void finish(Execution execution) {
+            if (!execution.finished) {
+                execution.finished = true;
+                record(execution);
+            }
+        }
+    }
+}
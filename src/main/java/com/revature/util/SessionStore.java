@@ -0,0 +1,264 @@
+package com.revature.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The SessionStore class maps session tokens to the values of logged in users, and is safe to share
+ * between the web server's worker threads.
+ *
+ * Every session expires a fixed time after it was created, and earlier if it has not been looked up
+ * for longer than the idle timeout. At most maxSessions sessions are kept; when the store is full the
+ * oldest session is dropped to make room. Token lookups are a single hash-map read, and expired
+ * sessions are swept out as part of ordinary calls rather than by a background thread.
+ *
+ * No call takes a lock. Sessions are queued in the order they were created; a session that ends some
+ * other way than from the front of the queue leaves its entry behind, and such stale entries are skipped
+ * when they reach the front, or compacted away once there are more of them than live sessions.
+ *
+ * @param <V> the type of value stored for each session
+ */
+public class SessionStore<V> {
+
+    /** How often, at most, the store is scanned for sessions that have gone idle. */
+    private static final long SWEEP_INTERVAL_MILLIS = 60_000;
+
+    /** The stale queue entries always tolerated before the queue is compacted, however few sessions are live. */
+    private static final int MIN_STALE_BEFORE_COMPACTION = 64;
+
+    private final long ttlMillis;
+    private final long idleTimeoutMillis;
+    private final int maxSessions;
+
+    /** The live sessions, indexed by token. */
+    private final Map<String, Session<V>> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Every session started, in the order it was created. An entry is stale once its token no longer maps
+     * to that same session.
+     */
+    private final Queue<Session<V>> creationOrder = new ConcurrentLinkedQueue<>();
+
+    /** The number of live sessions. */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /** Roughly how many stale entries creationOrder holds; only used to decide when to compact it. */
+    private final AtomicInteger stale = new AtomicInteger();
+
+    /** Set while one thread compacts creationOrder, so that others do not repeat the work. */
+    private final AtomicBoolean compacting = new AtomicBoolean();
+
+    /** When the last full idle sweep ran. */
+    private final AtomicLong lastSweep = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Constructs an empty SessionStore.
+     *
+     * @param ttlMillis how long a session lives after it is created
+     * @param idleTimeoutMillis how long a session may go without being looked up before it expires
+     * @param maxSessions the largest number of sessions kept at once
+     */
+    public SessionStore(long ttlMillis, long idleTimeoutMillis, int maxSessions) {
+        if (ttlMillis <= 0 || idleTimeoutMillis <= 0 || maxSessions < 1) {
+            throw new IllegalArgumentException("Session timeouts and maxSessions must be positive");
+        }
+        this.ttlMillis = ttlMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxSessions = maxSessions;
+    }
+
+    /**
+     * Starts a session, dropping the oldest sessions if the store is full. Logins racing each other may
+     * leave the store briefly over maxSessions by at most one session each.
+     *
+     * @param token the session token
+     * @param value the value to associate with the token
+     */
+    public void put(String token, V value) {
+        long now = System.currentTimeMillis();
+        Session<V> session = new Session<>(token, value, now);
+        if (sessions.put(token, session) == null) {
+            size.incrementAndGet();
+        } else {
+            stale.incrementAndGet();
+        }
+        creationOrder.add(session);
+        sweep(now);
+        while (size.get() > maxSessions && evictOldest()) {
+            // keep dropping the oldest sessions until there is room
+        }
+        compactIfStale();
+    }
+
+    /**
+     * Looks up a session and marks it as recently used.
+     *
+     * @param token the session token
+     * @return the value of the session, or null if there is no live session for the token
+     */
+    public V get(String token) {
+        if (token == null) {
+            return null;
+        }
+        Session<V> session = sessions.get(token);
+        if (session == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        if (isExpired(session, now)) {
+            end(session);
+            compactIfStale();
+            return null;
+        }
+        session.lastAccess = now;
+        return session.value;
+    }
+
+    /**
+     * Ends a session.
+     *
+     * @param token the session token
+     */
+    public void remove(String token) {
+        if (token != null) {
+            Session<V> session = sessions.get(token);
+            if (session != null) {
+                end(session);
+                compactIfStale();
+            }
+        }
+    }
+
+    /** Ends every session. */
+    public void clear() {
+        for (Session<V> session : sessions.values()) {
+            end(session);
+        }
+        compactIfStale();
+    }
+
+    /**
+     * @return the number of sessions held, including expired sessions that have not been swept yet
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Ends a live session anywhere in the creation order, leaving its queue entry stale.
+     *
+     * @return false if the session had already ended
+     */
+    private boolean end(Session<V> session) {
+        if (sessions.remove(session.token, session)) {
+            size.decrementAndGet();
+            stale.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Settles an entry just taken off the front of the creation order: ends its session if it is still
+     * live, and otherwise accounts for the stale entry being gone.
+     *
+     * @return true if a live session was ended
+     */
+    private boolean dequeued(Session<V> session) {
+        if (sessions.remove(session.token, session)) {
+            size.decrementAndGet();
+            return true;
+        }
+        stale.decrementAndGet();
+        return false;
+    }
+
+    /**
+     * Removes stale entries and sessions past their lifetime from the front of the creation order, and,
+     * at most once per sweep interval, scans every session for ones that have gone idle.
+     */
+    private void sweep(long now) {
+        Session<V> oldest;
+        while ((oldest = creationOrder.peek()) != null) {
+            boolean live = sessions.get(oldest.token) == oldest;
+            if (live && now - oldest.createdAt < ttlMillis) {
+                break;
+            }
+            if (creationOrder.remove(oldest)) {
+                dequeued(oldest);
+            }
+        }
+        long last = lastSweep.get();
+        if (now - last >= SWEEP_INTERVAL_MILLIS && lastSweep.compareAndSet(last, now)) {
+            for (Session<V> session : sessions.values()) {
+                if (isExpired(session, now)) {
+                    end(session);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops the oldest live session held, skipping stale entries on the way.
+     *
+     * @return false if there was no session to drop
+     */
+    private boolean evictOldest() {
+        Session<V> oldest;
+        while ((oldest = creationOrder.poll()) != null) {
+            if (dequeued(oldest)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the stale entries from the creation order once they outnumber the live sessions, so that
+     * sessions ending out of order cannot grow the queue without bound. Only one thread compacts at a time.
+     */
+    private void compactIfStale() {
+        if (stale.get() > Math.max(MIN_STALE_BEFORE_COMPACTION, size.get()) && compacting.compareAndSet(false, true)) {
+            try {
+                stale.set(0);
+                Iterator<Session<V>> entries = creationOrder.iterator();
+                while (entries.hasNext()) {
+                    Session<V> session = entries.next();
+                    if (sessions.get(session.token) != session) {
+                        entries.remove();
+                    }
+                }
+            } finally {
+                compacting.set(false);
+            }
+        }
+    }
+
+    private boolean isExpired(Session<V> session, long now) {
+        return now - session.createdAt >= ttlMillis || now - session.lastAccess >= idleTimeoutMillis;
+    }
+
+    /**
+     * A session's token and value together with when it was created and last used. Sessions are compared
+     * by identity, so a queue entry refers to one session even if its token is reused.
+     */
+    private static class Session<V> {
+        private final String token;
+        private final V value;
+        private final long createdAt;
+        private volatile long lastAccess;
+
+        private Session(String token, V value, long createdAt) {
+            this.token = token;
+            this.value = value;
+            this.createdAt = createdAt;
+            this.lastAccess = createdAt;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.revature.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.revature.model.ShoppingListItem;
+import com.revature.model.Unit;
+
+/**
+ * The ShoppingListAggregator class sums recipe ingredient amounts into a shopping list as they are read,
+ * one row at a time, so that memory grows with the number of distinct ingredients rather than with the
+ * number of rows.
+ *
+ * Amounts in recognized units are converted to milliliters or grams and summed per ingredient and
+ * dimension; each total is then shown in the unit it reads best in, in metric units if every amount it
+ * was summed from was metric and in US customary units otherwise. Amounts in units that cannot be
+ * converted are summed per ingredient and unit as written.
+ */
+public class ShoppingListAggregator {
+
+    /** The running totals in order of first appearance, by ingredient id and dimension or unit. */
+    private final Map<String, Total> totals = new LinkedHashMap<>();
+
+    /**
+     * Adds an ingredient amount to the list.
+     *
+     * @param ingredientId the id of the ingredient
+     * @param name the name of the ingredient
+     * @param amount the amount needed, already scaled by the recipe's multiplier
+     * @param unitText the unit of the amount as written in the recipe
+     * @param metric whether the amount is marked as metric
+     */
+    public void add(int ingredientId, String name, double amount, String unitText, boolean metric) {
+        Unit unit = Unit.parse(unitText);
+        String key = unit == null
+                ? ingredientId + "/" + String.valueOf(unitText).strip().toLowerCase(Locale.ROOT)
+                : ingredientId + "/" + unit.getDimension();
+        Total total = totals.computeIfAbsent(key, k -> new Total(ingredientId, name, unit, unitText));
+        total.amount += unit == null ? amount : unit.toBase(amount);
+        total.metric &= metric || (unit != null && unit.isMetric());
+    }
+
+    /**
+     * @return a shopping list line for every ingredient, dimension and unconvertible unit added, with
+     *         quantities rounded to two decimal places
+     */
+    public List<ShoppingListItem> items() {
+        List<ShoppingListItem> items = new ArrayList<>(totals.size());
+        for (Total total : totals.values()) {
+            if (total.unit == null) {
+                items.add(new ShoppingListItem(total.ingredientId, total.name, round(total.amount), total.unitText));
+            } else {
+                Unit shown = Unit.normalized(total.unit.getDimension(), total.metric, total.amount);
+                items.add(new ShoppingListItem(total.ingredientId, total.name, round(shown.fromBase(total.amount)),
+                        shown.getSymbol()));
+            }
+        }
+        return items;
+    }
+
+    private static double round(double quantity) {
+        return Math.round(quantity * 100) / 100.0;
+    }
+
+    /**
+     * The running total of one shopping list line.
+     */
+    private static class Total {
+        private final int ingredientId;
+        private final String name;
+        /** A unit of the line's dimension, or null if the line is in an unconvertible unit. */
+        private final Unit unit;
+        /** The unit as first written, for unconvertible units. */
+        private final String unitText;
+        /** The amount so far, in base units if the unit is known. */
+        private double amount;
+        /** Whether every amount so far was metric. */
+        private boolean metric = true;
+
+        private Total(int ingredientId, String name, Unit unit, String unitText) {
+            this.ingredientId = ingredientId;
+            this.name = name;
+            this.unit = unit;
+            this.unitText = unitText;
+        }
+    }
+}
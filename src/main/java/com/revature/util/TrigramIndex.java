@@ -0,0 +1,163 @@
+package com.revature.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.h2.tools.TriggerAdapter;
+
+/**
+ * The TrigramIndex class maintains and queries the trigram tables that index searchable name columns,
+ * so that substring searches can look up candidate rows instead of scanning the whole table.
+ *
+ * Each indexed table has an auxiliary table named after it with a _TRIGRAM suffix, holding one
+ * (trigram, row_id) row for every distinct three-character substring of the lower-cased column value.
+ * A term of three or more characters can only occur in values that contain every trigram of the term,
+ * so {@link #matchingIds(String)} narrows a search to those rows through the auxiliary table's primary
+ * key. The original LIKE condition is still applied to the candidates, so results are unchanged.
+ *
+ * This class is also the H2 trigger that keeps the auxiliary tables in step with every insert, update
+ * and delete on the indexed tables; the triggers are declared in sqlScript.sql.
+ */
+public class TrigramIndex extends TriggerAdapter {
+
+    /** The shortest term that has a trigram; shorter terms are searched without the index. */
+    private static final int GRAM_LENGTH = 3;
+
+    /** The column indexed in each table that has a trigram table. */
+    private static final Map<String, String> INDEXED_COLUMNS = Map.of(
+            "RECIPE", "NAME",
+            "CHEF", "USERNAME",
+            "INGREDIENT", "NAME");
+
+    /** The column of the table this trigger instance was created for. */
+    private String column;
+
+    /** The trigram table of the table this trigger instance was created for. */
+    private String trigramTable;
+
+    /**
+     * Builds the subquery that selects the ids of rows whose indexed value contains every trigram of a
+     * term. It takes two parameters, bound by {@link #matchingParams(String)}: the term's trigrams as an
+     * array and the number of them.
+     *
+     * @param table the indexed table, e.g. RECIPE
+     * @return a subquery selecting candidate row ids
+     */
+    public static String matchingIds(String table) {
+        return "SELECT row_id FROM " + table + "_TRIGRAM WHERE trigram = ANY(?) GROUP BY row_id HAVING COUNT(*) = ?";
+    }
+
+    /**
+     * @param term the search term
+     * @return the parameters of {@link #matchingIds(String)} for the term
+     */
+    public static Object[] matchingParams(String term) {
+        Set<String> grams = trigrams(term);
+        return new Object[] { grams.toArray(String[]::new), grams.size() };
+    }
+
+    /**
+     * Builds the subquery that selects the ids of rows whose indexed value shares at least a given number
+     * of trigrams with a term, for typo-tolerant searches. It takes two parameters, bound by
+     * {@link #similarParams(String, int)}: the term's trigrams as an array and the minimum number shared.
+     *
+     * @param table the indexed table, e.g. RECIPE
+     * @return a subquery selecting candidate row ids
+     */
+    public static String similarIds(String table) {
+        return "SELECT row_id FROM " + table + "_TRIGRAM WHERE trigram = ANY(?) GROUP BY row_id HAVING COUNT(*) >= ?";
+    }
+
+    /**
+     * Builds the parameters of {@link #similarIds(String)} for values within an edit distance of a term.
+     * Each edit changes at most three of the term's trigrams, so a value containing a substring within
+     * maxDistance edits of the term still shares all but 3 * maxDistance of the term's distinct trigrams.
+     *
+     * @param term the search term
+     * @param maxDistance the largest edit distance searched for, at most {@link #maxFuzzyDistance(String)}
+     * @return the parameters of {@link #similarIds(String)}
+     */
+    public static Object[] similarParams(String term, int maxDistance) {
+        Set<String> grams = trigrams(term);
+        return new Object[] { grams.toArray(String[]::new), Math.max(1, grams.size() - GRAM_LENGTH * maxDistance) };
+    }
+
+    /**
+     * @param term the search term
+     * @return the largest edit distance for which {@link #similarIds(String)} still requires a shared
+     *         trigram, and so can narrow the search; shorter terms allow fewer edits
+     */
+    public static int maxFuzzyDistance(String term) {
+        return Math.max(0, (trigrams(term).size() - 1) / GRAM_LENGTH);
+    }
+
+    /**
+     * Tells whether a LIKE '%term%' search can be narrowed with the trigram index. Terms shorter than a
+     * trigram, and terms containing LIKE wildcards or escapes, have to be searched by scanning.
+     *
+     * @param term the search term, or null
+     * @return true if the index can answer the search
+     */
+    public static boolean canSearch(String term) {
+        return term != null && term.length() >= GRAM_LENGTH
+                && term.indexOf('%') < 0 && term.indexOf('_') < 0 && term.indexOf('\\') < 0;
+    }
+
+    /**
+     * @param value the text to split
+     * @return the distinct three-character substrings of the lower-cased text, in order of appearance
+     */
+    public static Set<String> trigrams(String value) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (value == null) {
+            return grams;
+        }
+        String text = value.toLowerCase(Locale.ROOT);
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    @Override
+    public void init(Connection conn, String schemaName, String triggerName, String tableName, boolean before,
+            int type) throws SQLException {
+        super.init(conn, schemaName, triggerName, tableName, before, type);
+        column = INDEXED_COLUMNS.get(tableName.toUpperCase(Locale.ROOT));
+        if (column == null) {
+            throw new SQLException("No trigram-indexed column is defined for table " + tableName);
+        }
+        trigramTable = tableName + "_TRIGRAM";
+    }
+
+    /**
+     * Replaces the trigrams of a changed row with those of its new value.
+     */
+    @Override
+    public void fire(Connection conn, ResultSet oldRow, ResultSet newRow) throws SQLException {
+        if (oldRow != null) {
+            try (PreparedStatement ps = conn.prepareStatement("DELETE FROM " + trigramTable + " WHERE row_id = ?")) {
+                ps.setInt(1, oldRow.getInt("ID"));
+                ps.executeUpdate();
+            }
+        }
+        if (newRow != null) {
+            try (PreparedStatement ps = conn.prepareStatement(
+                    "INSERT INTO " + trigramTable + " (trigram, row_id) VALUES (?, ?)")) {
+                int id = newRow.getInt("ID");
+                for (String gram : trigrams(newRow.getString(column))) {
+                    ps.setString(1, gram);
+                    ps.setInt(2, id);
+                    ps.addBatch();
+                }
+                ps.executeBatch();
+            }
+        }
+    }
+}
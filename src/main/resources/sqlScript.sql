@@ -71,6 +71,74 @@ CREATE TABLE RECIPE_INGREDIENT (
         ON DELETE CASCADE
 );
 
+-- Descending Indexes:
+-- Cursor (keyset) pagination seeks past the last seen row with a range condition on the sort column.
+-- Ascending seeks use the primary keys and the UNIQUE constraints on name; these indexes let H2
+-- run the same seeks as index-ordered scans when the results are sorted in descending order.
+CREATE INDEX idx_recipe_id_desc ON RECIPE(id DESC);
+CREATE INDEX idx_recipe_name_desc ON RECIPE(name DESC);
+CREATE INDEX idx_ingredient_id_desc ON INGREDIENT(id DESC);
+CREATE INDEX idx_ingredient_name_desc ON INGREDIENT(name DESC);
+
+-- Recipe Ingredient Indexes:
+-- Searching recipes by ingredient reads RECIPE_INGREDIENT by ingredient and groups by recipe; with
+-- recipe_id in the index the search never touches the table rows themselves.
+CREATE INDEX idx_recipe_ingredient_ingredient_recipe ON RECIPE_INGREDIENT(ingredient_id, recipe_id);
+
+-- Trigram Tables:
+-- Substring searches on recipe names, chef usernames and ingredient names look up candidate rows by the
+-- three-character substrings of the search term instead of scanning the table. Each table holds the
+-- distinct trigrams of the lower-cased value of every row and is kept in step by a row trigger.
+CREATE TABLE RECIPE_TRIGRAM (
+    trigram VARCHAR(3) NOT NULL,
+    row_id INT NOT NULL,
+    PRIMARY KEY (trigram, row_id)
+);
+CREATE INDEX idx_recipe_trigram_row ON RECIPE_TRIGRAM(row_id);
+CREATE TABLE CHEF_TRIGRAM (
+    trigram VARCHAR(3) NOT NULL,
+    row_id INT NOT NULL,
+    PRIMARY KEY (trigram, row_id)
+);
+CREATE INDEX idx_chef_trigram_row ON CHEF_TRIGRAM(row_id);
+CREATE TABLE INGREDIENT_TRIGRAM (
+    trigram VARCHAR(3) NOT NULL,
+    row_id INT NOT NULL,
+    PRIMARY KEY (trigram, row_id)
+);
+CREATE INDEX idx_ingredient_trigram_row ON INGREDIENT_TRIGRAM(row_id);
+CREATE TRIGGER trg_recipe_trigram AFTER INSERT, UPDATE, DELETE ON RECIPE FOR EACH ROW CALL 'com.revature.util.TrigramIndex';
+CREATE TRIGGER trg_chef_trigram AFTER INSERT, UPDATE, DELETE ON CHEF FOR EACH ROW CALL 'com.revature.util.TrigramIndex';
+CREATE TRIGGER trg_ingredient_trigram AFTER INSERT, UPDATE, DELETE ON INGREDIENT FOR EACH ROW CALL 'com.revature.util.TrigramIndex';
+
+-- Full-Text Tables:
+-- Full-text recipe searches read an inverted index over recipe names and instructions. RECIPE_TERM holds
+-- how often each distinct word occurs in every recipe and RECIPE_DOCUMENT holds each recipe's word count,
+-- which is what BM25 ranking needs. Both are kept in step by a row trigger.
+CREATE TABLE RECIPE_TERM (
+    term VARCHAR(64) NOT NULL,
+    row_id INT NOT NULL,
+    frequency INT NOT NULL,
+    PRIMARY KEY (term, row_id)
+);
+CREATE INDEX idx_recipe_term_row ON RECIPE_TERM(row_id);
+CREATE TABLE RECIPE_DOCUMENT (
+    row_id INT PRIMARY KEY,
+    term_count INT NOT NULL
+);
+CREATE TRIGGER trg_recipe_full_text AFTER INSERT, UPDATE, DELETE ON RECIPE FOR EACH ROW CALL 'com.revature.util.FullTextIndex';
+
+-- Change Counters:
+-- The in-memory indexes of which recipes use which ingredients are kept in step with RECIPE_INGREDIENT
+-- through this row trigger, which counts its changes and logs the ids of the recipes they touched.
+-- Each counted table has a row in CHANGE_VERSION that the trigger bumps in the writer's transaction.
+CREATE TABLE CHANGE_VERSION (
+    table_name VARCHAR(64) PRIMARY KEY,
+    version BIGINT NOT NULL
+);
+INSERT INTO CHANGE_VERSION (table_name, version) VALUES ('RECIPE_INGREDIENT', 0);
+CREATE TRIGGER trg_recipe_ingredient_changes AFTER INSERT, UPDATE, DELETE ON RECIPE_INGREDIENT FOR EACH ROW CALL 'com.revature.util.ChangeCounter';
+
 -- DO NOT EDIT ANY CODE BELOW THIS LINE!
 -- The below code inserts values into the tables you define.
 
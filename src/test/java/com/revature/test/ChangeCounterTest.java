@@ -0,0 +1,98 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.dao.ChefDAO;
+import com.revature.dao.IngredientDAO;
+import com.revature.dao.RecipeDAO;
+import com.revature.model.Recipe;
+import com.revature.model.RecipeMatch;
+import com.revature.util.ChangeCounter;
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DBUtil;
+import com.revature.util.PageOptions;
+
+class ChangeCounterTest {
+
+    private ConnectionUtil connectionUtil;
+    private RecipeDAO recipeDao;
+
+    @BeforeEach
+    void setUp() {
+        DBUtil.RUN_SQL();
+        connectionUtil = new ConnectionUtil();
+        recipeDao = new RecipeDAO(new ChefDAO(connectionUtil), new IngredientDAO(connectionUtil), connectionUtil);
+    }
+
+    @Test
+    void versionMovesOnlyOnceTheWriterCommits() throws SQLException {
+        try (Connection reader = connectionUtil.getConnection()) {
+            long before = ChangeCounter.version(reader, "RECIPE_INGREDIENT");
+            try (Connection writer = connectionUtil.getConnection(); Statement statement = writer.createStatement()) {
+                writer.setAutoCommit(false);
+                statement.executeUpdate("INSERT INTO RECIPE_INGREDIENT (recipe_id, ingredient_id, vol, unit) VALUES (3, 6, 1, 'cups')");
+                assertEquals(before, ChangeCounter.version(reader, "RECIPE_INGREDIENT"), "An uncommitted change should not count yet");
+
+                writer.commit();
+            }
+            long after = ChangeCounter.version(reader, "RECIPE_INGREDIENT");
+            assertTrue(after > before);
+            assertTrue(ChangeCounter.changesSince("RECIPE_INGREDIENT", before).contains(3));
+        }
+    }
+
+    @Test
+    void rolledBackChangesDoNotCount() throws SQLException {
+        try (Connection reader = connectionUtil.getConnection()) {
+            long before = ChangeCounter.version(reader, "RECIPE_INGREDIENT");
+            try (Connection writer = connectionUtil.getConnection(); Statement statement = writer.createStatement()) {
+                writer.setAutoCommit(false);
+                statement.executeUpdate("DELETE FROM RECIPE_INGREDIENT WHERE recipe_id = 1");
+                writer.rollback();
+            }
+            assertEquals(before, ChangeCounter.version(reader, "RECIPE_INGREDIENT"));
+        }
+    }
+
+    @Test
+    void ingredientSearchCountsAreRecountedAfterAnyRecipeIngredientWrite() throws SQLException {
+        try (Connection writer = connectionUtil.getConnection(); Statement statement = writer.createStatement()) {
+            statement.executeUpdate("INSERT INTO RECIPE_INGREDIENT (recipe_id, ingredient_id, vol, unit) VALUES "
+                    + "(3, 6, 1, 'cups'), (5, 6, 1, 'cups')");
+            assertEquals(2, recipeDao.searchRecipesByIngredients(List.of(6), List.of(), false, new PageOptions(1, 1))
+                    .getTotalElements());
+
+            // Written behind the DAO's back, so only the change counter sees it
+            statement.executeUpdate("INSERT INTO RECIPE_INGREDIENT (recipe_id, ingredient_id, vol, unit) VALUES (1, 6, 1, 'cups')");
+        }
+        assertEquals(3, recipeDao.searchRecipesByIngredients(List.of(6), List.of(), false, new PageOptions(1, 1))
+                .getTotalElements());
+    }
+
+    @Test
+    void indexesBuiltDuringAWriteCatchUpWhenItCommits() throws SQLException {
+        try (Connection writer = connectionUtil.getConnection(); Statement statement = writer.createStatement()) {
+            writer.setAutoCommit(false);
+            statement.executeUpdate("INSERT INTO RECIPE_INGREDIENT (recipe_id, ingredient_id, vol, unit) VALUES "
+                    + "(3, 6, 1, 'cups'), (5, 4, 1, 'Tbs'), (5, 5, 2, 'cups')");
+
+            // Built while the rows are still uncommitted, so they cannot be seen yet
+            assertEquals(List.of(), recipeDao.matchRecipes(List.of(6), 0, 10));
+            assertEquals(List.of(), recipeDao.getSimilarRecipes(4, 5));
+
+            writer.commit();
+        }
+        List<RecipeMatch> matches = recipeDao.matchRecipes(List.of(6), 0, 10);
+        assertEquals(List.of(3), matches.stream().map(match -> match.getRecipe().getId()).toList());
+        List<Recipe> similar = recipeDao.getSimilarRecipes(4, 5);
+        assertEquals(List.of(5), similar.stream().map(Recipe::getId).toList());
+    }
+}
@@ -3,6 +3,7 @@ package com.revature.test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.List;
 
@@ -13,6 +14,7 @@ import org.junit.jupiter.api.Test;
 import com.revature.model.Chef;
 import com.revature.dao.ChefDAO;
 import com.revature.util.ConnectionUtil;
+import com.revature.util.MetricsRegistry;
 
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -165,4 +167,71 @@ public class ChefDaoTest {
         verify(preparedStatement).setInt(1, testChef.getId());
         verify(preparedStatement).executeUpdate();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testChefLookupsAreCachedUntilUpdated() throws Exception {
+        // Arrange
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("id")).thenReturn(1);
+        when(resultSet.getString("username")).thenReturn("testChef");
+        when(resultSet.getString("email")).thenReturn("test@chef.com");
+        when(resultSet.getString("password")).thenReturn("password123");
+        when(resultSet.getBoolean("is_admin")).thenReturn(false);
+
+        MetricsRegistry metrics = new MetricsRegistry();
+        chefDAO.registerMetrics(metrics);
+
+        // Act
+        chefDAO.getChefById(1);
+        Chef byId = chefDAO.getChefById(1);
+        Chef byUsername = chefDAO.getChefByUsername("testChef");
+
+        // Assert
+        assertEquals(testChef, byId);
+        assertEquals(testChef, byUsername);
+        verify(preparedStatement, times(1)).executeQuery();
+        assertEquals(2, chefDAO.getChefCacheHits());
+        assertTrue(metrics.scrape().contains("chef_cache_hit_ratio 0.6666666666666666\n"));
+
+        chefDAO.updateChef(testChef);
+        chefDAO.getChefByUsername("testChef");
+        verify(preparedStatement, times(2)).executeQuery();
+    }
+
+    @Test
+    public void testChefReadBeforeAnUpdateIsNotCached() throws Exception {
+        // Arrange: the chef's password changes while the old row is being read
+        Chef updated = new Chef(1, "testChef", "test@chef.com", "newPassword", false);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getInt("id")).thenReturn(1);
+        when(resultSet.getString("username")).thenReturn("testChef");
+        when(resultSet.getString("email")).thenReturn("test@chef.com");
+        when(resultSet.getString("password")).thenAnswer(invocation -> {
+            chefDAO.updateChef(updated);
+            return "password123";
+        }).thenReturn("newPassword");
+        when(resultSet.getBoolean("is_admin")).thenReturn(false);
+
+        // Act
+        Chef inFlight = chefDAO.getChefById(1);
+        Chef next = chefDAO.getChefByUsername("testChef");
+
+        // Assert
+        assertEquals("password123", inFlight.getPassword());
+        assertEquals("newPassword", next.getPassword());
+        verify(preparedStatement, times(2)).executeQuery();
+    }
+
+    @Test
+    public void testDeleteChefNotifiesListeners() throws Exception {
+        // Arrange
+        int[] notified = { 0 };
+        chefDAO.onDelete(() -> notified[0]++);
+
+        // Act
+        chefDAO.deleteChef(testChef);
+
+        // Assert
+        assertEquals(1, notified[0]);
+    }
+}
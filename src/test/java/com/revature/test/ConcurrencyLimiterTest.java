@@ -0,0 +1,82 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.ConcurrencyLimiter;
+
+import io.javalin.Javalin;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+class ConcurrencyLimiterTest {
+
+    private ConcurrencyLimiter limiter;
+    private CountDownLatch entered;
+    private CountDownLatch release;
+    private Javalin app;
+    private OkHttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        limiter = new ConcurrencyLimiter(1, 100);
+        entered = new CountDownLatch(1);
+        release = new CountDownLatch(1);
+        app = Javalin.create();
+        app.before(limiter::acquire);
+        app.after(limiter::release);
+        app.get("/slow", ctx -> {
+            entered.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            ctx.result("done");
+        });
+        app.get("/fail", ctx -> {
+            throw new IllegalStateException("boom");
+        });
+        app.exception(Exception.class, (e, ctx) -> ctx.status(500));
+        app.start(0);
+        client = new OkHttpClient();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        app.stop();
+    }
+
+    @Test
+    void requestsBeyondTheLimitAreRejectedWith503() throws Exception {
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> status("/slow"));
+        entered.await(5, TimeUnit.SECONDS);
+
+        assertEquals(503, status("/slow"));
+
+        release.countDown();
+        assertEquals(200, first.get(5, TimeUnit.SECONDS));
+        assertEquals(1, limiter.getAvailablePermits());
+    }
+
+    @Test
+    void failedRequestsGiveTheirPermitBack() {
+        assertEquals(500, status("/fail"));
+        assertEquals(500, status("/fail"));
+        assertEquals(1, limiter.getAvailablePermits());
+    }
+
+    private int status(String path) {
+        Request request = new Request.Builder().url("http://localhost:" + app.port() + path).get().build();
+        try (Response response = client.newCall(request).execute()) {
+            return response.code();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
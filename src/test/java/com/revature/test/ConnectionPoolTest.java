@@ -0,0 +1,248 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.ConnectionPool;
+import com.revature.util.MetricsRegistry;
+import com.revature.util.QueryMonitor;
+
+class ConnectionPoolTest {
+
+    private JdbcDataSource dataSource;
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:pooltest;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void closedConnectionsAreReused() throws SQLException {
+        pool = new ConnectionPool(dataSource, 0, 2, 1_000, 60_000, 60_000);
+
+        for (int i = 0; i < 5; i++) {
+            try (Connection connection = pool.getConnection()) {
+                assertTrue(connection.isValid(1));
+            }
+        }
+
+        assertEquals(1, pool.getCreatedCount(), "Sequential borrows should share one physical connection");
+        assertEquals(5, pool.getBorrowCount());
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    void borrowingBeyondMaxSizeTimesOut() throws SQLException {
+        pool = new ConnectionPool(dataSource, 0, 1, 50, 60_000, 60_000);
+
+        try (Connection held = pool.getConnection()) {
+            assertThrows(SQLException.class, pool::getConnection);
+            assertEquals(1, pool.getTimeoutCount());
+        }
+        try (Connection afterRelease = pool.getConnection()) {
+            assertNotNull(afterRelease, "A connection should be available again once it is returned");
+        }
+    }
+
+    @Test
+    void returnedConnectionsAreResetAndProxyIsDisabled() throws SQLException {
+        pool = new ConnectionPool(dataSource, 0, 1, 1_000, 60_000, 60_000);
+
+        Connection first = pool.getConnection();
+        first.setAutoCommit(false);
+        first.close();
+
+        assertTrue(first.isClosed());
+        assertThrows(SQLException.class, first::createStatement);
+        try (Connection second = pool.getConnection()) {
+            assertTrue(second.getAutoCommit(), "Auto-commit should be restored before a connection is reused");
+        }
+    }
+
+    @Test
+    void connectionsHeldPastLeakThresholdAreReported() throws Exception {
+        pool = new ConnectionPool(dataSource, 0, 1, 1_000, 60_000, 10);
+
+        try (Connection held = pool.getConnection()) {
+            Thread.sleep(1_500);
+        }
+
+        assertEquals(1, pool.getLeakCount());
+    }
+
+    @Test
+    void leakTracingNamesTheBorrowerOnlyWhenSwitchedOn() throws Exception {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        PrintStream stderr = System.err;
+        System.setErr(new PrintStream(log, true, StandardCharsets.UTF_8));
+        try {
+            pool = new ConnectionPool(dataSource, 0, 1, 1_000, 60_000, 10);
+            try (Connection held = pool.getConnection()) {
+                Thread.sleep(1_500);
+            }
+            pool.setLeakTrace(true);
+            try (Connection held = pool.getConnection()) {
+                Thread.sleep(1_500);
+            }
+        } finally {
+            System.setErr(stderr);
+        }
+
+        String lines = log.toString(StandardCharsets.UTF_8);
+        assertEquals(2, pool.getLeakCount());
+        assertTrue(lines.contains("switch on leak tracing"), lines);
+        assertEquals(1, lines.split("Connection borrowed here", -1).length - 1, lines);
+        assertTrue(lines.contains("leakTracingNamesTheBorrowerOnlyWhenSwitchedOn"), lines);
+    }
+
+    @Test
+    void preparedStatementsAreCachedPerConnection() throws SQLException {
+        pool = new ConnectionPool(dataSource, 0, 1, 1_000, 60_000, 60_000, 2);
+
+        for (int i = 1; i <= 3; i++) {
+            try (Connection connection = pool.getConnection();
+                    PreparedStatement statement = connection.prepareStatement("SELECT ?")) {
+                statement.setInt(1, i);
+                try (ResultSet rs = statement.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(i, rs.getInt(1));
+                }
+                assertSame(connection, statement.getConnection());
+            }
+        }
+
+        assertEquals(1, pool.getStatementCacheMisses());
+        assertEquals(2, pool.getStatementCacheHits());
+    }
+
+    @Test
+    void statementInUseIsNotSharedAndEldestIsEvicted() throws SQLException {
+        pool = new ConnectionPool(dataSource, 0, 1, 1_000, 60_000, 60_000, 2);
+
+        try (Connection connection = pool.getConnection()) {
+            PreparedStatement first = connection.prepareStatement("SELECT 1");
+            PreparedStatement second = connection.prepareStatement("SELECT 1");
+            assertNotSame(first, second, "An open cached statement must not be handed out twice");
+            first.close();
+            second.close();
+            assertTrue(first.isClosed());
+            assertThrows(SQLException.class, first::executeQuery);
+
+            connection.prepareStatement("SELECT 2").close();
+            connection.prepareStatement("SELECT 3").close();
+        }
+
+        assertEquals(1, pool.getStatementCacheEvictions());
+    }
+
+    @Test
+    void monitoredQueriesRecordDurationAndRows() throws SQLException {
+        pool = new ConnectionPool(dataSource, 0, 1, 1_000, 60_000, 60_000);
+        MetricsRegistry metrics = new MetricsRegistry();
+        pool.setQueryMonitor(new QueryMonitor(metrics, 60_000));
+        String select = "SELECT X FROM SYSTEM_RANGE(1, 10)\n WHERE X > ?";
+
+        try (Connection connection = pool.getConnection()) {
+            for (int i = 0; i < 2; i++) {
+                try (PreparedStatement statement = connection.prepareStatement(select)) {
+                    statement.setInt(1, 4);
+                    ResultSet rows = statement.executeQuery();
+                    while (rows.next()) {
+                        rows.getInt(1);
+                    }
+                }
+            }
+            connection.createStatement().executeUpdate("CREATE TABLE IF NOT EXISTS MONITORED (ID INT)");
+        }
+
+        String label = "SELECT X FROM SYSTEM_RANGE(1, 10) WHERE X > ?";
+        assertEquals(2, metrics.getHistogram("db_query_duration_seconds", "query", label).getCount());
+        assertEquals(12, metrics.getHistogram("db_query_rows", "query", label).getSum(),
+                "Both executions should have fetched 6 rows");
+        assertEquals(1, metrics.getHistogram("db_connection_acquire_seconds").getCount());
+        assertFalse(metrics.scrape().contains("CREATE TABLE"), "DDL should not be monitored");
+    }
+
+    @Test
+    void poolFiguresAreReadWhenScraped() throws SQLException {
+        pool = new ConnectionPool(dataSource, 0, 2, 1_000, 60_000, 60_000);
+        MetricsRegistry metrics = new MetricsRegistry();
+        pool.registerMetrics(metrics);
+
+        try (Connection connection = pool.getConnection()) {
+            connection.prepareStatement("SELECT 1").close();
+            connection.prepareStatement("SELECT 1").close();
+            String text = metrics.scrape();
+            assertTrue(text.contains("# TYPE db_pool_connections gauge\n"), text);
+            assertTrue(text.contains("db_pool_connections{state=\"active\"} 1\n"), text);
+            assertTrue(text.contains("db_pool_connections{state=\"idle\"} 0\n"), text);
+            assertTrue(text.contains("db_pool_max_connections 2\n"), text);
+            assertTrue(text.contains("# TYPE db_pool_timeouts_total counter\ndb_pool_timeouts_total 0\n"), text);
+            assertTrue(text.contains("db_statement_cache_hits_total 1\n"), text);
+            assertTrue(text.contains("db_statement_cache_misses_total 1\n"), text);
+        }
+
+        assertTrue(metrics.scrape().contains("db_pool_connections{state=\"idle\"} 1\n"));
+    }
+
+    @Test
+    void slowQueriesAreLoggedWithParameterTypesButNotValues() throws SQLException {
+        pool = new ConnectionPool(dataSource, 0, 1, 1_000, 60_000, 60_000);
+        pool.setQueryMonitor(new QueryMonitor(new MetricsRegistry(), 0));
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        PrintStream stderr = System.err;
+
+        try (Connection connection = pool.getConnection()) {
+            connection.createStatement().executeUpdate("CREATE TABLE IF NOT EXISTS LOGGED (NAME VARCHAR, PASSWORD VARCHAR, AGE INT)");
+            System.setErr(new PrintStream(log, true, StandardCharsets.UTF_8));
+            try (PreparedStatement statement = connection.prepareStatement("SELECT * FROM LOGGED WHERE PASSWORD = ?")) {
+                statement.setString(1, "hunter2");
+                statement.executeQuery().close();
+            }
+            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO LOGGED VALUES (?, ?, ?)")) {
+                statement.setString(1, "ann");
+                statement.setString(2, "secret-one");
+                statement.setInt(3, 30);
+                statement.addBatch();
+                statement.setString(1, "bob");
+                statement.setNull(2, Types.VARCHAR);
+                statement.setInt(3, 40);
+                statement.addBatch();
+                statement.executeBatch();
+            }
+        } finally {
+            System.setErr(stderr);
+        }
+
+        String lines = log.toString(StandardCharsets.UTF_8);
+        assertTrue(lines.contains("slow_query duration_ms="), lines);
+        assertTrue(lines.contains("rows=0 sql=\"SELECT * FROM LOGGED WHERE PASSWORD = ?\" params=[String(7)]"), lines);
+        assertTrue(lines.contains("rows=2 sql=\"INSERT INTO LOGGED VALUES (?, ?, ?)\" "
+                + "params=[[String(3), String(10), Integer], [String(3), null, Integer]]"), lines);
+        assertFalse(lines.contains("hunter2") || lines.contains("secret-one"), "Bind values must not be logged");
+    }
+}
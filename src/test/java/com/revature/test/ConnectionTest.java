@@ -13,9 +13,9 @@ class ConnectionTest {
 
 	@Test
 	void getConnectionTest() throws SQLException {
-		Connection connection = new ConnectionUtil().getConnection();
-		assertNotNull(connection, () -> "Connection should not be null");
-		connection.close();
+		try (Connection connection = new ConnectionUtil().getConnection()) {
+			assertNotNull(connection, () -> "Connection should not be null");
+		}
 	}
 
 }
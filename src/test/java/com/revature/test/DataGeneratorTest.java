@@ -0,0 +1,75 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.ConnectionUtil;
+import com.revature.util.DBUtil;
+import com.revature.util.DataGenerator;
+
+public class DataGeneratorTest {
+
+    @BeforeEach
+    void setupTestsData() {
+        DBUtil.RUN_SQL();
+    }
+
+    @AfterEach
+    void resetDatabase() {
+        DBUtil.RUN_SQL();
+    }
+
+    @Test
+    void loadsTheRequestedRowsWithSkewedPopularity() throws SQLException {
+        try (Connection conn = new ConnectionUtil().getConnection()) {
+            new DataGenerator(10, 40, 300, 7).load(conn);
+
+            assertEquals(4 + 10, count(conn, "SELECT COUNT(*) FROM CHEF"));
+            assertEquals(6 + 40, count(conn, "SELECT COUNT(*) FROM INGREDIENT"));
+            assertEquals(5 + 300, count(conn, "SELECT COUNT(*) FROM RECIPE"));
+            assertEquals(0, count(conn, "SELECT COUNT(*) FROM (SELECT recipe_id FROM RECIPE_INGREDIENT WHERE recipe_id > 5"
+                    + " GROUP BY recipe_id HAVING COUNT(*) < 3 OR COUNT(*) > 8 OR COUNT(DISTINCT ingredient_id) < COUNT(*))"),
+                    "Every recipe should have 3 to 8 distinct ingredients");
+
+            int staple = count(conn, "SELECT COUNT(*) FROM RECIPE_INGREDIENT ri JOIN INGREDIENT i ON i.id = ri.ingredient_id"
+                    + " WHERE i.name = '" + DataGenerator.ingredientName(1) + "'");
+            int rare = count(conn, "SELECT COUNT(*) FROM RECIPE_INGREDIENT ri JOIN INGREDIENT i ON i.id = ri.ingredient_id"
+                    + " WHERE i.name = '" + DataGenerator.ingredientName(40) + "'");
+            assertTrue(staple > 5 * rare, "The most popular ingredient should be far more common than the least");
+            assertTrue(count(conn, "SELECT MAX(c) FROM (SELECT COUNT(*) c FROM RECIPE GROUP BY chef_id)") > 300 / 10 * 2,
+                    "The hottest chef should own far more than an even share of recipes");
+        }
+    }
+
+    @Test
+    void theSameSeedGeneratesTheSameRows() throws SQLException {
+        String links = "SELECT SUM(ri.recipe_id * 31 + ri.ingredient_id * 7 + ri.vol * 100) FROM RECIPE_INGREDIENT ri";
+        int first;
+        try (Connection conn = new ConnectionUtil().getConnection()) {
+            new DataGenerator(10, 40, 100, 7).load(conn);
+            first = count(conn, links);
+        }
+        DBUtil.RUN_SQL();
+        try (Connection conn = new ConnectionUtil().getConnection()) {
+            new DataGenerator(10, 40, 100, 7).load(conn);
+            assertEquals(first, count(conn, links));
+        }
+    }
+
+    private static int count(Connection conn, String sql) throws SQLException {
+        try (Statement statement = conn.createStatement();
+                ResultSet set = statement.executeQuery(sql)) {
+            set.next();
+            return set.getInt(1);
+        }
+    }
+}
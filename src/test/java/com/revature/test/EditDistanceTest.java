@@ -0,0 +1,34 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.EditDistance;
+
+class EditDistanceTest {
+
+    @Test
+    void distancesWithinTheBoundAreExact() {
+        assertEquals(0, EditDistance.bounded("lasagna", "lasagna", 2));
+        assertEquals(1, EditDistance.bounded("lasagana", "lasagna", 2));
+        assertEquals(2, EditDistance.bounded("lsagnaa", "lasagna", 2));
+        assertEquals(3, EditDistance.bounded("kitten", "sitting", 3));
+        assertEquals(2, EditDistance.bounded("", "ab", 2));
+    }
+
+    @Test
+    void distancesBeyondTheBoundAreCapped() {
+        assertEquals(3, EditDistance.bounded("kitten", "sitting", 2));
+        assertEquals(2, EditDistance.bounded("soup", "stew", 1));
+        assertEquals(2, EditDistance.bounded("a", "abcd", 1));
+    }
+
+    @Test
+    void queriesMatchWholeNamesOrRunsOfWordsIgnoringCase() {
+        assertEquals(1, EditDistance.toWords("lasagana", "Vegetable Lasagna", 2));
+        assertEquals(1, EditDistance.toWords("Lemon rise", "lemon rice soup", 2));
+        assertEquals(0, EditDistance.toWords("stone soup", "Stone Soup", 2));
+        assertEquals(3, EditDistance.toWords("chowder", "carrot soup", 2));
+    }
+}
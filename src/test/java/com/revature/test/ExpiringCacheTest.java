@@ -0,0 +1,55 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.ExpiringCache;
+
+class ExpiringCacheTest {
+
+    @Test
+    void getOrLoadCachesValuesAndCountsHits() {
+        ExpiringCache<String, Integer> cache = new ExpiringCache<>(10, 60_000);
+        int[] loads = {0};
+
+        assertEquals(42, cache.getOrLoad("a", () -> { loads[0]++; return 42; }));
+        assertEquals(42, cache.getOrLoad("a", () -> { loads[0]++; return 42; }));
+
+        assertEquals(1, loads[0], "The loader should only run on the first lookup");
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(0.5, cache.getHitRatio());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedWhenFull() {
+        ExpiringCache<Integer, String> cache = new ExpiringCache<>(2, 60_000);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+        cache.put(3, "three");
+
+        assertEquals("one", cache.get(1));
+        assertNull(cache.get(2), "Entry 2 was least recently used and should have been evicted");
+        assertEquals("three", cache.get(3));
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void entriesExpireAfterTimeToLive() throws InterruptedException {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, 20);
+        cache.put("k", "v");
+        Thread.sleep(40);
+
+        assertNull(cache.get("k"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void nullValuesAreNotCached() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(10, 60_000);
+        assertNull(cache.getOrLoad("missing", () -> null));
+        assertEquals(0, cache.size());
+    }
+}
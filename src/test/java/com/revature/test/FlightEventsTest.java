@@ -0,0 +1,82 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Optional;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+
+import com.revature.model.Chef;
+import com.revature.service.AuthenticationService;
+import com.revature.service.ChefService;
+import com.revature.util.ConnectionPool;
+import com.revature.util.ExpiringCache;
+import com.revature.util.MetricsRegistry;
+import com.revature.util.QueryMonitor;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+class FlightEventsTest {
+
+    @Test
+    void cacheSessionAndQueryEventsAreRecorded() throws Exception {
+        Path file = Files.createTempFile("flight-events", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.revature.CacheAccess");
+            recording.enable("com.revature.SessionLookup");
+            recording.enable("com.revature.Query");
+            recording.start();
+
+            ExpiringCache<Integer, String> cache = new ExpiringCache<>("test", 10, 60_000);
+            cache.get(1);
+            cache.put(1, "one");
+            cache.get(1);
+
+            ChefService chefService = mock(ChefService.class);
+            Chef chef = new Chef(1, "JoeCool", "snoopy@null.com", "redbarron", false);
+            when(chefService.findChefByUsername("JoeCool")).thenReturn(Optional.of(chef));
+            AuthenticationService authService = new AuthenticationService(chefService);
+            String token = authService.login(new Chef("JoeCool", "redbarron"));
+            authService.getChefFromSessionToken(token);
+            authService.getChefFromAuthorizationHeader("Bearer not-a-session");
+
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL("jdbc:h2:mem:flightevents;DB_CLOSE_DELAY=-1");
+            try (ConnectionPool pool = new ConnectionPool(dataSource, 0, 1, 1_000, 60_000, 60_000)) {
+                pool.setQueryMonitor(new QueryMonitor(new MetricsRegistry(), 60_000));
+                try (Connection connection = pool.getConnection();
+                        PreparedStatement statement = connection.prepareStatement("SELECT X FROM SYSTEM_RANGE(1, 3)")) {
+                    ResultSet rows = statement.executeQuery();
+                    while (rows.next()) {
+                        rows.getInt(1);
+                    }
+                }
+            }
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        Files.delete(file);
+        assertEquals(List.of(false, true), events.stream().filter(e -> e.getEventType().getName().equals("com.revature.CacheAccess"))
+                .filter(e -> e.getString("cache").equals("test")).map(e -> e.getBoolean("hit")).toList());
+        assertEquals(List.of(true, false), events.stream().filter(e -> e.getEventType().getName().equals("com.revature.SessionLookup"))
+                .map(e -> e.getBoolean("found")).toList());
+        RecordedEvent query = events.stream().filter(e -> e.getEventType().getName().equals("com.revature.Query"))
+                .findFirst().orElseThrow();
+        assertEquals("SELECT X FROM SYSTEM_RANGE(1, 3)", query.getString("sql"));
+        assertEquals(3, query.getLong("rows"));
+    }
+}
@@ -132,4 +132,18 @@ public class IngredientDaoTest {
                 "The returned ingredients don't match the expected ingredients.");
     }
 
+    @Test
+    void searchFollowsRenamedIngredientsTest() {
+        Ingredient ingredient = ingredientDao.getIngredientById(1);
+        ingredient.setName("parsnip");
+        ingredientDao.updateIngredient(ingredient);
+
+        assertIterableEquals(List.of(ingredient), ingredientDao.searchIngredients("snip"),
+                "The new name should be found through the trigram index");
+        assertIterableEquals(List.of(), ingredientDao.searchIngredients("carr"),
+                "The old name should no longer be found");
+        assertIterableEquals(List.of(), ingredientDao.searchIngredients("OTA"),
+                "Ingredient searches should stay case sensitive");
+    }
+
 }
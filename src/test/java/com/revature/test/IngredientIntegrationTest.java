@@ -1,6 +1,7 @@
 package com.revature.test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import java.sql.SQLException;
 
@@ -13,6 +14,9 @@ import com.revature.service.IngredientService;
 import com.revature.util.ConnectionUtil;
 import com.revature.util.DBUtil;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import io.javalin.Javalin;
 import io.javalin.testtools.JavalinTest;
 
@@ -93,6 +97,19 @@ public class IngredientIntegrationTest {
         });
     }
 
+    @Test
+    void testSuggestIngredients() {
+        JavalinTest.test(app, (server, client) -> {
+            assertEquals("[{\"id\":1,\"name\":\"carrot\"},{\"id\":4,\"name\":\"lemon\"},{\"id\":2,\"name\":\"potato\"}]", client.get("/ingredients/suggest?limit=3").body().string());
+            assertEquals("[{\"id\":3,\"name\":\"tomato\"}]", client.get("/ingredients/suggest?prefix=T").body().string());
+
+            client.post("/ingredients", "{\"name\": \"Tofu\"}");
+            client.put("/ingredients/2", "{\"id\": 2, \"name\": \"tamarind\"}");
+            client.delete("/ingredients/3");
+            assertEquals("[{\"id\":2,\"name\":\"tamarind\"},{\"id\":7,\"name\":\"Tofu\"}]", client.get("/ingredients/suggest?prefix=t").body().string());
+        });
+    }
+
     @Test
     void testGetIngredientsByTerm() {
         JavalinTest.test(app, (server, client) -> {
@@ -109,4 +126,29 @@ public class IngredientIntegrationTest {
         });
     }
     
-}
\ No newline at end of file
+
+    @Test
+    void testCursorPageIngredients() {
+        JavalinTest.test(app, (server, client) -> {
+            ObjectMapper mapper = new ObjectMapper();
+            JsonNode first = mapper.readTree(client.get("/ingredients?after=&pageSize=4&sortBy=name").body().string());
+            assertEquals("[{\"id\":1,\"name\":\"carrot\"},{\"id\":4,\"name\":\"lemon\"},{\"id\":2,\"name\":\"potato\"},{\"id\":5,\"name\":\"rice\"}]",
+                    first.get("items").toString());
+
+            String cursor = first.get("nextCursor").asText();
+            JsonNode second = mapper.readTree(client.get("/ingredients?pageSize=4&sortBy=name&after=" + cursor).body().string());
+            assertEquals("[{\"id\":6,\"name\":\"stone\"},{\"id\":3,\"name\":\"tomato\"}]", second.get("items").toString());
+            assertFalse(second.has("nextCursor"), "The last page should not have a next cursor");
+        });
+    }
+
+    @Test
+    void testCursorFromAnotherSortIsRejected() {
+        JavalinTest.test(app, (server, client) -> {
+            ObjectMapper mapper = new ObjectMapper();
+            String cursor = mapper.readTree(client.get("/ingredients?after=&pageSize=2&sortBy=name").body().string())
+                    .get("nextCursor").asText();
+            assertEquals(400, client.get("/ingredients?pageSize=2&sortBy=id&after=" + cursor).code());
+        });
+    }
+}
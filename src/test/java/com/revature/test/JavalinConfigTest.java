@@ -1,7 +1,13 @@
 package com.revature.test;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 import java.sql.SQLException;
 
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -18,6 +24,10 @@ import com.revature.service.RecipeService;
 import com.revature.util.AdminMiddleware;
 import com.revature.util.ConnectionUtil;
 import com.revature.util.JavalinAppUtil;
+import com.revature.util.JavalinAppUtil.ThreadMode;
+
+import io.javalin.Javalin;
+import io.javalin.util.ConcurrencyUtil;
 
 class JavalinConfigTest {
 
@@ -58,4 +68,19 @@ class JavalinConfigTest {
 		
 	}
 
+	@Test
+	void eachAppKeepsItsOwnThreadMode() {
+		JavalinAppUtil appUtil = new JavalinAppUtil(recipeController, authController, ingredientController);
+		boolean useLoom = ConcurrencyUtil.INSTANCE.getUseLoom();
+
+		Javalin virtualApp = appUtil.getApp(ThreadMode.VIRTUAL);
+		Javalin platformApp = appUtil.getApp(ThreadMode.PLATFORM);
+
+		assertFalse(virtualApp.jettyServer().server().getThreadPool() instanceof QueuedThreadPool,
+				"The virtual app should not run handlers on a platform thread pool");
+		assertTrue(platformApp.jettyServer().server().getThreadPool() instanceof QueuedThreadPool,
+				"Creating the platform app should not change the virtual app's pool, or the other way around");
+		assertEquals(useLoom, ConcurrencyUtil.INSTANCE.getUseLoom(), "The JVM-wide flag should be put back");
+	}
+
 }
\ No newline at end of file
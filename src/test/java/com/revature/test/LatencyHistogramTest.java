@@ -0,0 +1,51 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.LatencyHistogram;
+import com.revature.util.MetricsRegistry;
+
+class LatencyHistogramTest {
+
+    @Test
+    void percentilesAreWithinThePrecisionOfTheirBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int micros = 1; micros <= 100_000; micros++) {
+            histogram.record(micros);
+        }
+        long[] values = histogram.valuesAt(0.5, 0.99, 1.0);
+        assertEquals(50_000, values[0], 50_000 * 0.035);
+        assertEquals(99_000, values[1], 99_000 * 0.035);
+        assertEquals(100_000, values[2], 100_000 * 0.035);
+        assertTrue(values[0] >= 50_000 && values[1] >= 99_000 && values[2] >= 100_000,
+                "Percentiles report the upper bound of their bucket");
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000L * 100_001 / 2, histogram.getSum());
+    }
+
+    @Test
+    void smallValuesAreExactAndAnEmptyHistogramReadsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertArrayEquals(new long[] { 0 }, histogram.valuesAt(0.99));
+        histogram.record(7);
+        histogram.record(-3);
+        assertArrayEquals(new long[] { 0, 7 }, histogram.valuesAt(0.5, 1.0));
+    }
+
+    @Test
+    void registryRendersPrometheusText() {
+        MetricsRegistry metrics = new MetricsRegistry();
+        metrics.increment("jobs_total", "Jobs run.", "queue", "a\"b");
+        metrics.increment("jobs_total", "Jobs run.", "queue", "a\"b");
+        metrics.record("job_duration_seconds", "Job latency.", 1_500, "queue", "main");
+
+        String text = metrics.scrape();
+        assertTrue(text.contains("# TYPE jobs_total counter\njobs_total{queue=\"a\\\"b\"} 2\n"), text);
+        assertTrue(text.contains("# TYPE job_duration_seconds summary\n"), text);
+        assertTrue(text.contains("job_duration_seconds{queue=\"main\",quantile=\"0.99\"} 0.0015"), text);
+        assertTrue(text.contains("job_duration_seconds_count{queue=\"main\"} 1\n"), text);
+        assertThrows(IllegalArgumentException.class, () -> metrics.record("jobs_total", "Jobs run.", 1));
+    }
+}
@@ -65,8 +65,8 @@ class LoginIntegrationTest {
 		recipeService = new RecipeService(recipeDAO);
 		ingredientService = new IngredientService(ingredientDAO);
 		chefService = new ChefService(chefDAO);
-		adminMiddleware = new AdminMiddleware(null);
 		authService = new AuthenticationService(chefService);
+		adminMiddleware = new AdminMiddleware(authService, "DELETE");
 		authController = new AuthenticationController(chefService, authService);
 		recipeController = new RecipeController(recipeService, authService);
 		ingredientController = new IngredientController(ingredientService);
@@ -81,6 +81,7 @@ class LoginIntegrationTest {
 	void tearDownTestsData() {
 
 		app.close();
+		assertEquals(0, ConnectionUtil.getPool().getActiveCount(), "Every borrowed connection should be returned");
 
 	}
 
@@ -212,4 +213,38 @@ class LoginIntegrationTest {
 
 	}
 
+	@Test
+	void testOnlyAdminsCanDeleteRecipes() throws IOException {
+		String adminToken = login("ChefTrevin", "trevature");
+		String chefToken = login("JoeCool", "redbarron");
+
+		Request chefDelete = new Request.Builder().url(BASE_URL + "/recipes/2")
+				.addHeader("Authorization", "Bearer " + chefToken).delete().build();
+		Response chefDeleteResponse = client.newCall(chefDelete).execute();
+		assertEquals(401, chefDeleteResponse.code(), () -> "a non-admin should not be able to delete a recipe");
+
+		Request adminDelete = new Request.Builder().url(BASE_URL + "/recipes/2")
+				.addHeader("Authorization", "Bearer " + adminToken).delete().build();
+		Response adminDeleteResponse = client.newCall(adminDelete).execute();
+		assertEquals(200, adminDeleteResponse.code(), () -> "an admin should be able to delete a recipe");
+
+		Request getRequest = new Request.Builder().url(BASE_URL + "/recipes/2").get().build();
+		Response getResponse = client.newCall(getRequest).execute();
+		assertEquals(404, getResponse.code(), () -> "recipe should have been deleted");
+	}
+
+	/**
+	 * Logs a chef in and returns their session token.
+	 */
+	private String login(String username, String password) throws IOException {
+		RequestBody loginBody = RequestBody.create(
+				"{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}",
+				MediaType.get("application/json; charset=utf-8"));
+		Request loginRequest = new Request.Builder().url(BASE_URL + "/login").post(loginBody).build();
+		Response loginResponse = client.newCall(loginRequest).execute();
+		String token = loginResponse.body().string();
+		assertEquals(200, loginResponse.code(), () -> "login failed for " + username + ": " + token);
+		return token;
+	}
+
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.MinHashIndex;
+
+class MinHashIndexTest {
+
+    @Test
+    void similarSetsAreRankedByJaccardSimilarity() {
+        MinHashIndex index = new MinHashIndex();
+        index.put(1, List.of(1, 2, 3, 4, 5, 6, 7, 8));
+        index.put(2, List.of(1, 2, 3, 4, 5, 6, 7, 8, 9));
+        index.put(3, List.of(1, 2, 3, 4, 5, 6, 10, 11));
+        index.put(4, List.of(20, 21, 22, 23));
+
+        assertEquals(List.of(2, 3), index.similarTo(1, 10));
+        assertEquals(List.of(2), index.similarTo(1, 1));
+        assertEquals(List.of(), index.similarTo(4, 10));
+        assertEquals(List.of(), index.similarTo(99, 10));
+    }
+
+    @Test
+    void replacedAndRemovedSetsAreReindexed() {
+        MinHashIndex index = new MinHashIndex();
+        index.put(1, List.of(1, 2, 3, 4));
+        index.put(2, List.of(1, 2, 3, 4));
+        index.put(3, List.of(1, 2, 3, 5));
+
+        index.put(2, List.of(7, 8, 9));
+        index.remove(3);
+        index.put(5, List.of());
+
+        assertEquals(List.of(), index.similarTo(1, 10));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void jaccardIsSharedOverCombined() {
+        assertEquals(0.5, MinHashIndex.jaccard(new int[] { 1, 2, 3 }, new int[] { 2, 3, 4 }));
+        assertEquals(1.0, MinHashIndex.jaccard(new int[] { 1 }, new int[] { 1 }));
+        assertEquals(0.0, MinHashIndex.jaccard(new int[] { 1 }, new int[] { 2 }));
+    }
+}
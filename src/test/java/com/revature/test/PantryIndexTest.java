@@ -0,0 +1,41 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.PantryIndex;
+
+class PantryIndexTest {
+
+    private final PantryIndex index = new PantryIndex.Builder()
+            .add(1, 10).add(1, 11)
+            .add(2, 10).add(2, 11).add(2, 12).add(2, 12)
+            .add(3, 13)
+            .add(4, 10).add(4, 12).add(4, 13).add(4, 14)
+            .build();
+
+    @Test
+    void matchesAreRankedByCoverageThenByMissingIngredients() {
+        List<PantryIndex.Match> matches = index.match(List.of(10, 11, 12, 99), 0.5, 10);
+
+        assertEquals(List.of(1, 2, 4), recipeIds(matches));
+        assertEquals(3, matches.get(1).getRequired(), "Repeated pairs should count once");
+        assertEquals(0.5, matches.get(2).getCoverage());
+    }
+
+    @Test
+    void coverageAndLimitAreApplied() {
+        assertEquals(List.of(1), recipeIds(index.match(List.of(10, 11, 10), 1, 10)));
+        assertEquals(List.of(1, 2), recipeIds(index.match(List.of(10, 11), 0, 2)));
+        assertEquals(List.of(), recipeIds(index.match(List.of(), 0, 10)));
+        assertEquals(4, index.size());
+    }
+
+    private List<Integer> recipeIds(List<PantryIndex.Match> matches) {
+        return matches.stream().map(PantryIndex.Match::getRecipeId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,43 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.revature.model.Ingredient;
+import com.revature.util.PrefixIndex;
+
+class PrefixIndexTest {
+
+    private PrefixIndex<Ingredient> index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PrefixIndex<>(Ingredient::getId, Ingredient::getName);
+        index.replaceAll(List.of(new Ingredient(1, "rice"), new Ingredient(2, "Rice flour"), new Ingredient(3, "rhubarb"),
+                new Ingredient(4, "lemon")));
+    }
+
+    @Test
+    void prefixesMatchIgnoringCaseInNameOrder() {
+        assertEquals(List.of(new Ingredient(1, "rice"), new Ingredient(2, "Rice flour")), index.startingWith("RI", 10));
+        assertEquals(List.of(new Ingredient(3, "rhubarb")), index.startingWith("r", 1));
+        assertEquals(List.of(), index.startingWith("z", 10));
+    }
+
+    @Test
+    void putAndRemoveKeepTheIndexSorted() {
+        index.put(new Ingredient(4, "radish"));
+        index.put(new Ingredient(5, "raisin"));
+        index.remove(1);
+        index.remove(42);
+
+        assertEquals(4, index.size());
+        assertEquals(List.of(new Ingredient(4, "radish"), new Ingredient(5, "raisin"), new Ingredient(3, "rhubarb"),
+                new Ingredient(2, "Rice flour")), index.startingWith("r", 10));
+        assertEquals(List.of(), index.startingWith("lemon", 10), "A renamed value should not be found by its old name");
+    }
+}
@@ -81,13 +81,18 @@ class RecipeDaoTest {
         when(resultSet.getString("name")).thenReturn(expectedRecipe.getName());
         when(resultSet.getString("instructions")).thenReturn(expectedRecipe.getInstructions());
         when(resultSet.getInt("chef_id")).thenReturn(expectedRecipe.getAuthor().getId());
-        when(chefDao.getChefById(anyInt())).thenReturn(expectedRecipe.getAuthor());
+        when(resultSet.getString("chef_username")).thenReturn(expectedRecipe.getAuthor().getUsername());
+        when(resultSet.getString("chef_email")).thenReturn(expectedRecipe.getAuthor().getEmail());
+        when(resultSet.getString("chef_password")).thenReturn(expectedRecipe.getAuthor().getPassword());
+        when(resultSet.getBoolean("chef_is_admin")).thenReturn(expectedRecipe.getAuthor().isAdmin());
 
         // Act
         Recipe actualRecipe = recipeDao.getRecipeById(1);
 
         // Assert
         assertEquals(expectedRecipe, actualRecipe);
+        assertEquals(expectedRecipe.getAuthor(), actualRecipe.getAuthor());
+        verifyNoInteractions(chefDao);
 
         verify(preparedStatement).setInt(1, 1);
     }
@@ -95,7 +100,8 @@ class RecipeDaoTest {
     @Test
     void getAllRecipes_Success() throws SQLException {
         // Arrange
-        String expectedSQL = "SELECT * FROM RECIPE ORDER BY id";
+        String expectedSQL = "SELECT r.id, r.name, r.instructions, r.chef_id, c.username AS chef_username, c.email AS chef_email, "
+                + "c.password AS chef_password, c.is_admin AS chef_is_admin FROM recipe r JOIN chef c ON c.id = r.chef_id ORDER BY r.id";
         when(connectionUtil.getConnection()).thenReturn(connection); // Mock the connection
         when(connection.createStatement()).thenReturn(preparedStatement); // Mock the statement
         when(preparedStatement.executeQuery(expectedSQL)).thenReturn(resultSet); // Mock the query execution
@@ -111,15 +117,19 @@ class RecipeDaoTest {
                 .thenReturn("Put carrot in water. Boil. Maybe salt.",
                         "Put potato in water. Boil. Maybe salt.");
         when(resultSet.getInt("chef_id")).thenReturn(1, 2);
-
-        when(chefDao.getChefById(1)).thenReturn(chefList.get(0));
-        when(chefDao.getChefById(2)).thenReturn(chefList.get(1));
+        when(resultSet.getString("chef_username")).thenReturn("JoeCool", "CharlieBrown");
+        when(resultSet.getString("chef_email")).thenReturn("snoopy@null.com", "goodgrief@peanuts.com");
+        when(resultSet.getString("chef_password")).thenReturn("redbarron", "thegreatpumpkin");
+        when(resultSet.getBoolean("chef_is_admin")).thenReturn(false, false);
 
         // Act
         List<Recipe> actualRecipes = recipeDao.getAllRecipes();
 
         // Assert
         assertEquals(recipeList, actualRecipes);
+        assertEquals(chefList.get(0), actualRecipes.get(0).getAuthor());
+        assertEquals(chefList.get(1), actualRecipes.get(1).getAuthor());
+        verifyNoInteractions(chefDao); // Authors come from the JOIN, not per-row lookups
         verify(connection).createStatement(); // Verify the statement creation
         verify(preparedStatement).executeQuery(expectedSQL); // Verify the query execution
         verify(resultSet, times(3)).next(); // Verify result set navigation
@@ -188,9 +198,8 @@ class RecipeDaoTest {
         when(resultSet.getString("instructions"))
                 .thenReturn("Put carrot in water. Boil. Maybe salt.",
                         "Put potato in water. Boil. Maybe salt.");
-        when(resultSet.getInt("author_id")).thenReturn(1, 2);
-        when(chefDao.getChefById(1)).thenReturn(chefList.get(0));
-        when(chefDao.getChefById(2)).thenReturn(chefList.get(1));
+        when(resultSet.getInt("chef_id")).thenReturn(1, 2);
+        when(resultSet.getString("chef_username")).thenReturn("JoeCool", "CharlieBrown");
 
         // Act
         List<Recipe> results = recipeDao.searchRecipesByTerm(searchTerm);
@@ -208,15 +217,16 @@ class RecipeDaoTest {
         when(resultSet.next())
                 .thenReturn(true)
                 .thenReturn(true)
-                .thenReturn(false);
+                .thenReturn(false)
+                .thenReturn(true); // COUNT(*) row
+        when(resultSet.getInt(1)).thenReturn(5);
         when(resultSet.getInt("id")).thenReturn(1, 2);
         when(resultSet.getString("name")).thenReturn("carrot soup", "potato soup");
         when(resultSet.getString("instructions"))
                 .thenReturn("Put carrot in water. Boil. Maybe salt.",
                         "Put potato in water. Boil. Maybe salt.");
         when(resultSet.getInt("chef_id")).thenReturn(1, 2);
-        when(chefDao.getChefById(1)).thenReturn(chefList.get(0));
-        when(chefDao.getChefById(2)).thenReturn(chefList.get(1));
+        when(resultSet.getString("chef_username")).thenReturn("JoeCool", "CharlieBrown");
 
         // Act
         Page<Recipe> recipePage = recipeDao.getAllRecipes(pageable);
@@ -224,5 +234,9 @@ class RecipeDaoTest {
         // Assert
         assertEquals(2, recipePage.getItems().size());
         assertEquals(2, recipePage.getPageSize());
+        assertEquals(5, recipePage.getTotalElements());
+        assertEquals(3, recipePage.getTotalPages());
+        verify(preparedStatement).setInt(1, 2); // LIMIT
+        verify(preparedStatement).setInt(2, 0); // OFFSET
     }
 }
\ No newline at end of file
@@ -1,12 +1,18 @@
 package com.revature.test;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
@@ -18,6 +24,9 @@ import com.revature.controller.IngredientController;
 import com.revature.controller.RecipeController;
 import com.revature.model.Chef;
 import com.revature.model.Recipe;
+import com.revature.model.RecipeIngredient;
+import com.revature.model.RecipeMatch;
+import com.revature.model.ShoppingListItem;
 import com.revature.dao.ChefDAO;
 import com.revature.dao.IngredientDAO;
 import com.revature.dao.RecipeDAO;
@@ -110,6 +119,7 @@ class RecipeIntegrationTest {
 	@AfterEach
 	void tearDownTestsData() {
 		app.close();
+		assertEquals(0, ConnectionUtil.getPool().getActiveCount(), "Every borrowed connection should be returned");
 	}
 
 	@Test
@@ -191,4 +201,283 @@ class RecipeIntegrationTest {
 				"The single result should be returned");
 	}
 
+	@Test
+	void testRecipesByIngredients() throws IOException {
+		Request anyRequest = new Request.Builder().url(BASE_URL + "/recipes?ingredient=1,potato")
+				.addHeader("Authorization", token).get().build();
+		Response anyResponse = client.newCall(anyRequest).execute();
+		assertEquals(new JavalinJackson().toJsonString(List.of(recipeList.get(0), recipeList.get(1)), List.class),
+				anyResponse.body().string(), "Recipes using any of the ingredients should be returned");
+
+		Request allRequest = new Request.Builder().url(BASE_URL + "/recipes?ingredient=Lemon,rice&match=all")
+				.addHeader("Authorization", token).get().build();
+		Response allResponse = client.newCall(allRequest).execute();
+		assertEquals(new JavalinJackson().toJsonString(List.of(recipeList.get(3)), List.class),
+				allResponse.body().string(), "Only recipes using all of the ingredients should be returned");
+
+		Request pageRequest = new Request.Builder()
+				.url(BASE_URL + "/recipes?ingredient=lemon,carrot&page=2&pageSize=1&sortBy=name&sortDirection=asc")
+				.addHeader("Authorization", token).get().build();
+		Response pageResponse = client.newCall(pageRequest).execute();
+		assertEquals(new JavalinJackson().toJsonString(new Page<Recipe>(2, 1, 2, 2, List.of(recipeList.get(3))), Page.class),
+				pageResponse.body().string(), "Ingredient searches should page like other searches");
+
+		Request noneRequest = new Request.Builder().url(BASE_URL + "/recipes?ingredient=carrot,potato&match=all")
+				.addHeader("Authorization", token).get().build();
+		assertEquals(404, client.newCall(noneRequest).execute().code());
+
+		Request mixedRequest = new Request.Builder().url(BASE_URL + "/recipes?ingredient=1,Carrot&match=all")
+				.addHeader("Authorization", token).get().build();
+		assertEquals(new JavalinJackson().toJsonString(List.of(recipeList.get(0)), List.class),
+				client.newCall(mixedRequest).execute().body().string(),
+				"An id and a name of the same ingredient should be required once");
+
+		Request overlapRequest = new Request.Builder().url(BASE_URL + "/recipes?ingredient=4,lemon,rice&match=all")
+				.addHeader("Authorization", token).get().build();
+		assertEquals(new JavalinJackson().toJsonString(List.of(recipeList.get(3)), List.class),
+				client.newCall(overlapRequest).execute().body().string(),
+				"Ids and names should resolve to one set of ingredients");
+
+		Request unknownRequest = new Request.Builder().url(BASE_URL + "/recipes?ingredient=lemon,unicorn&match=all")
+				.addHeader("Authorization", token).get().build();
+		assertEquals(404, client.newCall(unknownRequest).execute().code(),
+				"An unknown ingredient can never be used, so no recipe should match all of them");
+	}
+
+	@Test
+	void testExpandIngredients() throws IOException {
+		Recipe lemonRice = recipeList.get(3);
+		lemonRice.setIngredients(List.of(new RecipeIngredient(4, "lemon", 1, "Tbs"), new RecipeIngredient(5, "rice", 2, "cups")));
+		Request request = new Request.Builder().url(BASE_URL + "/recipes/4?expand=ingredients")
+				.addHeader("Authorization", token).get().build();
+		Response response = client.newCall(request).execute();
+		assertEquals(new JavalinJackson().toJsonString(lemonRice, Recipe.class), response.body().string(),
+				"The recipe's ingredients should be included when expanded");
+
+		Recipe tomato = recipeList.get(2);
+		tomato.setIngredients(List.of(new RecipeIngredient(3, "tomato", 2, "cups")));
+		Request listRequest = new Request.Builder().url(BASE_URL + "/recipes?page=2&pageSize=2&expand=ingredients")
+				.addHeader("Authorization", token).get().build();
+		Response listResponse = client.newCall(listRequest).execute();
+		assertEquals(new JavalinJackson().toJsonString(new Page<Recipe>(2, 2, 3, 5, List.of(tomato, lemonRice)), Page.class),
+				listResponse.body().string(), "Every recipe on the page should have its ingredients");
+	}
+
+	@Test
+	void testConvertUnits() throws IOException {
+		Recipe lemonRice = recipeList.get(3);
+		lemonRice.setIngredients(List.of(new RecipeIngredient(4, "lemon", 14.79, "ml"), new RecipeIngredient(5, "rice", 473.18, "ml")));
+		Request request = new Request.Builder().url(BASE_URL + "/recipes/4?expand=ingredients&units=metric")
+				.addHeader("Authorization", token).get().build();
+		Response response = client.newCall(request).execute();
+		assertEquals(new JavalinJackson().toJsonString(lemonRice, Recipe.class), response.body().string(),
+				"Amounts should be shown in metric units");
+
+		lemonRice.setIngredients(List.of(new RecipeIngredient(4, "lemon", 1, "Tbs"), new RecipeIngredient(5, "rice", 2, "cups")));
+		Request imperialRequest = new Request.Builder().url(BASE_URL + "/recipes/4?expand=ingredients&units=imperial")
+				.addHeader("Authorization", token).get().build();
+		Response imperialResponse = client.newCall(imperialRequest).execute();
+		assertEquals(new JavalinJackson().toJsonString(lemonRice, Recipe.class), imperialResponse.body().string(),
+				"Amounts already in imperial units should be left as written");
+	}
+
+	@Test
+	void testMetrics() throws IOException {
+		client.newCall(new Request.Builder().url(BASE_URL + "/recipes/1").addHeader("Authorization", token).get().build())
+				.execute().close();
+		client.newCall(new Request.Builder().url(BASE_URL + "/no-such-route").get().build()).execute().close();
+
+		Response response = client.newCall(new Request.Builder().url(BASE_URL + "/metrics").get().build()).execute();
+		String metrics = response.body().string();
+		assertEquals(200, response.code());
+		assertTrue(response.header("Content-Type").startsWith("text/plain"));
+		assertTrue(metrics.contains("http_requests_total{route=\"/recipes/{id}\",method=\"GET\",status=\"200\"}"),
+				"Requests should be counted by route template, method and status");
+		assertTrue(metrics.contains("http_requests_total{route=\"unmatched\",method=\"GET\",status=\"404\"}"),
+				"Requests matching no route should share one label");
+		assertTrue(metrics.contains("http_request_duration_seconds{route=\"/recipes/{id}\",method=\"GET\",quantile=\"0.99\"}"),
+				"Latency percentiles should be exported per route");
+	}
+
+	@Test
+	void testFullTextSearch() throws IOException {
+		Request rankedRequest = new Request.Builder().url(BASE_URL + "/recipes?q=Carrot%20water&pageSize=5")
+				.addHeader("Authorization", token).get().build();
+		Response rankedResponse = client.newCall(rankedRequest).execute();
+		assertEquals(new JavalinJackson().toJsonString(new Page<Recipe>(1, 5, 1, 5, List.of(recipeList.get(0),
+				recipeList.get(1), recipeList.get(2), recipeList.get(4), recipeList.get(3))), Page.class),
+				rankedResponse.body().string(),
+				"Recipes matching more of the words should rank first, and shorter recipes before longer ones");
+
+		Recipe updatedRecipe = recipeList.get(2);
+		updatedRecipe.setInstructions("Simmer tomato with basil.");
+		RequestBody recipeBody = RequestBody.create(new JavalinJackson().toJsonString(updatedRecipe, Recipe.class),
+				MediaType.get("application/json; charset=utf-8"));
+		client.newCall(new Request.Builder().url(BASE_URL + "/recipes/3").addHeader("Authorization", token)
+				.put(recipeBody).build()).execute();
+
+		Request updatedRequest = new Request.Builder().url(BASE_URL + "/recipes?q=basil")
+				.addHeader("Authorization", token).get().build();
+		Response updatedResponse = client.newCall(updatedRequest).execute();
+		assertEquals(new JavalinJackson().toJsonString(new Page<Recipe>(1, 10, 1, 1, List.of(updatedRecipe)), Page.class),
+				updatedResponse.body().string(), "Updated instructions should be searchable");
+	}
+
+	@Test
+	void testFuzzyNameSearch() throws IOException {
+		Request typoRequest = new Request.Builder().url(BASE_URL + "/recipes?name=Tomatto%20sop&fuzzy=true")
+				.addHeader("Authorization", token).get().build();
+		Response typoResponse = client.newCall(typoRequest).execute();
+		assertEquals(new JavalinJackson().toJsonString(List.of(recipeList.get(2)), List.class),
+				typoResponse.body().string(), "A name within two typos should be found");
+
+		Request wordsRequest = new Request.Builder().url(BASE_URL + "/recipes?name=lemon%20rise&fuzzy=true&distance=1")
+				.addHeader("Authorization", token).get().build();
+		Response wordsResponse = client.newCall(wordsRequest).execute();
+		assertEquals(new JavalinJackson().toJsonString(List.of(recipeList.get(3)), List.class),
+				wordsResponse.body().string(), "A misspelled part of a name should be found");
+
+		Request exactRequest = new Request.Builder().url(BASE_URL + "/recipes?name=Tomatto%20sop")
+				.addHeader("Authorization", token).get().build();
+		assertEquals(404, client.newCall(exactRequest).execute().code());
+	}
+
+	@Test
+	void testMatchPantry() throws IOException {
+		MediaType json = MediaType.get("application/json; charset=utf-8");
+		Request mostlyRequest = new Request.Builder().url(BASE_URL + "/recipes/match")
+				.post(RequestBody.create("[4, 1, 42]", json)).build();
+		Response mostlyResponse = client.newCall(mostlyRequest).execute();
+		assertEquals(new JavalinJackson().toJsonString(List.of(new RecipeMatch(recipeList.get(0), 1, 1),
+				new RecipeMatch(recipeList.get(3), 1, 2)), List.class), mostlyResponse.body().string(),
+				"Fully covered recipes should rank before partly covered ones");
+
+		Request fullyRequest = new Request.Builder().url(BASE_URL + "/recipes/match?minCoverage=1")
+				.post(RequestBody.create("[4, 1]", json)).build();
+		Response fullyResponse = client.newCall(fullyRequest).execute();
+		assertEquals(new JavalinJackson().toJsonString(List.of(new RecipeMatch(recipeList.get(0), 1, 1)), List.class),
+				fullyResponse.body().string(), "Partly covered recipes should be left out when full coverage is required");
+
+		client.newCall(new Request.Builder().url(BASE_URL + "/recipes/1").addHeader("Authorization", token).delete()
+				.build()).execute();
+		Request afterDeleteRequest = new Request.Builder().url(BASE_URL + "/recipes/match")
+				.post(RequestBody.create("[1]", json)).build();
+		assertEquals("[]", client.newCall(afterDeleteRequest).execute().body().string(),
+				"A deleted recipe should no longer match");
+
+		Request badRequest = new Request.Builder().url(BASE_URL + "/recipes/match")
+				.post(RequestBody.create("{\"carrot\": true}", json)).build();
+		assertEquals(400, client.newCall(badRequest).execute().code());
+
+		for (String coverage : List.of("most", "NaN", "1.5", "-0.1")) {
+			Request badCoverageRequest = new Request.Builder().url(BASE_URL + "/recipes/match?minCoverage=" + coverage)
+					.post(RequestBody.create("[4]", json)).build();
+			Response badCoverageResponse = client.newCall(badCoverageRequest).execute();
+			assertEquals(400, badCoverageResponse.code(), "minCoverage=" + coverage + " should be rejected");
+			assertEquals("minCoverage must be a number between 0 and 1", badCoverageResponse.body().string());
+		}
+	}
+
+	@Test
+	void testSimilarRecipes() throws Exception {
+		try (Connection connection = new ConnectionUtil().getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.executeUpdate("INSERT INTO RECIPE_INGREDIENT (recipe_id, ingredient_id, vol, unit) VALUES "
+					+ "(5, 4, 1, 'cups'), (5, 5, 1, 'cups'), (1, 4, 1, 'cups'), (1, 5, 1, 'cups')");
+		}
+		Request request = new Request.Builder().url(BASE_URL + "/recipes/4/similar")
+				.addHeader("Authorization", token).get().build();
+		assertEquals(new JavalinJackson().toJsonString(List.of(recipeList.get(4), recipeList.get(0)), List.class),
+				client.newCall(request).execute().body().string(), "Recipes sharing more ingredients should rank first");
+
+		try (Connection connection = new ConnectionUtil().getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.executeUpdate("DELETE FROM RECIPE_INGREDIENT WHERE recipe_id = 5 AND ingredient_id = 4");
+		}
+		Request changedRequest = new Request.Builder().url(BASE_URL + "/recipes/4/similar?limit=1")
+				.addHeader("Authorization", token).get().build();
+		assertEquals(new JavalinJackson().toJsonString(List.of(recipeList.get(0)), List.class),
+				client.newCall(changedRequest).execute().body().string(), "Changed ingredients should be picked up");
+
+		Request missingRequest = new Request.Builder().url(BASE_URL + "/recipes/99/similar")
+				.addHeader("Authorization", token).get().build();
+		assertEquals(404, client.newCall(missingRequest).execute().code());
+	}
+
+	@Test
+	void testShoppingList() throws Exception {
+		try (Connection connection = new ConnectionUtil().getConnection();
+				Statement statement = connection.createStatement()) {
+			statement.executeUpdate("INSERT INTO RECIPE_INGREDIENT (recipe_id, ingredient_id, vol, unit, is_metric) VALUES "
+					+ "(1, 1, 8, 'tbsp', false), (1, 5, 250, 'ml', true), (5, 6, 600, 'ml', true), (5, 6, 0.5, 'L', true), "
+					+ "(5, 6, 2, 'pinch', false)");
+		}
+		MediaType json = MediaType.get("application/json; charset=utf-8");
+		Request request = new Request.Builder().url(BASE_URL + "/shopping-list").post(RequestBody.create(
+				"[{\"recipeId\": 4, \"multiplier\": 2}, {\"recipeId\": 1}, {\"recipeId\": 5}, {\"recipeId\": 4}, {\"recipeId\": 99}]",
+				json)).build();
+		Response response = client.newCall(request).execute();
+		assertEquals(new JavalinJackson().toJsonString(List.of(
+				new ShoppingListItem(1, "carrot", 1.5, "cup"),
+				new ShoppingListItem(4, "lemon", 3, "tbsp"),
+				new ShoppingListItem(5, "rice", 7.06, "cup"),
+				new ShoppingListItem(6, "stone", 1.1, "l"),
+				new ShoppingListItem(6, "stone", 2, "pinch")), List.class), response.body().string(),
+				"Amounts should be scaled, summed per ingredient and shown in the unit that reads best");
+
+		Request badRequest = new Request.Builder().url(BASE_URL + "/shopping-list").post(RequestBody.create(
+				"[{\"recipeId\": 4, \"multiplier\": 0}]", json)).build();
+		assertEquals(400, client.newCall(badRequest).execute().code());
+	}
+
+	@Test
+	void testAsyncHandlers() throws IOException {
+		Javalin asyncApp = Javalin.create();
+		recipeController.enableAsync(asyncApp);
+		asyncApp.get("/recipes", recipeController.fetchAllRecipesAsync);
+		asyncApp.get("/recipes/{id}", recipeController.fetchRecipeByIdAsync);
+		asyncApp.start(0);
+		try {
+			String asyncUrl = "http://localhost:" + asyncApp.port();
+			Response recipe = client.newCall(new Request.Builder().url(asyncUrl + "/recipes/2").get().build()).execute();
+			assertEquals(200, recipe.code());
+			assertEquals(new JavalinJackson().toJsonString(recipeList.get(1), Recipe.class), recipe.body().string());
+
+			Response missing = client.newCall(new Request.Builder().url(asyncUrl + "/recipes/99").get().build()).execute();
+			assertEquals(404, missing.code());
+
+			Response all = client.newCall(new Request.Builder().url(asyncUrl + "/recipes").get().build()).execute();
+			assertEquals(jsonRecipeList, all.body().string());
+			Response none = client.newCall(new Request.Builder().url(asyncUrl + "/recipes?name=cake").get().build()).execute();
+			assertEquals(404, none.code());
+			assertEquals("No recipes found", none.body().string());
+			Response expanded = client.newCall(new Request.Builder().url(asyncUrl + "/recipes/1?expand=ingredients").get().build()).execute();
+			assertTrue(expanded.body().string().contains("\"ingredients\":["), "Query parameters should reach the async lookup");
+		} finally {
+			asyncApp.stop();
+		}
+	}
+
+	@Test
+	void testAsyncHandlerTimesOutWith503() throws IOException {
+		RecipeService slowService = mock(RecipeService.class);
+		when(slowService.findRecipe(1)).thenAnswer(invocation -> {
+			Thread.sleep(5_000);
+			return Optional.of(recipeList.get(0));
+		});
+		RecipeController slowController = new RecipeController(slowService, authService);
+		Javalin asyncApp = Javalin.create();
+		slowController.enableAsync(asyncApp);
+		asyncApp.get("/recipes/{id}", slowController.fetchRecipeByIdAsync);
+		asyncApp.start(0);
+		try {
+			long start = System.nanoTime();
+			Response response = client.newCall(
+					new Request.Builder().url("http://localhost:" + asyncApp.port() + "/recipes/1").get().build()).execute();
+			assertEquals(503, response.code());
+			assertTrue(System.nanoTime() - start < 4_000_000_000L, "A slow lookup should fail at the timeout");
+		} finally {
+			asyncApp.stop();
+		}
+	}
 }
@@ -0,0 +1,107 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.SessionStore;
+
+class SessionStoreTest {
+
+    @Test
+    void sessionsCanBeLookedUpAndRemoved() {
+        SessionStore<String> store = new SessionStore<>(60_000, 60_000, 10);
+        store.put("token", "chef");
+
+        assertEquals("chef", store.get("token"));
+        assertNull(store.get("unknown"));
+        assertNull(store.get(null));
+
+        store.remove("token");
+        assertNull(store.get("token"));
+    }
+
+    @Test
+    void oldestSessionIsDroppedWhenFull() {
+        SessionStore<Integer> store = new SessionStore<>(60_000, 60_000, 2);
+        store.put("a", 1);
+        store.put("b", 2);
+        store.put("c", 3);
+
+        assertNull(store.get("a"), "The oldest session should make room for the newest");
+        assertEquals(2, store.get("b"));
+        assertEquals(3, store.get("c"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void aReusedTokenCountsFromItsNewSession() {
+        SessionStore<Integer> store = new SessionStore<>(60_000, 60_000, 2);
+        store.put("a", 1);
+        store.put("b", 2);
+        store.remove("a");
+        store.put("a", 3);
+        store.put("c", 4);
+
+        assertNull(store.get("b"), "The ended session's place in the queue should not protect the older one");
+        assertEquals(3, store.get("a"));
+        assertEquals(4, store.get("c"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    void sessionsExpireAfterTimeToLiveAndIdleTimeout() throws InterruptedException {
+        SessionStore<String> shortLived = new SessionStore<>(20, 60_000, 10);
+        shortLived.put("token", "chef");
+        Thread.sleep(40);
+        assertNull(shortLived.get("token"));
+
+        SessionStore<String> idle = new SessionStore<>(60_000, 20, 10);
+        idle.put("token", "chef");
+        Thread.sleep(40);
+        assertNull(idle.get("token"));
+    }
+
+    @Test
+    void endedSessionsLeaveNothingBehind() throws InterruptedException {
+        SessionStore<String> store = new SessionStore<>(60_000, 20, 1_000);
+        store.put("long-lived", "chef");
+        for (int i = 0; i < 500; i++) {
+            store.put("token" + i, "chef");
+            store.remove("token" + i);
+        }
+        assertEquals(1, store.size(), "Logged out sessions should not stay queued behind an older one");
+
+        store.put("idle", "chef");
+        Thread.sleep(40);
+        assertNull(store.get("idle"));
+        assertNull(store.get("long-lived"));
+        assertEquals(0, store.size(), "Sessions that expired on lookup should not stay queued");
+    }
+
+    @Test
+    void concurrentLoginsStayWithinTheCap() throws InterruptedException {
+        SessionStore<String> store = new SessionStore<>(60_000, 60_000, 100);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    String token = UUID.randomUUID().toString();
+                    store.put(token, token);
+                    store.get(token);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(store.size() <= 100 + threads.size(), "Store grew to " + store.size());
+    }
+}
@@ -0,0 +1,54 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.model.ShoppingListItem;
+import com.revature.model.Unit;
+import com.revature.util.ShoppingListAggregator;
+
+class ShoppingListAggregatorTest {
+
+    @Test
+    void amountsOfOneDimensionAreSummedAndNormalized() {
+        ShoppingListAggregator aggregator = new ShoppingListAggregator();
+        aggregator.add(1, "milk", 24, "tsp", false);
+        aggregator.add(1, "milk", 0.5, "Cups", false);
+        aggregator.add(2, "flour", 750, "g", true);
+        aggregator.add(2, "flour", 0.25, "kg.", true);
+        aggregator.add(2, "flour", 1, "cup", false);
+        aggregator.add(3, "salt", 1, "pinch", false);
+        aggregator.add(3, "salt", 2, "Pinch", false);
+
+        assertEquals(List.of(
+                new ShoppingListItem(1, "milk", 1, "cup"),
+                new ShoppingListItem(2, "flour", 1, "kg"),
+                new ShoppingListItem(2, "flour", 1, "cup"),
+                new ShoppingListItem(3, "salt", 3, "pinch")), aggregator.items());
+    }
+
+    @Test
+    void unitsParseCommonSpellingsAndNormalizeToTheLargestFittingUnit() {
+        assertEquals(Unit.TABLESPOON, Unit.parse(" Tbs "));
+        assertEquals(Unit.LITER, Unit.parse("litres"));
+        assertNull(Unit.parse("handful"));
+        assertEquals(Unit.TEASPOON, Unit.normalized(Unit.Dimension.VOLUME, false, 1));
+        assertEquals(Unit.TABLESPOON, Unit.normalized(Unit.Dimension.VOLUME, false, 100));
+        assertEquals(Unit.LITER, Unit.normalized(Unit.Dimension.VOLUME, true, 1_000));
+        assertEquals(Unit.POUND, Unit.normalized(Unit.Dimension.MASS, false, 500));
+    }
+
+    @Test
+    void unitsConvertIntoTheEquivalentUnitOfTheOtherSystem() {
+        assertEquals(48, Unit.CUP.convert(1, Unit.TEASPOON), 1e-9);
+        assertTrue(Double.isNaN(Unit.CUP.convert(1, Unit.GRAM)));
+        assertEquals(Unit.MILLILITER, Unit.CUP.equivalent(2, true));
+        assertEquals(Unit.LITER, Unit.GALLON.equivalent(1, true));
+        assertEquals(Unit.POUND, Unit.KILOGRAM.equivalent(1, false));
+        assertEquals(Unit.CUP, Unit.CUP.equivalent(2, false));
+        assertSame(Unit.parse("Tbs"), Unit.parse("Tbs"));
+    }
+}
@@ -0,0 +1,36 @@
+package com.revature.test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import com.revature.util.TrigramIndex;
+
+class TrigramIndexTest {
+
+    @Test
+    void trigramsAreDistinctLowerCaseSubstrings() {
+        assertEquals(List.of("ban", "ana", "nan"), List.copyOf(TrigramIndex.trigrams("BANANA")));
+        assertEquals(Set.of(), TrigramIndex.trigrams("ab"));
+        assertEquals(Set.of(), TrigramIndex.trigrams(null));
+    }
+
+    @Test
+    void shortOrWildcardTermsAreNotSearchedThroughTheIndex() {
+        assertTrue(TrigramIndex.canSearch("soup"));
+        assertFalse(TrigramIndex.canSearch("so"));
+        assertFalse(TrigramIndex.canSearch("so%p"));
+        assertFalse(TrigramIndex.canSearch("so_p"));
+        assertFalse(TrigramIndex.canSearch(null));
+    }
+
+    @Test
+    void matchingParamsBindTheTermsTrigramsAndTheirCount() {
+        Object[] params = TrigramIndex.matchingParams("soup");
+        assertArrayEquals(new String[] { "sou", "oup" }, (String[]) params[0]);
+        assertEquals(2, params[1]);
+    }
+}